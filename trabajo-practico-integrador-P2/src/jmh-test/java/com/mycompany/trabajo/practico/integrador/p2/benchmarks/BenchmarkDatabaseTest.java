@@ -0,0 +1,44 @@
+package com.mycompany.trabajo.practico.integrador.p2.benchmarks;
+
+import com.mycompany.trabajo.practico.integrador.p2.TestDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BenchmarkDatabaseTest {
+
+    @BeforeEach
+    void emptyTables() throws Exception {
+        TestDatabase.reset();
+    }
+
+    @Test
+    void seedTopsUpToTheRequestedRowsWithoutDuplicates() throws Exception {
+        BenchmarkDatabase.ensureSchema();
+        BenchmarkDatabase.seed(1500);
+        // Una segunda corrida con más filas solo agrega las que faltan; con menos no hace nada
+        BenchmarkDatabase.seed(2100);
+        BenchmarkDatabase.seed(10);
+
+        List<Object[]> keys = BenchmarkDatabase.loadKeys(5000);
+        assertEquals(2100, keys.size());
+        assertEquals("BM0000000", keys.get(0)[1]);
+        assertEquals("BM0002099", keys.get(2099)[1]);
+        assertEquals("BMPOL2099", keys.get(2099)[2]);
+    }
+
+    @Test
+    void loadKeysReturnsSeededRowsInIdOrder() throws Exception {
+        BenchmarkDatabase.seed(50);
+
+        List<Object[]> keys = BenchmarkDatabase.loadKeys(20);
+        assertEquals(20, keys.size());
+        for (int i = 1; i < keys.size(); i++) {
+            assertTrue((Long) keys.get(i - 1)[0] < (Long) keys.get(i)[0]);
+        }
+    }
+}
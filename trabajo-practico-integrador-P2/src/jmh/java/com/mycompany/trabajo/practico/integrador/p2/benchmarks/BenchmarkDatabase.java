@@ -0,0 +1,122 @@
+package com.mycompany.trabajo.practico.integrador.p2.benchmarks;
+
+import com.mycompany.trabajo.practico.integrador.p2.config.DatabaseConnection;
+import com.mycompany.trabajo.practico.integrador.p2.config.MigrationRunner;
+import com.mycompany.trabajo.practico.integrador.p2.entities.InsuranceVehicle;
+import com.mycompany.trabajo.practico.integrador.p2.entities.Vehicle;
+import com.mycompany.trabajo.practico.integrador.p2.entities.enums.CoverType;
+import com.mycompany.trabajo.practico.integrador.p2.services.VehicleService;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Prepara la base de los benchmarks: crea las tablas si no existen (base embebida), aplica las migraciones
+ * y carga vehículos con seguro hasta llegar a la cantidad pedida.
+ * Las filas de benchmark usan patentes con prefijo BM para no mezclarse con datos reales.
+ */
+final class BenchmarkDatabase {
+
+    static final String DOMAIN_PREFIX = "BM";
+
+    private BenchmarkDatabase() {
+    }
+
+    static void ensureSchema() throws Exception {
+        Connection conn = DatabaseConnection.getConnection();
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS insurance_vehicle (" +
+                    "insurance_vehicle_id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                    "isActive BOOLEAN NOT NULL DEFAULT FALSE, " +
+                    "insurance_name VARCHAR(80) NOT NULL, " +
+                    "policy_number VARCHAR(50) NOT NULL UNIQUE, " +
+                    "cover ENUM('RC','Contra terceros','Todo_riesgo') NOT NULL, " +
+                    "expire_date DATE NOT NULL)");
+            stmt.execute("CREATE TABLE IF NOT EXISTS vehicle (" +
+                    "vehicle_id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                    "isActive BOOLEAN NOT NULL DEFAULT FALSE, " +
+                    "domain VARCHAR(10) NOT NULL UNIQUE, " +
+                    "brand VARCHAR(50) NOT NULL, " +
+                    "model VARCHAR(50) NOT NULL, " +
+                    "year INT NOT NULL, " +
+                    "chasis_number VARCHAR(50) UNIQUE, " +
+                    "insurance_vehicle_id BIGINT UNIQUE, " +
+                    "CONSTRAINT fk_vehicle_insurance FOREIGN KEY (insurance_vehicle_id) " +
+                    "REFERENCES insurance_vehicle(insurance_vehicle_id) ON UPDATE CASCADE)");
+        } finally {
+            DatabaseConnection.closeConnection(conn);
+        }
+        // Mismos índices que en producción
+        MigrationRunner.migrate();
+    }
+
+    static void seed(int rows) throws Exception {
+        int existing = countSeededRows();
+        if (existing >= rows) {
+            return;
+        }
+
+        VehicleService vehicleService = new VehicleService();
+        CoverType[] covers = CoverType.values();
+        List<Vehicle> batch = new ArrayList<>(1000);
+
+        for (int n = existing; n < rows; n++) {
+            Vehicle vehicle = new Vehicle(String.format("%s%07d", DOMAIN_PREFIX, n),
+                    n % 3 == 0 ? "Toyota" : n % 3 == 1 ? "Ford" : "Chevrolet",
+                    "Modelo " + (n % 10), 2000 + (n % 20), "BMCH" + n);
+            vehicle.setInsurance(new InsuranceVehicle(null, "Aseguradora Bench", "BMPOL" + n,
+                    covers[n % covers.length], LocalDate.now().plusYears(1)));
+            batch.add(vehicle);
+
+            if (batch.size() == 1000) {
+                vehicleService.insertAll(batch);
+                batch = new ArrayList<>(1000);
+            }
+        }
+        if (!batch.isEmpty()) {
+            vehicleService.insertAll(batch);
+        }
+    }
+
+    /**
+     * Claves de las filas sembradas: [0] = vehicle_id, [1] = patente, [2] = número de póliza.
+     */
+    static List<Object[]> loadKeys(int rows) throws Exception {
+        List<Object[]> keys = new ArrayList<>(rows);
+        String sql = "SELECT v.vehicle_id, v.domain, iv.policy_number FROM vehicle v " +
+                "JOIN insurance_vehicle iv ON v.insurance_vehicle_id = iv.insurance_vehicle_id " +
+                "WHERE v.domain LIKE ? AND v.isActive = true ORDER BY v.vehicle_id LIMIT ?";
+
+        Connection conn = DatabaseConnection.getConnection();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, DOMAIN_PREFIX + "%");
+            stmt.setInt(2, rows);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    keys.add(new Object[]{rs.getLong(1), rs.getString(2), rs.getString(3)});
+                }
+            }
+        } finally {
+            DatabaseConnection.closeConnection(conn);
+        }
+        return keys;
+    }
+
+    private static int countSeededRows() throws Exception {
+        Connection conn = DatabaseConnection.getConnection();
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) FROM vehicle WHERE domain LIKE ?")) {
+            stmt.setString(1, DOMAIN_PREFIX + "%");
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        } finally {
+            DatabaseConnection.closeConnection(conn);
+        }
+    }
+}
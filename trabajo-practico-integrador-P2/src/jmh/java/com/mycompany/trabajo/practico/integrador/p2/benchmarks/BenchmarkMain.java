@@ -0,0 +1,28 @@
+package com.mycompany.trabajo.practico.integrador.p2.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Punto de entrada de los benchmarks: acepta las opciones habituales de JMH
+ * y agrega siempre el profiler de GC para reportar la tasa de asignación.
+ *
+ * Ejemplos:
+ *   java -jar target/trabajo-practico-integrador-P2-1.0-SNAPSHOT-benchmarks.jar
+ *   java -Ddb.url="jdbc:h2:mem:bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=YEAR;DB_CLOSE_DELAY=-1" \
+ *        -jar target/...-benchmarks.jar DaoBenchmark -p rows=100000
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        Options options = new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,86 @@
+package com.mycompany.trabajo.practico.integrador.p2.benchmarks;
+
+import com.mycompany.trabajo.practico.integrador.p2.config.DatabaseConnection;
+import com.mycompany.trabajo.practico.integrador.p2.daos.InsuranceVehicleDao;
+import com.mycompany.trabajo.practico.integrador.p2.daos.VehicleDao;
+import com.mycompany.trabajo.practico.integrador.p2.entities.InsuranceVehicle;
+import com.mycompany.trabajo.practico.integrador.p2.entities.Vehicle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caminos calientes de los DAOs sobre una conexión por hilo (sin costo de préstamo del pool).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DaoBenchmark {
+
+    @State(Scope.Thread)
+    public static class ThreadConnection {
+        Connection conn;
+
+        @Setup(Level.Trial)
+        public void open() throws Exception {
+            conn = DatabaseConnection.getConnection();
+        }
+
+        @TearDown(Level.Trial)
+        public void close() {
+            DatabaseConnection.closeConnection(conn);
+        }
+    }
+
+    private final VehicleDao vehicleDao = new VehicleDao();
+    private final InsuranceVehicleDao insuranceDao = new InsuranceVehicleDao();
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Vehicle> vehicleReadAll(SeededDatabase db, ThreadConnection tc) throws Exception {
+        return vehicleDao.readAll(tc.conn);
+    }
+
+    @Benchmark
+    public Vehicle vehicleFindById(SeededDatabase db, ThreadConnection tc) throws Exception {
+        return vehicleDao.findVehicleById(db.vehicleIds[db.randomIndex()], tc.conn);
+    }
+
+    @Benchmark
+    public Vehicle vehicleFindByDomain(SeededDatabase db, ThreadConnection tc) throws Exception {
+        return vehicleDao.findByDomain(db.domains[db.randomIndex()], tc.conn);
+    }
+
+    @Benchmark
+    public InsuranceVehicle insuranceFindByPolicyNumber(SeededDatabase db, ThreadConnection tc) throws Exception {
+        return insuranceDao.findByPolicyNumber(db.policyNumbers[db.randomIndex()], tc.conn);
+    }
+
+    // Mapeo de filas: una página de 1000 vehículos con su seguro (consulta + armado de entidades)
+    @Benchmark
+    public List<Vehicle> vehicleMapPage(SeededDatabase db, ThreadConnection tc) throws Exception {
+        return vehicleDao.readPage(0L, 1000, tc.conn);
+    }
+
+    @Benchmark
+    public List<InsuranceVehicle> insuranceMapPage(SeededDatabase db, ThreadConnection tc) throws Exception {
+        return insuranceDao.readPage(0L, 1000, tc.conn);
+    }
+}
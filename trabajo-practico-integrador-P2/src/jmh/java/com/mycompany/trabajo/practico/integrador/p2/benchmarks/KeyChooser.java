@@ -0,0 +1,84 @@
+package com.mycompany.trabajo.practico.integrador.p2.benchmarks;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Elige el índice de la próxima clave del generador de carga.
+ * "uniform" reparte por igual; "zipfian" concentra el tráfico en pocas claves calientes
+ * (generador de Gray et al., el mismo que usa YCSB), dispersas por toda la tabla.
+ */
+abstract class KeyChooser {
+
+    abstract int next();
+
+    static KeyChooser of(String distribution, int items, double theta) {
+        switch (distribution.toLowerCase(Locale.ROOT)) {
+            case "uniform":
+                return new Uniform(items);
+            case "zipfian":
+                return new Zipfian(items, theta);
+            default:
+                throw new IllegalArgumentException("Unknown key distribution: " + distribution);
+        }
+    }
+
+    private static final class Uniform extends KeyChooser {
+        private final int items;
+
+        private Uniform(int items) {
+            this.items = items;
+        }
+
+        @Override
+        int next() {
+            return ThreadLocalRandom.current().nextInt(items);
+        }
+    }
+
+    private static final class Zipfian extends KeyChooser {
+        private final int items;
+        private final double theta;
+        private final double alpha;
+        private final double zetaN;
+        private final double eta;
+
+        private Zipfian(int items, double theta) {
+            this.items = items;
+            this.theta = theta;
+            this.alpha = 1.0 / (1.0 - theta);
+            this.zetaN = zeta(items, theta);
+            this.eta = (1 - Math.pow(2.0 / items, 1 - theta)) / (1 - zeta(2, theta) / zetaN);
+        }
+
+        @Override
+        int next() {
+            double u = ThreadLocalRandom.current().nextDouble();
+            double uz = u * zetaN;
+            long rank;
+            if (uz < 1.0) {
+                rank = 0;
+            } else if (uz < 1.0 + Math.pow(0.5, theta)) {
+                rank = 1;
+            } else {
+                rank = (long) (items * Math.pow(eta * u - eta + 1, alpha));
+            }
+            return scatter(Math.min(rank, items - 1));
+        }
+
+        // Las claves calientes no quedan todas al principio de la tabla (mismo rango → mismo índice)
+        private int scatter(long rank) {
+            long h = rank * 0x9E3779B97F4A7C15L;
+            h ^= h >>> 32;
+            return (int) Math.floorMod(h, (long) items);
+        }
+
+        private static double zeta(long n, double theta) {
+            double sum = 0;
+            for (long i = 1; i <= n; i++) {
+                sum += 1 / Math.pow(i, theta);
+            }
+            return sum;
+        }
+    }
+}
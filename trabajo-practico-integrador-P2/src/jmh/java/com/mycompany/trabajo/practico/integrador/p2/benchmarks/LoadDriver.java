@@ -0,0 +1,240 @@
+package com.mycompany.trabajo.practico.integrador.p2.benchmarks;
+
+import com.mycompany.trabajo.practico.integrador.p2.config.DatabaseConnection;
+import com.mycompany.trabajo.practico.integrador.p2.entities.Vehicle;
+import com.mycompany.trabajo.practico.integrador.p2.services.InsuranceVehicleService;
+import com.mycompany.trabajo.practico.integrador.p2.services.VehicleService;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.BufferedWriter;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Generador de carga de punta a punta: corre una mezcla de lecturas y escrituras a través de
+ * VehicleService / InsuranceVehicleService (caché, pool, DAOs y base) con N hilos durante un tiempo fijo.
+ *
+ * Lecturas: getById, findByDomain y findByPolicyNumber en partes iguales. Escrituras: getById + update.
+ * Las latencias se registran en histogramas HdrHistogram por operación. Con load.targetRate > 0 cada hilo
+ * sigue un calendario fijo y la latencia se mide desde el inicio previsto (sin omisión coordinada).
+ * Cada corrida agrega una fila por operación al CSV de load.output para comparar corridas.
+ *
+ * Ejemplo (todas las opciones son propiedades -D, con los valores por defecto):
+ *   java -Dload.threads=8 -Dload.durationSeconds=30 -Dload.warmupSeconds=5 -Dload.readRatio=0.9 \
+ *        -Dload.distribution=zipfian -Dload.rows=10000 -Dload.targetRate=0 -Dload.output=load-results.csv \
+ *        -cp target/trabajo-practico-integrador-P2-1.0-SNAPSHOT-benchmarks.jar \
+ *        com.mycompany.trabajo.practico.integrador.p2.benchmarks.LoadDriver
+ */
+public class LoadDriver {
+
+    private static final PrintStream OUT = System.out;
+
+    private static final String LABEL = DatabaseConnection.getProperty("load.label", "");
+    private static final int THREADS = DatabaseConnection.getIntProperty("load.threads", 8);
+    private static final int DURATION_SECONDS = DatabaseConnection.getIntProperty("load.durationSeconds", 30);
+    private static final int WARMUP_SECONDS = DatabaseConnection.getIntProperty("load.warmupSeconds", 5);
+    private static final double READ_RATIO = Double.parseDouble(DatabaseConnection.getProperty("load.readRatio", "0.9"));
+    private static final String DISTRIBUTION = DatabaseConnection.getProperty("load.distribution", "zipfian");
+    private static final double ZIPFIAN_THETA = Double.parseDouble(DatabaseConnection.getProperty("load.zipfianTheta", "0.99"));
+    private static final int ROWS = DatabaseConnection.getIntProperty("load.rows", 10000);
+    private static final long TARGET_RATE = DatabaseConnection.getLongProperty("load.targetRate", 0L);
+    private static final String OUTPUT = DatabaseConnection.getProperty("load.output", "load-results.csv");
+
+    private static final String CSV_HEADER = "timestamp,label,threads,duration_s,read_ratio,distribution," +
+            "target_rate,operation,ops,errors,ops_per_s,p50_us,p90_us,p99_us,p999_us,max_us";
+
+    enum Operation { GET_BY_ID, FIND_BY_DOMAIN, FIND_BY_POLICY, UPDATE }
+
+    private final VehicleService vehicleService = new VehicleService();
+    private final InsuranceVehicleService insuranceService = new InsuranceVehicleService();
+    private final Recorder[] recorders = new Recorder[Operation.values().length];
+    private final LongAdder[] errors = new LongAdder[Operation.values().length];
+    private final KeyChooser keyChooser;
+
+    private final long[] vehicleIds;
+    private final String[] domains;
+    private final String[] policyNumbers;
+    private volatile boolean running = true;
+
+    private LoadDriver(List<Object[]> keys) {
+        vehicleIds = new long[keys.size()];
+        domains = new String[keys.size()];
+        policyNumbers = new String[keys.size()];
+        for (int i = 0; i < keys.size(); i++) {
+            vehicleIds[i] = (Long) keys.get(i)[0];
+            domains[i] = (String) keys.get(i)[1];
+            policyNumbers[i] = (String) keys.get(i)[2];
+        }
+        for (int i = 0; i < recorders.length; i++) {
+            recorders[i] = new Recorder(3);
+            errors[i] = new LongAdder();
+        }
+        keyChooser = KeyChooser.of(DISTRIBUTION, keys.size(), ZIPFIAN_THETA);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (READ_RATIO < 0 || READ_RATIO > 1 || THREADS <= 0 || DURATION_SECONDS <= 0) {
+            System.err.println("Invalid load options: readRatio must be in [0, 1], threads and duration > 0.");
+            System.exit(2);
+        }
+
+        // Los servicios informan cada operación por consola; se silencia para no medir E/S de consola
+        System.setOut(new PrintStream(PrintStream.nullOutputStream()));
+        try {
+            OUT.println("Preparing " + ROWS + " vehicles...");
+            BenchmarkDatabase.ensureSchema();
+            BenchmarkDatabase.seed(ROWS);
+            new LoadDriver(BenchmarkDatabase.loadKeys(ROWS)).run();
+        } finally {
+            DatabaseConnection.shutdown();
+        }
+    }
+
+    private void run() throws Exception {
+        OUT.printf(Locale.ROOT, "Running %d threads for %ds (+%ds warmup), readRatio=%.2f, distribution=%s, targetRate=%s%n",
+                THREADS, DURATION_SECONDS, WARMUP_SECONDS, READ_RATIO, DISTRIBUTION,
+                TARGET_RATE > 0 ? TARGET_RATE + " ops/s" : "unbounded");
+
+        ExecutorService workers = Executors.newFixedThreadPool(THREADS, r -> {
+            Thread t = new Thread(r, "load-driver");
+            t.setDaemon(true);
+            return t;
+        });
+        long intervalNanos = TARGET_RATE > 0 ? TimeUnit.SECONDS.toNanos(THREADS) / TARGET_RATE : 0;
+        for (int i = 0; i < THREADS; i++) {
+            workers.submit(() -> work(intervalNanos));
+        }
+
+        // Lo registrado durante el calentamiento se descarta
+        TimeUnit.SECONDS.sleep(WARMUP_SECONDS);
+        for (int i = 0; i < recorders.length; i++) {
+            recorders[i].getIntervalHistogram();
+            errors[i].reset();
+        }
+
+        long start = System.nanoTime();
+        TimeUnit.SECONDS.sleep(DURATION_SECONDS);
+        Histogram[] histograms = new Histogram[recorders.length];
+        long[] errorCounts = new long[recorders.length];
+        for (int i = 0; i < recorders.length; i++) {
+            histograms[i] = recorders[i].getIntervalHistogram();
+            errorCounts[i] = errors[i].sum();
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        running = false;
+        workers.shutdown();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+
+        report(histograms, errorCounts, elapsedSeconds);
+    }
+
+    private void work(long intervalNanos) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long intendedStart = System.nanoTime();
+
+        while (running) {
+            if (intervalNanos > 0) {
+                intendedStart += intervalNanos;
+                long wait = intendedStart - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            } else {
+                intendedStart = System.nanoTime();
+            }
+
+            Operation operation = random.nextDouble() < READ_RATIO
+                    ? Operation.values()[random.nextInt(3)]
+                    : Operation.UPDATE;
+            int index = keyChooser.next();
+            try {
+                execute(operation, index, random);
+            } catch (Exception e) {
+                errors[operation.ordinal()].increment();
+            }
+            recorders[operation.ordinal()].recordValue(Math.max(0, (System.nanoTime() - intendedStart) / 1000));
+        }
+    }
+
+    private void execute(Operation operation, int index, ThreadLocalRandom random) throws Exception {
+        switch (operation) {
+            case GET_BY_ID:
+                vehicleService.getById(vehicleIds[index]);
+                break;
+            case FIND_BY_DOMAIN:
+                vehicleService.findByDomain(domains[index]);
+                break;
+            case FIND_BY_POLICY:
+                insuranceService.findByPolicyNumber(policyNumbers[index]);
+                break;
+            case UPDATE:
+                Vehicle vehicle = vehicleService.getById(vehicleIds[index]);
+                if (vehicle == null) {
+                    throw new IllegalStateException("Vehicle " + vehicleIds[index] + " not found.");
+                }
+                vehicle.setModel("Modelo " + random.nextInt(10));
+                vehicleService.update(vehicle);
+                break;
+        }
+    }
+
+    private void report(Histogram[] histograms, long[] errorCounts, double elapsedSeconds) throws Exception {
+        Histogram total = new Histogram(3);
+        long totalErrors = 0;
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+
+        Path output = Paths.get(OUTPUT);
+        boolean newFile = !Files.exists(output) || Files.size(output) == 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            if (newFile) {
+                writer.write(CSV_HEADER);
+                writer.newLine();
+            }
+
+            OUT.printf("%-15s %10s %8s %10s %9s %9s %9s %9s %9s%n",
+                    "operation", "ops", "errors", "ops/s", "p50 us", "p90 us", "p99 us", "p99.9 us", "max us");
+            for (Operation operation : Operation.values()) {
+                Histogram histogram = histograms[operation.ordinal()];
+                total.add(histogram);
+                totalErrors += errorCounts[operation.ordinal()];
+                writeLine(writer, timestamp, operation.name(), histogram, errorCounts[operation.ordinal()], elapsedSeconds);
+            }
+            writeLine(writer, timestamp, "ALL", total, totalErrors, elapsedSeconds);
+        }
+        OUT.println("Results appended to " + output.toAbsolutePath());
+    }
+
+    private static void writeLine(BufferedWriter writer, String timestamp, String operation, Histogram histogram,
+                                  long errorCount, double elapsedSeconds) throws Exception {
+        long ops = histogram.getTotalCount();
+        double throughput = ops / elapsedSeconds;
+        OUT.printf(Locale.ROOT, "%-15s %10d %8d %10.1f %9d %9d %9d %9d %9d%n",
+                operation, ops, errorCount, throughput,
+                histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(90),
+                histogram.getValueAtPercentile(99), histogram.getValueAtPercentile(99.9), histogram.getMaxValue());
+
+        writer.write(String.format(Locale.ROOT, "%s,%s,%d,%d,%.2f,%s,%d,%s,%d,%d,%.1f,%d,%d,%d,%d,%d",
+                timestamp, LABEL, THREADS, DURATION_SECONDS, READ_RATIO, DISTRIBUTION, TARGET_RATE,
+                operation, ops, errorCount, throughput,
+                histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(90),
+                histogram.getValueAtPercentile(99), histogram.getValueAtPercentile(99.9), histogram.getMaxValue()));
+        writer.newLine();
+    }
+}
@@ -0,0 +1,51 @@
+package com.mycompany.trabajo.practico.integrador.p2.benchmarks;
+
+import com.mycompany.trabajo.practico.integrador.p2.config.DatabaseConnection;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Base sembrada con {@code rows} vehículos con seguro, compartida por todos los hilos del benchmark.
+ */
+@State(Scope.Benchmark)
+public class SeededDatabase {
+
+    @Param("10000")
+    public int rows;
+
+    long[] vehicleIds;
+    String[] domains;
+    String[] policyNumbers;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        BenchmarkDatabase.ensureSchema();
+        BenchmarkDatabase.seed(rows);
+
+        List<Object[]> keys = BenchmarkDatabase.loadKeys(rows);
+        vehicleIds = new long[keys.size()];
+        domains = new String[keys.size()];
+        policyNumbers = new String[keys.size()];
+        for (int i = 0; i < keys.size(); i++) {
+            vehicleIds[i] = (Long) keys.get(i)[0];
+            domains[i] = (String) keys.get(i)[1];
+            policyNumbers[i] = (String) keys.get(i)[2];
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        DatabaseConnection.shutdown();
+    }
+
+    int randomIndex() {
+        return ThreadLocalRandom.current().nextInt(vehicleIds.length);
+    }
+}
@@ -0,0 +1,61 @@
+package com.mycompany.trabajo.practico.integrador.p2.benchmarks;
+
+import com.mycompany.trabajo.practico.integrador.p2.entities.Vehicle;
+import com.mycompany.trabajo.practico.integrador.p2.services.VehicleService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Escrituras completas a través de VehicleService (validación, transacción, commit).
+ * Las patentes generadas son únicas entre corridas: prefijo S + segundos actuales en base 36 + contador.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ServiceBenchmark {
+
+    private static final String RUN_PREFIX = "S" + Long.toString(System.currentTimeMillis() / 1000 % (36L * 36 * 36 * 36), 36);
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private final VehicleService vehicleService = new VehicleService();
+
+    static {
+        // Los servicios informan cada operación por consola; se silencia para no medir E/S de consola
+        System.setOut(new PrintStream(PrintStream.nullOutputStream()));
+    }
+
+    @Benchmark
+    public Vehicle insert(SeededDatabase db) throws Exception {
+        Vehicle vehicle = newVehicle();
+        vehicleService.insert(vehicle);
+        return vehicle;
+    }
+
+    @Benchmark
+    public Vehicle insertThenDelete(SeededDatabase db) throws Exception {
+        Vehicle vehicle = newVehicle();
+        vehicleService.insert(vehicle);
+        vehicleService.delete(vehicle.getVehicleId());
+        return vehicle;
+    }
+
+    private static Vehicle newVehicle() {
+        String suffix = Long.toString(SEQUENCE.incrementAndGet(), 36);
+        String domain = (RUN_PREFIX + "00000").substring(0, 10 - Math.min(suffix.length(), 5)) + suffix;
+        return new Vehicle(Vehicle.normalizeDomain(domain), "Bench", "Service", 2020, null);
+    }
+}
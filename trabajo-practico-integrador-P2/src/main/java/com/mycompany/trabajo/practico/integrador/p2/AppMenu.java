@@ -10,6 +10,7 @@ import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Locale;
 import java.util.Scanner;
 
 public class AppMenu {
@@ -130,7 +131,7 @@ public class AppMenu {
         System.out.println("\n--- CREATE NEW VEHICLE ---");
 
         System.out.print("Domain (max 10 chars): ");
-        String domain = scanner.nextLine().trim().toUpperCase();
+        String domain = Vehicle.normalizeDomain(scanner.nextLine().trim());
 
         System.out.print("Brand (max 50 chars): ");
         String brand = scanner.nextLine().trim();
@@ -148,7 +149,7 @@ public class AppMenu {
         }
 
         System.out.print("\nDo you want to add insurance now? (Y/N): ");
-        String addInsurance = scanner.nextLine().trim().toUpperCase();
+        String addInsurance = scanner.nextLine().trim().toUpperCase(Locale.ROOT);
 
         Vehicle vehicle = new Vehicle(domain, brand, model, year, chassisNumber);
 
@@ -249,7 +250,7 @@ public class AppMenu {
         System.out.println("\nEnter new data (leave blank to keep current value):");
 
         System.out.print("New Domain: ");
-        String domain = scanner.nextLine().trim().toUpperCase();
+        String domain = Vehicle.normalizeDomain(scanner.nextLine().trim());
         if (!domain.isEmpty()) {
             vehicle.setDomain(domain);
         }
@@ -299,7 +300,7 @@ public class AppMenu {
         System.out.println("\nVehicle to delete: " + vehicle.getDomain() + " - " + vehicle.getBrand() + " " + vehicle.getModel());
 
         System.out.print("Are you sure? (Y/N): ");
-        String confirm = scanner.nextLine().trim().toUpperCase();
+        String confirm = scanner.nextLine().trim().toUpperCase(Locale.ROOT);
 
         if (confirm.equals("Y")) {
             vehicleService.delete(id);
@@ -563,7 +564,7 @@ public class AppMenu {
         System.out.println("\nInsurance to delete: " + insurance.getInsuranceName() + " - " + insurance.getPolicyNumber());
 
         System.out.print("Are you sure? (Y/N): ");
-        String confirm = scanner.nextLine().trim().toUpperCase();
+        String confirm = scanner.nextLine().trim().toUpperCase(Locale.ROOT);
 
         if (confirm.equals("Y")) {
             insuranceService.delete(id);
@@ -625,7 +626,7 @@ public class AppMenu {
         System.out.println("\n--- SEARCH VEHICLE BY PLATE ---");
 
         System.out.print("Enter Domain: ");
-        String domain = scanner.nextLine().trim().toUpperCase();
+        String domain = Vehicle.normalizeDomain(scanner.nextLine().trim());
 
         Vehicle vehicle = vehicleService.findByDomain(domain);
 
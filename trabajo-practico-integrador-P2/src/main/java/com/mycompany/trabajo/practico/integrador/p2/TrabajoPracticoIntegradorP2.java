@@ -4,6 +4,16 @@
 
 package com.mycompany.trabajo.practico.integrador.p2;
 
+import com.mycompany.trabajo.practico.integrador.p2.config.DatabaseConnection;
+import com.mycompany.trabajo.practico.integrador.p2.config.MigrationRunner;
+import com.mycompany.trabajo.practico.integrador.p2.diagnostics.QueryPlanCheck;
+import com.mycompany.trabajo.practico.integrador.p2.services.VehicleExportService;
+import com.mycompany.trabajo.practico.integrador.p2.services.VehicleImportService;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+
 /**
  *
  * @author mauri_bcda
@@ -11,6 +21,24 @@ package com.mycompany.trabajo.practico.integrador.p2;
 public class TrabajoPracticoIntegradorP2 {
 
     public static void main(String[] args) {
+        // Migraciones pendientes antes de usar la base (el comando migrate las aplica aunque estén deshabilitadas)
+        boolean migrateCommand = args.length > 0 && "migrate".equals(args[0]);
+        if (!migrateCommand && DatabaseConnection.getBooleanProperty("db.migrations.enabled", true)) {
+            try {
+                MigrationRunner.migrate();
+            } catch (Exception e) {
+                System.err.println("Error: " + e.getMessage());
+                DatabaseConnection.shutdown();
+                System.exit(1);
+            }
+        }
+
+        if (args.length > 0) {
+            int exitCode = runCommand(args);
+            DatabaseConnection.shutdown();
+            System.exit(exitCode);
+        }
+
         System.out.println("╔═══════════════════════════════════════════════════╗");
         System.out.println("║  VEHICLE INSURANCE MANAGEMENT SYSTEM              ║");
         System.out.println("║  Version 1.0                                      ║");
@@ -18,5 +46,79 @@ public class TrabajoPracticoIntegradorP2 {
 
         AppMenu menu = new AppMenu();
         menu.start();
+
+        DatabaseConnection.shutdown();
+    }
+
+    /**
+     * Comandos no interactivos:
+     *   migrate
+     *   explain [--update-baseline]   (código 1 si algún plan empeoró respecto de la línea base)
+     *   import &lt;archivo.csv&gt; [reporte.csv]
+     *   export &lt;archivo&gt; [csv|jsonl] [--gzip]   (formato y gzip se deducen de la extensión si se omiten)
+     */
+    static int runCommand(String[] args) {
+        try {
+            switch (args[0]) {
+                case "migrate":
+                    int applied = MigrationRunner.migrate();
+                    System.out.println(applied == 0 ? "Schema is up to date." : "Schema migrated.");
+                    return 0;
+                case "explain":
+                    boolean updateBaseline = args.length > 1 && "--update-baseline".equals(args[1]);
+                    return new QueryPlanCheck().run(updateBaseline);
+                case "import":
+                    if (args.length < 2) {
+                        System.err.println("Usage: import <file.csv> [rejected-report.csv]");
+                        return 2;
+                    }
+                    Path csv = Paths.get(args[1]);
+                    Path report = args.length > 2 ? Paths.get(args[2]) : Paths.get(args[1] + ".rejected.csv");
+                    new VehicleImportService().importCsv(csv, report);
+                    System.out.println("Rejected rows report: " + report.toAbsolutePath());
+                    return 0;
+                case "export":
+                    return export(args);
+                default:
+                    System.err.println("Unknown command: " + args[0]);
+                    return 2;
+            }
+        } catch (Exception e) {
+            System.err.println("Error: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    private static int export(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: export <file> [csv|jsonl] [--gzip]");
+            return 2;
+        }
+        String fileName = args[1];
+        // Locale.ROOT: extensiones y opciones no dependen del idioma de la JVM
+        String lowerName = fileName.toLowerCase(Locale.ROOT);
+        boolean gzip = lowerName.endsWith(".gz");
+        String name = gzip ? lowerName.substring(0, lowerName.length() - 3) : lowerName;
+        VehicleExportService.Format format = name.endsWith(".jsonl") || name.endsWith(".json")
+                ? VehicleExportService.Format.JSONL
+                : VehicleExportService.Format.CSV;
+
+        for (int i = 2; i < args.length; i++) {
+            if ("--gzip".equals(args[i])) {
+                gzip = true;
+            } else {
+                try {
+                    format = VehicleExportService.Format.valueOf(args[i].toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Unknown export option: " + args[i]);
+                    return 2;
+                }
+            }
+        }
+
+        Path file = Paths.get(fileName);
+        new VehicleExportService().export(file, format, gzip);
+        System.out.println("Exported to: " + file.toAbsolutePath());
+        return 0;
     }
 }
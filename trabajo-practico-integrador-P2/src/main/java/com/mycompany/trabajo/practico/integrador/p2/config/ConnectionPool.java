@@ -0,0 +1,222 @@
+package com.mycompany.trabajo.practico.integrador.p2.config;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool acotado de conexiones JDBC.
+ * Las conexiones ociosas se reutilizan en orden LIFO, se validan al prestarse
+ * y se cierran cuando superan el tiempo máximo de inactividad (respetando el mínimo).
+ */
+public class ConnectionPool {
+
+    private final String url;
+    private final Properties connectionProperties;
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeoutNanos;
+    private final long acquireTimeoutMillis;
+    private final boolean validateOnBorrow;
+    private final int validationTimeoutSeconds;
+
+    private final Semaphore permits;
+    private final Deque<IdleConnection> idle = new ArrayDeque<>();
+    private final Set<Connection> borrowed = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService evictor;
+    private volatile boolean closed;
+
+    public ConnectionPool(String url, Properties connectionProperties, int minSize, int maxSize,
+                          long idleTimeoutMillis, long acquireTimeoutMillis,
+                          boolean validateOnBorrow, int validationTimeoutSeconds) {
+        if (maxSize <= 0 || minSize < 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        this.url = url;
+        this.connectionProperties = connectionProperties;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.validateOnBorrow = validateOnBorrow;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "connection-pool-evictor");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000L, idleTimeoutMillis / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+
+        fillToMinimum();
+    }
+
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed.");
+        }
+
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLTimeoutException("Timed out after " + acquireTimeoutMillis +
+                        " ms waiting for a database connection (max pool size " + maxSize + ").");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection.", e);
+        }
+
+        try {
+            IdleConnection candidate;
+            while ((candidate = pollIdle()) != null) {
+                if (isUsable(candidate.connection)) {
+                    borrowed.add(candidate.connection);
+                    return candidate.connection;
+                }
+                closeQuietly(candidate.connection);
+            }
+
+            Connection conn = DriverManager.getConnection(url, connectionProperties);
+            borrowed.add(conn);
+            return conn;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Devuelve una conexión al pool. Retorna false si la conexión no pertenece a este pool.
+     */
+    public boolean release(Connection conn) {
+        if (!borrowed.remove(conn)) {
+            return false;
+        }
+
+        try {
+            if (closed || conn.isClosed()) {
+                closeQuietly(conn);
+                return true;
+            }
+
+            // Dejar la conexión limpia para el próximo préstamo
+            if (!conn.getAutoCommit()) {
+                conn.rollback();
+                conn.setAutoCommit(true);
+            }
+
+            synchronized (idle) {
+                idle.push(new IdleConnection(conn, System.nanoTime()));
+            }
+        } catch (SQLException e) {
+            System.err.println("Discarding broken pooled connection: " + e.getMessage());
+            closeQuietly(conn);
+        } finally {
+            permits.release();
+        }
+        return true;
+    }
+
+    public int getIdleCount() {
+        synchronized (idle) {
+            return idle.size();
+        }
+    }
+
+    public int getActiveCount() {
+        return borrowed.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+
+        IdleConnection entry;
+        while ((entry = pollIdle()) != null) {
+            closeQuietly(entry.connection);
+        }
+    }
+
+    private IdleConnection pollIdle() {
+        synchronized (idle) {
+            return idle.pollFirst();
+        }
+    }
+
+    private boolean isUsable(Connection conn) {
+        try {
+            if (conn.isClosed()) {
+                return false;
+            }
+            return !validateOnBorrow || conn.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void fillToMinimum() {
+        for (int i = getIdleCount(); i < minSize; i++) {
+            try {
+                Connection conn = DriverManager.getConnection(url, connectionProperties);
+                synchronized (idle) {
+                    idle.addLast(new IdleConnection(conn, System.nanoTime()));
+                }
+            } catch (SQLException e) {
+                System.err.println("Could not pre-open pooled connection: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private void evictIdle() {
+        long now = System.nanoTime();
+
+        while (true) {
+            IdleConnection oldest;
+            synchronized (idle) {
+                oldest = idle.peekLast();
+                if (oldest == null
+                        || idle.size() + borrowed.size() <= minSize
+                        || now - oldest.idleSince < idleTimeoutNanos) {
+                    break;
+                }
+                idle.pollLast();
+            }
+            closeQuietly(oldest.connection);
+        }
+    }
+
+    private static void closeQuietly(Connection conn) {
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing conection: " + e.getMessage());
+        }
+    }
+
+    private static final class IdleConnection {
+        private final Connection connection;
+        private final long idleSince;
+
+        private IdleConnection(Connection connection, long idleSince) {
+            this.connection = connection;
+            this.idleSince = idleSince;
+        }
+    }
+}
@@ -1,21 +1,24 @@
 package com.mycompany.trabajo.practico.integrador.p2.config;
 
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.SQLException;
-import java.util.Properties;
+import com.mycompany.trabajo.practico.integrador.p2.diagnostics.SlowQueryLog;
+import com.mycompany.trabajo.practico.integrador.p2.metrics.Metrics;
+import com.mycompany.trabajo.practico.integrador.p2.metrics.OperationMetrics;
+
 import java.io.IOException;
 import java.io.InputStream;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 public class DatabaseConnection {
     private static final String PROPERTIES_FILE = "database.properties";
     private static Properties properties;
+    // Un pool por shard (ShardRouter); sin db.shards hay uno solo, el de db.url
+    private static volatile ConnectionPool[] pools;
+    // Pool de la réplica de lectura (db.read.url); null si no hay réplica configurada
+    private static volatile ConnectionPool readPool;
 
     static {
         properties = new Properties();
@@ -30,16 +33,106 @@ public class DatabaseConnection {
         }
     }
 
+    // Declarado después del bloque static: Metrics lee sus propiedades desde esta clase
+    private static final OperationMetrics GET_CONNECTION = Metrics.operation("DatabaseConnection.getConnection");
+    private static final OperationMetrics GET_READ_CONNECTION = Metrics.operation("DatabaseConnection.getReadConnection");
+
+    // Lectura de lo propio: tras una escritura, las lecturas del mismo hilo van al primario durante esta ventana
+    private static final long STICKY_NANOS = TimeUnit.MILLISECONDS.toNanos(getLongProperty("db.read.stickyAfterWriteMs", 0L));
+    private static final ThreadLocal<long[]> LAST_WRITE = ThreadLocal.withInitial(() -> new long[]{Long.MIN_VALUE});
+
+    /**
+     * Conexión al primario del shard actual (ShardRouter): la usan todas las escrituras y transacciones.
+     * Dentro de una UnitOfWork devuelve la conexión ligada al hilo para ese shard.
+     */
     public static Connection getConnection() throws SQLException {
-        String url = properties.getProperty("db.url");
-        String user = properties.getProperty("db.user");
-        String password = properties.getProperty("db.password");
+        Connection bound = UnitOfWork.currentConnection();
+        if (bound != null) {
+            return bound;
+        }
+        return borrowConnection();
+    }
 
-        return DriverManager.getConnection(url, user, password);
+    // Conexión del pool del shard actual, sin pasar por la UnitOfWork (la usa la propia UnitOfWork)
+    static Connection borrowConnection() throws SQLException {
+        long start = System.nanoTime();
+        boolean ok = false;
+        try {
+            Connection conn = getPool(ShardRouter.currentShard()).borrow();
+            ok = true;
+            return SlowQueryLog.wrap(conn);
+        } finally {
+            GET_CONNECTION.record(start, ok);
+        }
+    }
+
+    /**
+     * Conexión para métodos de solo lectura: la réplica si hay db.read.url, salvo que este hilo haya
+     * escrito hace menos de db.read.stickyAfterWriteMs (en ese caso el primario, para leer lo propio).
+     * Sin réplica configurada, o dentro de una UnitOfWork, equivale a getConnection().
+     */
+    public static Connection getReadConnection() throws SQLException {
+        if (!hasReadReplica() || UnitOfWork.isActive()) {
+            return getConnection();
+        }
+        long start = System.nanoTime();
+        boolean ok = false;
+        try {
+            Connection conn = readsPinnedToPrimary() ? getPool(0).borrow() : getReadPool().borrow();
+            ok = true;
+            return SlowQueryLog.wrap(conn);
+        } finally {
+            GET_READ_CONNECTION.record(start, ok);
+        }
+    }
+
+    /**
+     * Conexión dedicada (fuera del pool, a la réplica o al shard actual) para lecturas completas en streaming: mientras el ResultSet
+     * está abierto la conexión no admite otras consultas, así que no se presta a otros hilos.
+     * Con db.scan.mode=cursor en MySQL se habilita useCursorFetch (cursor del servidor por bloques).
+     */
+    public static Connection openStreamingConnection() throws SQLException {
+        boolean replica = hasReadReplica() && !readsPinnedToPrimary();
+        int shard = ShardRouter.currentShard();
+        String url = replica ? getProperty("db.read.url", null) : ShardRouter.getUrl(shard);
+        Properties info = replica ? readConnectionProperties(url) : shardConnectionProperties(url, shard);
+        if (isMySql(url) && "cursor".equalsIgnoreCase(getProperty("db.scan.mode", "stream"))) {
+            info.setProperty("useCursorFetch", "true");
+        }
+        return SlowQueryLog.wrap(DriverManager.getConnection(url, info));
+    }
+
+    /**
+     * Fetch size para las lecturas en streaming. En MySQL, modo "stream" usa Integer.MIN_VALUE
+     * (el driver entrega fila por fila sin almacenar el ResultSet); "cursor" usa db.scan.fetchSize filas por viaje.
+     */
+    public static int getStreamingFetchSize() {
+        int fetchSize = getIntProperty("db.scan.fetchSize", 1000);
+        if (isMySql(ShardRouter.getUrl(0)) && !"cursor".equalsIgnoreCase(getProperty("db.scan.mode", "stream"))) {
+            return Integer.MIN_VALUE;
+        }
+        return fetchSize;
     }
 
     public static void closeConnection(Connection conn) {
-        if (conn != null) {
+        // La conexión de una UnitOfWork la libera la propia UnitOfWork al terminar
+        if (conn != null && !UnitOfWork.isBound(conn)) {
+            conn = SlowQueryLog.unwrap(conn);
+
+            ConnectionPool[] current = pools;
+            if (current != null) {
+                for (ConnectionPool shardPool : current) {
+                    if (shardPool != null && shardPool.release(conn)) {
+                        return;
+                    }
+                }
+            }
+            ConnectionPool currentRead = readPool;
+            if (currentRead != null && currentRead.release(conn)) {
+                return;
+            }
+
+            // Conexión fuera del pool: cerrarla directamente
             try {
                 conn.close();
             } catch (SQLException e) {
@@ -47,4 +140,188 @@ public class DatabaseConnection {
             }
         }
     }
+
+    public static void shutdown() {
+        ConnectionPool[] current;
+        synchronized (DatabaseConnection.class) {
+            current = pools;
+            pools = null;
+        }
+        if (current != null) {
+            for (ConnectionPool shardPool : current) {
+                if (shardPool != null) {
+                    shardPool.close();
+                }
+            }
+        }
+        ConnectionPool currentRead = readPool;
+        if (currentRead != null) {
+            readPool = null;
+            currentRead.close();
+        }
+    }
+
+    // La réplica de lectura no se combina con shards: con db.shards se ignora db.read.url
+    public static boolean hasReadReplica() {
+        String url = getProperty("db.read.url", "");
+        return !url.trim().isEmpty() && !ShardRouter.isSharded();
+    }
+
+    /**
+     * Abre la ventana de lectura de lo propio: la llama UnitOfWork después de confirmar una transacción
+     * (todas las escrituras pasan por una), así pedir el primario solo para leer no fija las lecturas.
+     */
+    static void markWrite() {
+        if (STICKY_NANOS > 0) {
+            LAST_WRITE.get()[0] = System.nanoTime();
+        }
+    }
+
+    private static boolean readsPinnedToPrimary() {
+        long lastWrite = LAST_WRITE.get()[0];
+        return STICKY_NANOS > 0 && lastWrite != Long.MIN_VALUE && System.nanoTime() - lastWrite < STICKY_NANOS;
+    }
+
+    public static String getProperty(String key, String defaultValue) {
+        String value = lookup(key);
+        return value != null ? value : defaultValue;
+    }
+
+    public static int getIntProperty(String key, int defaultValue) {
+        String value = lookup(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + key + ": " + value + ". Using " + defaultValue + ".");
+            return defaultValue;
+        }
+    }
+
+    public static long getLongProperty(String key, long defaultValue) {
+        String value = lookup(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + key + ": " + value + ". Using " + defaultValue + ".");
+            return defaultValue;
+        }
+    }
+
+    public static boolean getBooleanProperty(String key, boolean defaultValue) {
+        String value = lookup(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        return Boolean.parseBoolean(value.trim());
+    }
+
+    // Las propiedades de sistema (-Ddb.url=...) tienen prioridad sobre database.properties
+    private static String lookup(String key) {
+        return System.getProperty(key, properties.getProperty(key));
+    }
+
+    private static ConnectionPool getPool(int shard) {
+        ConnectionPool[] current = pools;
+        if (current == null || current[shard] == null) {
+            synchronized (DatabaseConnection.class) {
+                current = pools;
+                if (current == null || current[shard] == null) {
+                    // Copia al escribir: los lectores sin lock siempre ven un arreglo completo
+                    ConnectionPool[] updated = current != null ? current.clone() : new ConnectionPool[ShardRouter.getShardCount()];
+                    updated[shard] = createPool(shard);
+                    pools = updated;
+                    current = updated;
+                }
+            }
+        }
+        return current[shard];
+    }
+
+    private static ConnectionPool getReadPool() {
+        ConnectionPool current = readPool;
+        if (current == null) {
+            synchronized (DatabaseConnection.class) {
+                current = readPool;
+                if (current == null) {
+                    current = createReadPool();
+                    readPool = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    // La réplica hereda la configuración del primario salvo las claves db.read.* indicadas
+    private static ConnectionPool createReadPool() {
+        String url = getProperty("db.read.url", null);
+        return new ConnectionPool(
+                url,
+                readConnectionProperties(url),
+                getIntProperty("db.read.pool.minSize", getIntProperty("db.pool.minSize", 2)),
+                getIntProperty("db.read.pool.maxSize", getIntProperty("db.pool.maxSize", 10)),
+                getLongProperty("db.pool.idleTimeoutMs", 300_000L),
+                getLongProperty("db.pool.acquireTimeoutMs", 5_000L),
+                getBooleanProperty("db.pool.validateOnBorrow", true),
+                getIntProperty("db.pool.validationTimeoutSeconds", 2));
+    }
+
+    private static ConnectionPool createPool(int shard) {
+        String url = ShardRouter.getUrl(shard);
+        return new ConnectionPool(
+                url,
+                shardConnectionProperties(url, shard),
+                getIntProperty("db.pool.minSize", 2),
+                getIntProperty("db.pool.maxSize", 10),
+                getLongProperty("db.pool.idleTimeoutMs", 300_000L),
+                getLongProperty("db.pool.acquireTimeoutMs", 5_000L),
+                getBooleanProperty("db.pool.validateOnBorrow", true),
+                getIntProperty("db.pool.validationTimeoutSeconds", 2));
+    }
+
+    private static boolean isMySql(String url) {
+        return url != null && url.startsWith("jdbc:mysql:");
+    }
+
+    private static Properties readConnectionProperties(String url) {
+        Properties info = connectionProperties(url);
+        info.setProperty("user", getProperty("db.read.user", info.getProperty("user")));
+        info.setProperty("password", getProperty("db.read.password", info.getProperty("password")));
+        return info;
+    }
+
+    // Con varios shards, los IDs generados en el shard i cumplen (id - 1) % N == i
+    private static Properties shardConnectionProperties(String url, int shard) {
+        Properties info = connectionProperties(url);
+        if (ShardRouter.isSharded() && isMySql(url)) {
+            info.setProperty("sessionVariables", "auto_increment_increment=" + ShardRouter.getShardCount() +
+                    ",auto_increment_offset=" + (shard + 1));
+        }
+        return info;
+    }
+
+    private static Properties connectionProperties(String url) {
+        Properties info = new Properties();
+        info.setProperty("user", getProperty("db.user", ""));
+        info.setProperty("password", getProperty("db.password", ""));
+
+        if (isMySql(url)) {
+            // Reescribe los lotes de INSERT como un único INSERT multi-fila
+            info.setProperty("rewriteBatchedStatements", getProperty("db.rewriteBatchedStatements", "true"));
+
+            // Caché de sentencias preparadas por conexión (LRU por texto SQL, el driver cierra las expulsadas).
+            // Como el pool mantiene vivas las conexiones, cada DAO reutiliza la sentencia ya parseada y
+            // stmt.close() la devuelve a la caché en lugar de liberarla en el servidor.
+            info.setProperty("cachePrepStmts", getProperty("db.statementCache.enabled", "true"));
+            info.setProperty("prepStmtCacheSize", getProperty("db.statementCache.size", "100"));
+            info.setProperty("prepStmtCacheSqlLimit", getProperty("db.statementCache.sqlLimit", "2048"));
+            info.setProperty("useServerPrepStmts", getProperty("db.statementCache.serverSide", "true"));
+        }
+        return info;
+    }
 }
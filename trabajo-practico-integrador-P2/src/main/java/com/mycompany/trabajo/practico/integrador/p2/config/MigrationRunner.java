@@ -0,0 +1,313 @@
+package com.mycompany.trabajo.practico.integrador.p2.config;
+
+import com.mycompany.trabajo.practico.integrador.p2.exceptions.DatabaseException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Migraciones de esquema versionadas. Los scripts V&lt;n&gt;__descripcion.sql se listan en
+ * db/migration/index.txt (el classpath no se puede recorrer dentro del jar), se aplican en orden
+ * de versión y quedan registrados en schema_history con su checksum.
+ *
+ * Un script ya aplicado no se vuelve a ejecutar; si su contenido cambió se aborta en lugar de
+ * dejar el esquema en un estado distinto al registrado. En MySQL cada DDL confirma implícitamente,
+ * así que un script no se puede revertir: cada sentencia terminada se anota en schema_history_progress
+ * y, si el script falla a mitad de camino, la próxima ejecución sigue desde la sentencia que falló.
+ * La fila de historial se inserta recién cuando terminaron todas las sentencias del script.
+ *
+ * Varias instancias que arrancan a la vez no migran en paralelo: en MySQL se toma el bloqueo con
+ * nombre GET_LOCK('schema_migration.&lt;esquema&gt;') (espera hasta db.migrations.lockTimeoutSeconds);
+ * en otras bases (H2 en pruebas y benchmarks) solo se excluyen los hilos de esta JVM.
+ * Con varios shards (db.shards) cada esquema lleva su propio historial y se migra por separado.
+ */
+public final class MigrationRunner {
+
+    private static final String LOCATION = "db/migration/";
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+
+    private static final String CREATE_HISTORY_SQL =
+            "CREATE TABLE IF NOT EXISTS schema_history (" +
+            "version INT PRIMARY KEY, " +
+            "description VARCHAR(200) NOT NULL, " +
+            "script VARCHAR(200) NOT NULL, " +
+            "checksum BIGINT NOT NULL, " +
+            "execution_ms BIGINT NOT NULL, " +
+            "installed_on TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)";
+
+    // Sentencias ya ejecutadas de un script que todavía no terminó
+    private static final String CREATE_PROGRESS_SQL =
+            "CREATE TABLE IF NOT EXISTS schema_history_progress (" +
+            "version INT PRIMARY KEY, " +
+            "checksum BIGINT NOT NULL, " +
+            "statements INT NOT NULL)";
+
+    private static final int LOCK_TIMEOUT_SECONDS = DatabaseConnection.getIntProperty("db.migrations.lockTimeoutSeconds", 60);
+
+    private MigrationRunner() {
+    }
+
+    /**
+     * Aplica las migraciones pendientes en cada shard y devuelve cuántas se ejecutaron.
+     */
+    public static synchronized int migrate() throws Exception {
+        List<Migration> migrations = loadMigrations();
+
+        int count = 0;
+        for (int shard = 0; shard < ShardRouter.getShardCount(); shard++) {
+            count += ShardRouter.call(shard, () -> migrateShard(migrations));
+        }
+        return count;
+    }
+
+    private static int migrateShard(List<Migration> migrations) throws Exception {
+        Connection conn = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            boolean mySql = conn.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT).contains("mysql");
+            if (mySql) {
+                acquireLock(conn);
+            }
+            try {
+                return migrateLocked(migrations, conn);
+            } finally {
+                if (mySql) {
+                    releaseLock(conn);
+                }
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException("Error running schema migrations: " + e.getMessage(), e);
+        } finally {
+            DatabaseConnection.closeConnection(conn);
+        }
+    }
+
+    // Con el bloqueo tomado: el historial se lee después, por si otra instancia acaba de migrar
+    private static int migrateLocked(List<Migration> migrations, Connection conn) throws Exception {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(CREATE_HISTORY_SQL);
+            stmt.execute(CREATE_PROGRESS_SQL);
+        }
+
+        Map<Integer, Long> applied = readHistory(conn);
+        Map<Integer, long[]> progress = readProgress(conn);
+        int count = 0;
+        for (Migration migration : migrations) {
+            Long checksum = applied.get(migration.version);
+            if (checksum == null) {
+                apply(migration, startingStatement(migration, progress.get(migration.version)), conn);
+                count++;
+            } else if (checksum != migration.checksum) {
+                throw new DatabaseException("Migration " + migration.script +
+                        " was modified after being applied (checksum mismatch).");
+            }
+        }
+
+        if (count > 0) {
+            System.out.println(count + " schema migration(s) applied" +
+                    (ShardRouter.isSharded() ? " on shard " + ShardRouter.currentShard() : "") + ".");
+        }
+        return count;
+    }
+
+    // Primera sentencia pendiente de un script que quedó a medias (0 si no empezó)
+    private static int startingStatement(Migration migration, long[] progress) throws DatabaseException {
+        if (progress == null) {
+            return 0;
+        }
+        if (progress[0] != migration.checksum) {
+            throw new DatabaseException("Migration " + migration.script +
+                    " was modified after being partially applied (checksum mismatch).");
+        }
+        int done = (int) progress[1];
+        System.out.println("Resuming migration " + migration.script + " at statement " + (done + 1) +
+                " of " + migration.statements.size());
+        return done;
+    }
+
+    private static void apply(Migration migration, int firstStatement, Connection conn) throws Exception {
+        long start = System.nanoTime();
+        int index = firstStatement;
+        try (Statement stmt = conn.createStatement()) {
+            for (; index < migration.statements.size(); index++) {
+                stmt.execute(migration.statements.get(index));
+                saveProgress(migration, index + 1, conn);
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException("Migration " + migration.script + " failed at statement " + (index + 1) + " of " +
+                    migration.statements.size() + " (the next run resumes there): " + e.getMessage(), e);
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        String sql = "INSERT INTO schema_history (version, description, script, checksum, execution_ms) " +
+                "VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, migration.version);
+            stmt.setString(2, migration.description);
+            stmt.setString(3, migration.script);
+            stmt.setLong(4, migration.checksum);
+            stmt.setLong(5, elapsedMillis);
+            stmt.executeUpdate();
+        }
+        try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM schema_history_progress WHERE version = ?")) {
+            stmt.setInt(1, migration.version);
+            stmt.executeUpdate();
+        }
+        System.out.println("Applied migration " + migration.script + " in " + elapsedMillis + " ms");
+    }
+
+    private static void saveProgress(Migration migration, int statements, Connection conn) throws SQLException {
+        try (PreparedStatement update = conn.prepareStatement(
+                "UPDATE schema_history_progress SET checksum = ?, statements = ? WHERE version = ?")) {
+            update.setLong(1, migration.checksum);
+            update.setInt(2, statements);
+            update.setInt(3, migration.version);
+            if (update.executeUpdate() > 0) {
+                return;
+            }
+        }
+        try (PreparedStatement insert = conn.prepareStatement(
+                "INSERT INTO schema_history_progress (version, checksum, statements) VALUES (?, ?, ?)")) {
+            insert.setInt(1, migration.version);
+            insert.setLong(2, migration.checksum);
+            insert.setInt(3, statements);
+            insert.executeUpdate();
+        }
+    }
+
+    // version → {checksum, sentencias ejecutadas}
+    private static Map<Integer, long[]> readProgress(Connection conn) throws SQLException {
+        Map<Integer, long[]> progress = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version, checksum, statements FROM schema_history_progress")) {
+            while (rs.next()) {
+                progress.put(rs.getInt(1), new long[]{rs.getLong(2), rs.getInt(3)});
+            }
+        }
+        return progress;
+    }
+
+    // El bloqueo con nombre es de la sesión: se libera con RELEASE_LOCK o al cerrarse la conexión
+    private static void acquireLock(Connection conn) throws SQLException, DatabaseException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT GET_LOCK(CONCAT('schema_migration.', DATABASE()), ?)")) {
+            stmt.setInt(1, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new DatabaseException("Could not acquire the schema migration lock within " +
+                            LOCK_TIMEOUT_SECONDS + " s (another instance is migrating).");
+                }
+            }
+        }
+    }
+
+    private static void releaseLock(Connection conn) {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT RELEASE_LOCK(CONCAT('schema_migration.', DATABASE()))")) {
+            rs.next();
+        } catch (SQLException e) {
+            System.err.println("Error releasing schema migration lock: " + e.getMessage());
+        }
+    }
+
+    private static Map<Integer, Long> readHistory(Connection conn) throws SQLException {
+        Map<Integer, Long> applied = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version, checksum FROM schema_history")) {
+            while (rs.next()) {
+                applied.put(rs.getInt(1), rs.getLong(2));
+            }
+        }
+        return applied;
+    }
+
+    private static List<Migration> loadMigrations() throws Exception {
+        List<Migration> migrations = new ArrayList<>();
+        int lastVersion = 0;
+
+        for (String script : readLines(LOCATION + "index.txt")) {
+            Matcher matcher = FILE_NAME.matcher(script);
+            if (!matcher.matches()) {
+                throw new DatabaseException("Invalid migration file name: " + script);
+            }
+            int version = Integer.parseInt(matcher.group(1));
+            if (version <= lastVersion) {
+                throw new DatabaseException("Migrations must be listed in increasing version order: " + script);
+            }
+            lastVersion = version;
+
+            List<String> lines = readLines(LOCATION + script);
+            migrations.add(new Migration(version, matcher.group(2).replace('_', ' '), script, lines));
+        }
+        return migrations;
+    }
+
+    // Líneas no vacías y sin comentarios "--" ni "#"
+    private static List<String> readLines(String resource) throws Exception {
+        InputStream input = MigrationRunner.class.getClassLoader().getResourceAsStream(resource);
+        if (input == null) {
+            throw new DatabaseException("Could not find migration resource " + resource);
+        }
+
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty() && !line.startsWith("--") && !line.startsWith("#")) {
+                    lines.add(line);
+                }
+            }
+        } catch (IOException e) {
+            throw new DatabaseException("Error reading migration resource " + resource + ": " + e.getMessage(), e);
+        }
+        return lines;
+    }
+
+    private static final class Migration {
+        private final int version;
+        private final String description;
+        private final String script;
+        private final long checksum;
+        private final List<String> statements = new ArrayList<>();
+
+        private Migration(int version, String description, String script, List<String> lines) {
+            this.version = version;
+            this.description = description;
+            this.script = script;
+
+            // Sentencias separadas por ";" al final de línea; el checksum ignora comentarios y espacios
+            CRC32 crc = new CRC32();
+            StringBuilder current = new StringBuilder();
+            for (String line : lines) {
+                crc.update(line.getBytes(StandardCharsets.UTF_8));
+                current.append(current.length() > 0 ? " " : "").append(line);
+                if (line.endsWith(";")) {
+                    current.setLength(current.length() - 1);
+                    statements.add(current.toString());
+                    current.setLength(0);
+                }
+            }
+            if (current.length() > 0) {
+                statements.add(current.toString());
+            }
+            this.checksum = crc.getValue();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.mycompany.trabajo.practico.integrador.p2.config;
+
+import com.mycompany.trabajo.practico.integrador.p2.metrics.Metrics;
+import com.mycompany.trabajo.practico.integrador.p2.metrics.OperationMetrics;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Política de reintento de una transacción ante deadlocks (MySQL 1213, SQLState 40001) y esperas de
+ * bloqueo agotadas (1205). Cada método de servicio declara la suya: solo las idempotentes reintentan,
+ * es decir, aquellas cuya transacción puede repetirse completa sin efectos fuera de la base.
+ *
+ * La espera entre intentos es exponencial con jitter completo: aleatoria entre 0 y
+ * min(db.retry.maxDelayMs, db.retry.baseDelayMs * 2^(intento-1)), hasta db.retry.maxAttempts intentos.
+ * Cada reintento se cuenta en la métrica "<operación>.retry" (los errores son reintentos agotados).
+ */
+public final class RetryPolicy {
+
+    private static final int MYSQL_LOCK_WAIT_TIMEOUT = 1205;
+    private static final int MYSQL_DEADLOCK = 1213;
+    private static final String SQLSTATE_SERIALIZATION_FAILURE = "40001";
+
+    private static final RetryPolicy NONE = new RetryPolicy(null, 1);
+
+    private final OperationMetrics retries;
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+
+    private RetryPolicy(String operation, int maxAttempts) {
+        this.retries = operation != null ? Metrics.operation(operation + ".retry") : null;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelayMillis = Math.max(1L, DatabaseConnection.getLongProperty("db.retry.baseDelayMs", 20L));
+        this.maxDelayMillis = Math.max(baseDelayMillis, DatabaseConnection.getLongProperty("db.retry.maxDelayMs", 500L));
+    }
+
+    /**
+     * Operación que puede repetirse completa: se reintenta ante deadlock o espera de bloqueo agotada.
+     */
+    public static RetryPolicy idempotent(String operation) {
+        return new RetryPolicy(operation, DatabaseConnection.getIntProperty("db.retry.maxAttempts", 3));
+    }
+
+    /**
+     * Sin reintentos: el error se propaga en el primer intento.
+     */
+    public static RetryPolicy none() {
+        return NONE;
+    }
+
+    int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Espera antes del intento attempt + 1. Devuelve false si no corresponde reintentar
+     * (error no transitorio, intentos agotados o hilo interrumpido).
+     */
+    boolean backoff(Throwable error, int attempt) {
+        if (!isTransient(error)) {
+            return false;
+        }
+        long start = System.nanoTime();
+        if (attempt >= maxAttempts) {
+            if (retries != null && maxAttempts > 1) {
+                retries.record(start, false);
+            }
+            return false;
+        }
+
+        long ceiling = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt - 1, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        retries.record(start, true);
+        return true;
+    }
+
+    // Los DAOs envuelven la SQLException en DatabaseException: se recorre toda la cadena de causas
+    static boolean isTransient(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof SQLException) {
+                SQLException e = (SQLException) t;
+                if (e.getErrorCode() == MYSQL_DEADLOCK || e.getErrorCode() == MYSQL_LOCK_WAIT_TIMEOUT
+                        || SQLSTATE_SERIALIZATION_FAILURE.equals(e.getSQLState())) {
+                    return true;
+                }
+            }
+            if (t.getCause() == t) {
+                break;
+            }
+        }
+        return false;
+    }
+}
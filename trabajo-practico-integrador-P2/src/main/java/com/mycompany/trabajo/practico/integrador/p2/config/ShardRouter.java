@@ -0,0 +1,386 @@
+package com.mycompany.trabajo.practico.integrador.p2.config;
+
+import com.mycompany.trabajo.practico.integrador.p2.entities.Vehicle;
+import com.mycompany.trabajo.practico.integrador.p2.exceptions.DatabaseException;
+import com.mycompany.trabajo.practico.integrador.p2.metrics.Metrics;
+import com.mycompany.trabajo.practico.integrador.p2.metrics.OperationMetrics;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.CRC32;
+
+/**
+ * Particionado horizontal (sharding): cada vehículo y su seguro viven en uno de N esquemas, listados
+ * en db.shards (URLs separadas por coma; vacío = un solo esquema en db.url).
+ *
+ * - La patente elige el shard: CRC32 de la patente en mayúsculas módulo N (estable entre ejecuciones).
+ * - Los IDs codifican su shard: las conexiones del shard i usan auto_increment_increment = N y
+ *   auto_increment_offset = i + 1, así shard = (id - 1) % N sin consultar a ningún esquema.
+ * - Lo que no tiene clave de particionado (número de póliza, listados) se consulta en todos los
+ *   shards en paralelo y los listados se mezclan ordenados por ID.
+ *
+ * El shard del hilo (run/call) decide a qué esquema van DatabaseConnection y la UnitOfWork;
+ * fuera de run/call se usa el shard 0. Cambiar N reubica patentes: requiere redistribuir los datos.
+ */
+public final class ShardRouter {
+
+    private static final OperationMetrics FAN_OUT = Metrics.operation("ShardRouter.fanOut");
+
+    private static final List<String> URLS = parseUrls(DatabaseConnection.getProperty("db.shards", ""));
+    private static final int SHARD_COUNT = Math.max(1, URLS.size());
+    private static final ThreadLocal<Integer> CURRENT = ThreadLocal.withInitial(() -> 0);
+
+    // Hilos del fan-out: una consulta de otro fan-out desde uno de ellos se ejecuta ahí mismo (ver fanOut)
+    private static final ThreadLocal<Boolean> FAN_OUT_WORKER = ThreadLocal.withInitial(() -> false);
+
+    // Consultas en paralelo, un hilo por shard como máximo en cada llamada. Cada tarea ocupa una conexión
+    // del pool de su shard, así que más de N × db.pool.maxSize hilos solo esperarían al pool: el resto de
+    // las tareas espera en la cola y los hilos ociosos terminan solos
+    private static final ExecutorService EXECUTOR = SHARD_COUNT > 1 ? newFanOutExecutor(
+            SHARD_COUNT * Math.max(1, DatabaseConnection.getIntProperty("db.pool.maxSize", 10))) : null;
+
+    @FunctionalInterface
+    public interface Action {
+        void execute() throws Exception;
+    }
+
+    /**
+     * Lee del shard actual hasta limit filas con ID mayor a afterId (null = desde el principio), ordenadas por ID.
+     */
+    @FunctionalInterface
+    public interface PageReader<T> {
+        List<T> read(Long afterId, int limit) throws Exception;
+    }
+
+    private ShardRouter() {
+    }
+
+    private static ExecutorService newFanOutExecutor(int threads) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread t = new Thread(() -> {
+                        FAN_OUT_WORKER.set(true);
+                        r.run();
+                    }, "shard-fan-out");
+                    t.setDaemon(true);
+                    return t;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    public static int getShardCount() {
+        return SHARD_COUNT;
+    }
+
+    public static boolean isSharded() {
+        return SHARD_COUNT > 1;
+    }
+
+    // URL del esquema del shard; sin db.shards es db.url
+    static String getUrl(int shard) {
+        return URLS.isEmpty() ? DatabaseConnection.getProperty("db.url", null) : URLS.get(shard);
+    }
+
+    public static int shardForDomain(String domain) {
+        if (!isSharded()) {
+            return 0;
+        }
+        CRC32 crc = new CRC32();
+        // La misma forma canónica que se guarda: el shard no puede depender del idioma de la JVM
+        crc.update(Vehicle.normalizeDomain(domain).getBytes(StandardCharsets.UTF_8));
+        return (int) (crc.getValue() % SHARD_COUNT);
+    }
+
+    public static int shardForId(long id) {
+        if (!isSharded()) {
+            return 0;
+        }
+        return (int) ((id - 1) % SHARD_COUNT);
+    }
+
+    public static int currentShard() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Controla que un ID recién generado corresponda al shard actual: si el esquema no aplica
+     * auto_increment_increment/offset, el ID no permitiría volver a encontrar la fila.
+     */
+    public static void checkGeneratedId(long id) throws DatabaseException {
+        if (isSharded() && shardForId(id) != currentShard()) {
+            throw new DatabaseException("Generated ID " + id + " does not belong to shard " + currentShard() +
+                    " (check auto_increment_increment and auto_increment_offset).");
+        }
+    }
+
+    public static void run(int shard, Action action) throws Exception {
+        call(shard, () -> {
+            action.execute();
+            return null;
+        });
+    }
+
+    /**
+     * Ejecuta el trabajo con el shard indicado como shard del hilo y restaura el anterior al terminar.
+     */
+    public static <T> T call(int shard, Callable<T> work) throws Exception {
+        if (shard < 0 || shard >= SHARD_COUNT) {
+            throw new IllegalArgumentException("Invalid shard: " + shard);
+        }
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return work.call();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Ejecuta el trabajo en cada shard y devuelve los resultados en orden de shard.
+     */
+    public static <T> List<T> fanOut(Callable<T> work) throws Exception {
+        List<Integer> shards = new ArrayList<>(SHARD_COUNT);
+        for (int shard = 0; shard < SHARD_COUNT; shard++) {
+            shards.add(shard);
+        }
+        return fanOut(shards, work);
+    }
+
+    /**
+     * Ejecuta el trabajo en los shards indicados, en paralelo si son varios, y devuelve los resultados
+     * en el mismo orden. Dentro de una UnitOfWork se ejecuta en este hilo, shard por shard, para usar
+     * las conexiones de la transacción; también desde un hilo del fan-out, que no puede quedarse esperando
+     * lugar en su propio pool.
+     */
+    public static <T> List<T> fanOut(Collection<Integer> shards, Callable<T> work) throws Exception {
+        if (shards.size() <= 1 || UnitOfWork.isActive() || FAN_OUT_WORKER.get()) {
+            List<T> results = new ArrayList<>(shards.size());
+            for (int shard : shards) {
+                results.add(call(shard, work));
+            }
+            return results;
+        }
+
+        long start = System.nanoTime();
+        boolean ok = false;
+        List<Future<T>> futures = new ArrayList<>(shards.size());
+        try {
+            for (int shard : shards) {
+                futures.add(EXECUTOR.submit(() -> call(shard, work)));
+            }
+            List<T> results = new ArrayList<>(futures.size());
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            ok = true;
+            return results;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        } finally {
+            if (!ok) {
+                for (Future<T> future : futures) {
+                    future.cancel(true);
+                }
+            }
+            FAN_OUT.record(start, ok, shards.size());
+        }
+    }
+
+    /**
+     * Agrupa las claves por shard, conservando el orden de llegada dentro de cada grupo.
+     */
+    public static <K> Map<Integer, List<K>> groupByShard(Collection<K> keys, ToIntFunction<K> shardOf) {
+        Map<Integer, List<K>> groups = new TreeMap<>();
+        for (K key : keys) {
+            groups.computeIfAbsent(shardOf.applyAsInt(key), shard -> new ArrayList<>()).add(key);
+        }
+        return groups;
+    }
+
+    /**
+     * Mezcla las listas de cada shard (ya ordenadas) en una sola lista ordenada.
+     */
+    public static <T> List<T> mergeOrdered(List<List<T>> parts, Comparator<? super T> order) {
+        if (parts.size() == 1) {
+            return parts.get(0);
+        }
+
+        int total = 0;
+        PriorityQueue<Head<T>> heads = new PriorityQueue<>((a, b) -> order.compare(a.value, b.value));
+        for (List<T> part : parts) {
+            total += part.size();
+            Iterator<T> it = part.iterator();
+            if (it.hasNext()) {
+                heads.add(new Head<>(it.next(), it));
+            }
+        }
+
+        List<T> merged = new ArrayList<>(total);
+        while (!heads.isEmpty()) {
+            Head<T> head = heads.poll();
+            merged.add(head.value);
+            if (head.rest.hasNext()) {
+                heads.add(new Head<>(head.rest.next(), head.rest));
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Recorre todos los shards en orden de ID con un cursor por clave en cada shard: la primera página de
+     * cada uno se lee en paralelo y después cada shard se vuelve a consultar solo cuando se agotó su página,
+     * así se leen pageSize filas por página entregada (no N × pageSize) y en memoria quedan N páginas.
+     */
+    public static <T> void forEachOrdered(PageReader<T> reader, Function<T, Long> idOf, int pageSize,
+                                          Consumer<? super T> consumer) throws Exception {
+        OrderedMerge<T> merge = new OrderedMerge<>(reader, idOf, pageSize);
+        for (T value = merge.next(); value != null; value = merge.next()) {
+            consumer.accept(value);
+        }
+    }
+
+    /**
+     * Como forEachOrdered, pero perezoso: las páginas se leen a medida que se consume el stream
+     * (nada antes de la primera fila pedida). Los errores de lectura llegan como IllegalStateException.
+     */
+    public static <T> Stream<T> streamOrdered(PageReader<T> reader, Function<T, Long> idOf, int pageSize) {
+        OrderedMerge<T> merge = new OrderedMerge<>(reader, idOf, pageSize);
+        return StreamSupport.stream(new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                T value;
+                try {
+                    value = merge.next();
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new IllegalStateException("Error reading shards in ID order: " + e.getMessage(), e);
+                }
+                if (value == null) {
+                    return false;
+                }
+                action.accept(value);
+                return true;
+            }
+        }, false);
+    }
+
+    private static List<String> parseUrls(String value) {
+        List<String> urls = new ArrayList<>();
+        for (String url : value.split(",")) {
+            if (!url.trim().isEmpty()) {
+                urls.add(url.trim());
+            }
+        }
+        return Collections.unmodifiableList(urls);
+    }
+
+    // Mezcla de los cursores de cada shard: la cola ordena por el ID de la fila que cada uno tiene adelante
+    private static final class OrderedMerge<T> {
+        private final PageReader<T> reader;
+        private final Function<T, Long> idOf;
+        private final int pageSize;
+        private PriorityQueue<Cursor<T>> cursors;
+        // Cursor de la última fila entregada: se avanza recién al pedir la siguiente
+        private Cursor<T> last;
+
+        private OrderedMerge(PageReader<T> reader, Function<T, Long> idOf, int pageSize) {
+            this.reader = reader;
+            this.idOf = idOf;
+            this.pageSize = pageSize;
+        }
+
+        // Siguiente fila en orden de ID entre todos los shards, o null al terminar
+        private T next() throws Exception {
+            if (cursors == null) {
+                cursors = new PriorityQueue<>(Comparator.comparing(cursor -> cursor.headId));
+                List<List<T>> firstPages = fanOut(() -> reader.read(null, pageSize));
+                for (int shard = 0; shard < firstPages.size(); shard++) {
+                    Cursor<T> cursor = new Cursor<>(shard, firstPages.get(shard), pageSize);
+                    if (cursor.advance(reader, idOf)) {
+                        cursors.add(cursor);
+                    }
+                }
+            } else if (last != null && last.advance(reader, idOf)) {
+                cursors.add(last);
+            }
+            last = cursors.poll();
+            return last != null ? last.head : null;
+        }
+    }
+
+    // Posición de la mezcla en un shard: la página leída y el último ID entregado
+    private static final class Cursor<T> {
+        private final int shard;
+        private final int pageSize;
+        private Iterator<T> page;
+        private boolean lastPage;
+        private T head;
+        private Long headId;
+
+        private Cursor(int shard, List<T> firstPage, int pageSize) {
+            this.shard = shard;
+            this.pageSize = pageSize;
+            this.page = firstPage.iterator();
+            this.lastPage = firstPage.size() < pageSize;
+        }
+
+        // Pasa a la fila siguiente, leyendo otra página de este shard si hace falta; false al terminar
+        private boolean advance(PageReader<T> reader, Function<T, Long> idOf) throws Exception {
+            while (!page.hasNext()) {
+                if (lastPage) {
+                    return false;
+                }
+                Long afterId = headId;
+                List<T> next = call(shard, () -> reader.read(afterId, pageSize));
+                lastPage = next.size() < pageSize;
+                page = next.iterator();
+            }
+            head = page.next();
+            headId = idOf.apply(head);
+            return true;
+        }
+    }
+
+    private static final class Head<T> {
+        private final T value;
+        private final Iterator<T> rest;
+
+        private Head(T value, Iterator<T> rest) {
+            this.value = value;
+            this.rest = rest;
+        }
+    }
+}
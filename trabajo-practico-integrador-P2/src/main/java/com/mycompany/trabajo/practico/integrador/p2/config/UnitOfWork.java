@@ -0,0 +1,235 @@
+package com.mycompany.trabajo.practico.integrador.p2.config;
+
+import com.mycompany.trabajo.practico.integrador.p2.exceptions.DatabaseException;
+import com.mycompany.trabajo.practico.integrador.p2.metrics.Metrics;
+import com.mycompany.trabajo.practico.integrador.p2.metrics.OperationMetrics;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unidad de trabajo: liga una conexión del primario al hilo actual durante una transacción.
+ *
+ * El primer run()/call() del hilo abre la transacción y hace commit (o rollback) al terminar; los
+ * run()/call() anidados, aunque vengan de otro servicio, se suman a la misma transacción. Mientras está
+ * activa, DatabaseConnection.getConnection()/getReadConnection() devuelven la conexión ligada y
+ * closeConnection() no la libera, así las lecturas ven lo escrito y nada se confirma antes de tiempo.
+ *
+ * Ejemplo (un solo commit para todo el bloque):
+ *   UnitOfWork.run(conn -> {
+ *       for (Vehicle vehicle : vehicles) {
+ *           vehicleService.insert(vehicle);
+ *       }
+ *   });
+ *
+ * Con una RetryPolicy idempotente, la transacción externa se repite completa ante deadlocks y esperas de
+ * bloqueo agotadas (afterCommit y rollbackOnly se reinician en cada intento).
+ *
+ * La conexión es por hilo: lo que se ejecute en otros hilos (servicios asíncronos, streaming) no participa.
+ *
+ * Con varios shards (ShardRouter) la unidad abre una conexión por cada shard que toca y al terminar
+ * confirma shard por shard: si falla el commit de uno, los anteriores ya quedaron confirmados.
+ */
+public final class UnitOfWork {
+
+    private static final OperationMetrics TRANSACTION = Metrics.operation("UnitOfWork.transaction");
+    private static final ThreadLocal<UnitOfWork> CURRENT = new ThreadLocal<>();
+
+    // Conexión por shard, abierta al primer uso dentro de la transacción
+    private final Connection[] connections = new Connection[ShardRouter.getShardCount()];
+    private final List<Runnable> afterCommit = new ArrayList<>();
+    private boolean rollbackOnly;
+
+    @FunctionalInterface
+    public interface Work<T> {
+        T execute(Connection conn) throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface Action {
+        void execute(Connection conn) throws Exception;
+    }
+
+    private UnitOfWork() {
+    }
+
+    public static void run(Action action) throws Exception {
+        run(RetryPolicy.none(), action);
+    }
+
+    public static <T> T call(Work<T> work) throws Exception {
+        return call(RetryPolicy.none(), work);
+    }
+
+    /**
+     * Como run(Action), pero si la transacción falla por deadlock o espera de bloqueo agotada
+     * se repite completa según la política. Dentro de otra UnitOfWork decide la política de la externa.
+     */
+    public static void run(RetryPolicy retry, Action action) throws Exception {
+        call(retry, conn -> {
+            action.execute(conn);
+            return null;
+        });
+    }
+
+    public static <T> T call(RetryPolicy retry, Work<T> work) throws Exception {
+        UnitOfWork current = CURRENT.get();
+        if (current != null) {
+            // Transacción ya abierta en este hilo: sumarse; si falla, nadie podrá confirmarla
+            try {
+                return work.execute(current.connection(ShardRouter.currentShard()));
+            } catch (Exception | Error e) {
+                current.rollbackOnly = true;
+                throw e;
+            }
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return execute(work);
+            } catch (Exception e) {
+                if (!retry.backoff(e, attempt)) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static <T> T execute(Work<T> work) throws Exception {
+        long start = System.nanoTime();
+        boolean ok = false;
+        UnitOfWork unit = new UnitOfWork();
+        CURRENT.set(unit);
+        try {
+            T result = work.execute(unit.connection(ShardRouter.currentShard()));
+            if (unit.rollbackOnly) {
+                throw new DatabaseException("Transaction rolled back: a nested operation failed.");
+            }
+
+            unit.commit();
+            ok = true;
+            // La ventana de db.read.stickyAfterWriteMs cuenta desde el commit
+            DatabaseConnection.markWrite();
+            unit.runAfterCommit();
+            return result;
+
+        } catch (Exception | Error e) {
+            unit.rollback();
+            throw e;
+        } finally {
+            CURRENT.remove();
+            unit.release();
+            TRANSACTION.record(start, ok);
+        }
+    }
+
+    private Connection connection(int shard) throws SQLException {
+        Connection conn = connections[shard];
+        if (conn == null) {
+            conn = DatabaseConnection.borrowConnection();
+            connections[shard] = conn;
+            conn.setAutoCommit(false);
+        }
+        return conn;
+    }
+
+    private void commit() throws SQLException {
+        int committed = 0;
+        for (Connection conn : connections) {
+            if (conn != null) {
+                try {
+                    conn.commit();
+                    committed++;
+                } catch (SQLException e) {
+                    if (committed > 0) {
+                        System.err.println("Transaction partially committed: " + committed + " shard(s) already committed.");
+                    }
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private void rollback() {
+        boolean rolledBack = false;
+        for (Connection conn : connections) {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                    rolledBack = true;
+                } catch (SQLException ex) {
+                    System.err.println("Error during rollback: " + ex.getMessage());
+                }
+            }
+        }
+        if (rolledBack) {
+            System.err.println("Transaction rolled back due to error.");
+        }
+    }
+
+    private void release() {
+        for (int shard = 0; shard < connections.length; shard++) {
+            Connection conn = connections[shard];
+            if (conn != null) {
+                connections[shard] = null;
+                try {
+                    conn.setAutoCommit(true);
+                } catch (SQLException e) {
+                    System.err.println("Error restoring autocommit: " + e.getMessage());
+                }
+                DatabaseConnection.closeConnection(conn);
+            }
+        }
+    }
+
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * Conexión ligada al hilo para el shard actual (se abre al primer uso),
+     * o null si no hay una unidad de trabajo activa.
+     */
+    public static Connection currentConnection() throws SQLException {
+        UnitOfWork current = CURRENT.get();
+        return current != null ? current.connection(ShardRouter.currentShard()) : null;
+    }
+
+    // true si la conexión pertenece a la transacción en curso (la libera la UnitOfWork, no quien la pidió)
+    static boolean isBound(Connection conn) {
+        UnitOfWork current = CURRENT.get();
+        if (current != null) {
+            for (Connection bound : current.connections) {
+                if (bound == conn) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Ejecuta la acción después del commit de la transacción en curso (p. ej. invalidar cachés,
+     * para no volver a cargar datos sin confirmar). Sin transacción activa se ejecuta enseguida.
+     */
+    public static void afterCommit(Runnable action) {
+        UnitOfWork current = CURRENT.get();
+        if (current == null) {
+            action.run();
+        } else {
+            current.afterCommit.add(action);
+        }
+    }
+
+    private void runAfterCommit() {
+        for (Runnable action : afterCommit) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                System.err.println("Error in after-commit action: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.mycompany.trabajo.practico.integrador.p2.daos;
+
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * Reconoce las violaciones de claves UNIQUE para que los DAOs inserten sin consultas previas
+ * y traduzcan el error del motor en un DuplicateEntityException con la columna afectada.
+ */
+final class DuplicateKeys {
+
+    private static final int MYSQL_DUPLICATE_ENTRY = 1062;
+    private static final String SQLSTATE_UNIQUE_VIOLATION = "23505";
+
+    private DuplicateKeys() {
+    }
+
+    static boolean isDuplicateKey(SQLException e) {
+        for (SQLException current = e; current != null; current = current.getNextException()) {
+            if (current.getErrorCode() == MYSQL_DUPLICATE_ENTRY
+                    || SQLSTATE_UNIQUE_VIOLATION.equals(current.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Devuelve la columna de la clave violada entre las candidatas, o null si no se reconoce.
+     * MySQL informa "Duplicate entry 'X' for key 'vehicle.domain'" (índice = columna en este esquema).
+     */
+    static String column(SQLException e, String... candidates) {
+        String message = e.getMessage() != null ? e.getMessage().toLowerCase(Locale.ROOT) : "";
+        int keyAt = message.lastIndexOf("for key '");
+        String key = keyAt >= 0 ? message.substring(keyAt + 9) : message;
+
+        // Otros motores (p. ej. H2) agregan la sentencia SQL al mensaje: se descarta para no confundir columnas
+        int sqlAt = key.indexOf("sql statement");
+        if (sqlAt >= 0) {
+            key = key.substring(0, sqlAt);
+        }
+
+        for (String candidate : candidates) {
+            if (key.contains(candidate.toLowerCase(Locale.ROOT))) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+}
@@ -2,10 +2,28 @@ package com.mycompany.trabajo.practico.integrador.p2.daos;
 
 import java.sql.Connection;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
 public interface GenericDao<T> {
     void create(T entity, Connection conn) throws Exception;
+    // Inserción por lotes (addBatch/executeBatch); asigna el ID generado a cada entidad
+    void createAll(List<T> entities, Connection conn) throws Exception;
     T findVehicleById(Long id, Connection conn) throws Exception;
     List<T> readAll(Connection conn) throws Exception;
     void update(T entity, Connection conn) throws Exception;
     void delete(Long id, Connection conn) throws Exception;
+
+    // Verificaciones livianas (SELECT 1): sin cargar la entidad; lockForUpdate bloquea la fila hasta el commit
+    boolean existsActive(Long id, Connection conn) throws Exception;
+    boolean lockForUpdate(Long id, Connection conn) throws Exception;
+
+    // Paginado por clave (keyset): registros activos con id > afterId, ordenados por id
+    List<T> readPage(Long afterId, int limit, Connection conn) throws Exception;
+    void stream(Consumer<T> consumer, Connection conn) throws Exception;
+    Stream<T> stream(Connection conn);
+
+    // Lectura completa en una sola consulta con ResultSet en streaming (fetch size de db.scan.*):
+    // cada fila se entrega al consumer al llegar; usar una conexión dedicada (DatabaseConnection.openStreamingConnection)
+    void scanAll(Consumer<T> consumer, Connection conn) throws Exception;
 }
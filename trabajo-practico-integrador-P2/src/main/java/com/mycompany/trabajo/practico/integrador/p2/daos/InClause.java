@@ -0,0 +1,83 @@
+package com.mycompany.trabajo.practico.integrador.p2.daos;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Utilidades para búsquedas por lista de claves con IN (?, ?, ...).
+ * La cantidad de marcadores se redondea a la potencia de 2 siguiente (tope chunkSize) y los sobrantes
+ * repiten la última clave: así hay pocos textos SQL distintos y la caché de sentencias los reutiliza.
+ */
+final class InClause {
+
+    private InClause() {
+    }
+
+    static int slots(int keys, int chunkSize) {
+        int slots = keys <= 1 ? 1 : Integer.highestOneBit(keys - 1) << 1;
+        return Math.min(slots, chunkSize);
+    }
+
+    static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder(count * 3);
+        for (int i = 0; i < count; i++) {
+            sb.append(i == 0 ? "?" : ", ?");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Claves distintas y no nulas, normalizadas y agrupadas en bloques de hasta chunkSize.
+     */
+    static <K> List<List<K>> chunks(Collection<K> keys, Function<K, K> normalizer, int chunkSize) {
+        LinkedHashSet<K> distinct = new LinkedHashSet<>();
+        for (K key : keys) {
+            if (key != null) {
+                distinct.add(normalizer.apply(key));
+            }
+        }
+
+        List<List<K>> chunks = new ArrayList<>();
+        List<K> current = new ArrayList<>(Math.min(chunkSize, distinct.size()));
+        for (K key : distinct) {
+            current.add(key);
+            if (current.size() == chunkSize) {
+                chunks.add(current);
+                current = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!current.isEmpty()) {
+            chunks.add(current);
+        }
+        return chunks;
+    }
+
+    static void bind(PreparedStatement stmt, List<?> chunk, int slots) throws SQLException {
+        for (int i = 0; i < slots; i++) {
+            stmt.setObject(i + 1, chunk.get(Math.min(i, chunk.size() - 1)));
+        }
+    }
+
+    /**
+     * Arma el resultado con las claves tal como llegaron (en su orden); las no encontradas quedan fuera.
+     */
+    static <K, V> Map<K, V> byInputKey(Collection<K> keys, Function<K, K> normalizer, Map<K, V> found) {
+        Map<K, V> result = new LinkedHashMap<>();
+        for (K key : keys) {
+            if (key != null) {
+                V value = found.get(normalizer.apply(key));
+                if (value != null) {
+                    result.put(key, value);
+                }
+            }
+        }
+        return result;
+    }
+}
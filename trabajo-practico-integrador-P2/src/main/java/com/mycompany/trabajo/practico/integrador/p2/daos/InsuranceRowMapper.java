@@ -0,0 +1,77 @@
+package com.mycompany.trabajo.practico.integrador.p2.daos;
+
+import com.mycompany.trabajo.practico.integrador.p2.entities.InsuranceVehicle;
+import com.mycompany.trabajo.practico.integrador.p2.entities.enums.CoverType;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * Mapea las columnas de insurance_vehicle (con un prefijo opcional, p. ej. "iv_" en los JOIN).
+ * Si la columna de ID es NULL (LEFT JOIN sin seguro), mapRow devuelve null.
+ */
+final class InsuranceRowMapper implements RowMapper<InsuranceVehicle> {
+
+    static final String COLUMNS = "insurance_vehicle_id, isActive, insurance_name, policy_number, cover, expire_date, version";
+
+    private final int id;
+    private final int isActive;
+    private final int insuranceName;
+    private final int policyNumber;
+    private final int cover;
+    private final int expireDate;
+    private final int version;
+    private final int vehicleId;
+
+    InsuranceRowMapper(ResultSet rs) throws SQLException {
+        this(rs, "", false);
+    }
+
+    /**
+     * @param withVehicleId true si el ResultSet incluye la columna vehicle_id (consultas unidas a vehicle)
+     */
+    InsuranceRowMapper(ResultSet rs, String prefix, boolean withVehicleId) throws SQLException {
+        this.id = rs.findColumn(prefix + "insurance_vehicle_id");
+        this.isActive = rs.findColumn(prefix + "isActive");
+        this.insuranceName = rs.findColumn(prefix + "insurance_name");
+        this.policyNumber = rs.findColumn(prefix + "policy_number");
+        this.cover = rs.findColumn(prefix + "cover");
+        this.expireDate = rs.findColumn(prefix + "expire_date");
+        this.version = rs.findColumn(prefix + "version");
+        this.vehicleId = withVehicleId ? rs.findColumn("vehicle_id") : 0;
+    }
+
+    @Override
+    public InsuranceVehicle mapRow(ResultSet rs) throws SQLException {
+        long insuranceId = rs.getLong(id);
+        if (rs.wasNull()) {
+            return null;
+        }
+        return mapRow(rs, insuranceId, vehicleId > 0 ? rs.getLong(vehicleId) : null);
+    }
+
+    /**
+     * Variante para el mapeo unido a vehicle: reutiliza el ID de vehículo ya leído (sin volver a boxearlo).
+     */
+    InsuranceVehicle mapRow(ResultSet rs, Long ownerVehicleId) throws SQLException {
+        long insuranceId = rs.getLong(id);
+        if (rs.wasNull()) {
+            return null;
+        }
+        return mapRow(rs, insuranceId, ownerVehicleId);
+    }
+
+    private InsuranceVehicle mapRow(ResultSet rs, long insuranceId, Long ownerVehicleId) throws SQLException {
+        InsuranceVehicle insurance = new InsuranceVehicle(
+                insuranceId,
+                rs.getBoolean(isActive),
+                ownerVehicleId,
+                rs.getString(insuranceName),
+                rs.getString(policyNumber),
+                CoverType.fromDescription(rs.getString(cover)),
+                rs.getObject(expireDate, LocalDate.class));
+        insurance.setVersion(rs.getLong(version));
+        return insurance;
+    }
+}
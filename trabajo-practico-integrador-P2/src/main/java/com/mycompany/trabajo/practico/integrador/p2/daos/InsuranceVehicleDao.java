@@ -1,27 +1,57 @@
 package com.mycompany.trabajo.practico.integrador.p2.daos;
 
+import com.mycompany.trabajo.practico.integrador.p2.config.DatabaseConnection;
+import com.mycompany.trabajo.practico.integrador.p2.config.ShardRouter;
 import com.mycompany.trabajo.practico.integrador.p2.entities.InsuranceVehicle;
-import com.mycompany.trabajo.practico.integrador.p2.entities.enums.CoverType;
 import com.mycompany.trabajo.practico.integrador.p2.exceptions.DatabaseException;
+import com.mycompany.trabajo.practico.integrador.p2.exceptions.DuplicateEntityException;
+import com.mycompany.trabajo.practico.integrador.p2.exceptions.OptimisticLockException;
+import com.mycompany.trabajo.practico.integrador.p2.metrics.Metrics;
+import com.mycompany.trabajo.practico.integrador.p2.metrics.OperationMetrics;
 
 import java.sql.*;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class InsuranceVehicleDao implements GenericDao<InsuranceVehicle> {
 
+    private static final int PAGE_SIZE = DatabaseConnection.getIntProperty("db.pageSize", 500);
+    private static final int BATCH_SIZE = DatabaseConnection.getIntProperty("db.batch.size", 1000);
+    private static final int LOOKUP_CHUNK_SIZE = DatabaseConnection.getIntProperty("db.lookup.chunkSize", 500);
+
+    private static final OperationMetrics CREATE = Metrics.operation("InsuranceVehicleDao.create");
+    private static final OperationMetrics CREATE_ALL = Metrics.operation("InsuranceVehicleDao.createAll");
+    private static final OperationMetrics FIND_BY_ID = Metrics.operation("InsuranceVehicleDao.findVehicleById");
+    private static final OperationMetrics FIND_BY_VEHICLE_ID = Metrics.operation("InsuranceVehicleDao.findByVehicleId");
+    private static final OperationMetrics FIND_ID_BY_VEHICLE_ID = Metrics.operation("InsuranceVehicleDao.findIdByVehicleId");
+    private static final OperationMetrics FIND_BY_POLICY_NUMBER = Metrics.operation("InsuranceVehicleDao.findByPolicyNumber");
+    private static final OperationMetrics FIND_BY_IDS = Metrics.operation("InsuranceVehicleDao.findByIds");
+    private static final OperationMetrics FIND_BY_POLICY_NUMBERS = Metrics.operation("InsuranceVehicleDao.findByPolicyNumbers");
+    private static final OperationMetrics READ_ALL = Metrics.operation("InsuranceVehicleDao.readAll");
+    private static final OperationMetrics READ_PAGE = Metrics.operation("InsuranceVehicleDao.readPage");
+    private static final OperationMetrics SCAN_ALL = Metrics.operation("InsuranceVehicleDao.scanAll");
+    private static final OperationMetrics UPDATE = Metrics.operation("InsuranceVehicleDao.update");
+    private static final OperationMetrics DELETE = Metrics.operation("InsuranceVehicleDao.delete");
+    private static final OperationMetrics EXISTS_ACTIVE = Metrics.operation("InsuranceVehicleDao.existsActive");
+    private static final OperationMetrics LOCK_FOR_UPDATE = Metrics.operation("InsuranceVehicleDao.lockForUpdate");
+
+    private static final String SELECT_COLUMNS = "SELECT " + InsuranceRowMapper.COLUMNS + " FROM insurance_vehicle";
+
+    private static final String INSERT_SQL = "INSERT INTO insurance_vehicle (isActive, insurance_name, " +
+            "policy_number, cover, expire_date) VALUES (?, ?, ?, ?, ?)";
+
     @Override
     public void create(InsuranceVehicle insurance, Connection conn) throws Exception {
-        String sql = "INSERT INTO insurance_vehicle (isActive, insurance_name, " +
-                "policy_number, cover, expire_date) VALUES (?, ?, ?, ?, ?)";
-
-        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            stmt.setBoolean(1, insurance.getIsActive());
-            stmt.setString(2, insurance.getInsuranceName());
-            stmt.setString(3, insurance.getPolicyNumber());
-            stmt.setString(4, insurance.getCover().getDescription());
-            stmt.setDate(5, Date.valueOf(insurance.getExpirationDate()));
+        long start = System.nanoTime();
+        boolean ok = false;
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            bindInsert(stmt, insurance);
 
             int affectedRows = stmt.executeUpdate();
 
@@ -31,81 +61,221 @@ public class InsuranceVehicleDao implements GenericDao<InsuranceVehicle> {
 
             try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
                 if (generatedKeys.next()) {
-                    insurance.setId(generatedKeys.getLong(1));
+                    long id = generatedKeys.getLong(1);
+                    ShardRouter.checkGeneratedId(id);
+                    insurance.setId(id);
                 } else {
                     throw new DatabaseException("Creating insurance failed, no ID obtained.");
                 }
             }
+            ok = true;
         } catch (SQLException e) {
-            if (e.getErrorCode() == 1062) {
-                throw new DatabaseException("Vehicle already has an insurance policy assigned.");
+            if (DuplicateKeys.isDuplicateKey(e)) {
+                throw duplicate(insurance, e);
             }
             throw new DatabaseException("Error creating insurance: " + e.getMessage(), e);
+        } finally {
+            CREATE.record(start, ok, ok ? 1 : 0);
+        }
+    }
+
+    @Override
+    public void createAll(List<InsuranceVehicle> insurances, Connection conn) throws Exception {
+        long start = System.nanoTime();
+        boolean ok = false;
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            int from = 0;
+            for (int i = 0; i < insurances.size(); i++) {
+                bindInsert(stmt, insurances.get(i));
+                stmt.addBatch();
+
+                if (i + 1 - from == BATCH_SIZE || i == insurances.size() - 1) {
+                    stmt.executeBatch();
+
+                    // Asignar los IDs generados en el mismo orden del lote
+                    try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                        for (int j = from; j <= i; j++) {
+                            if (!generatedKeys.next()) {
+                                throw new DatabaseException("Batch insert of insurances failed, missing generated ID for policy '"
+                                        + insurances.get(j).getPolicyNumber() + "'.");
+                            }
+                            long id = generatedKeys.getLong(1);
+                            ShardRouter.checkGeneratedId(id);
+                            insurances.get(j).setId(id);
+                        }
+                    }
+                    from = i + 1;
+                }
+            }
+            ok = true;
+        } catch (SQLException e) {
+            if (DuplicateKeys.isDuplicateKey(e)) {
+                throw duplicate(null, e);
+            }
+            throw new DatabaseException("Error creating insurances in batch: " + e.getMessage(), e);
+        } finally {
+            CREATE_ALL.record(start, ok, ok ? insurances.size() : 0);
         }
     }
 
     @Override
     public InsuranceVehicle findVehicleById(Long id, Connection conn) throws Exception {
-        String sql = "SELECT * FROM insurance_vehicle WHERE insurance_vehicle_id = ? AND isActive = true";
+        String sql = SELECT_COLUMNS + " WHERE insurance_vehicle_id = ? AND isActive = true";
+        InsuranceVehicle insurance = null;
+        long start = System.nanoTime();
+        boolean ok = false;
 
         try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setLong(1, id);
 
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    return mapResultSetToInsurance(rs);
+                    insurance = new InsuranceRowMapper(rs).mapRow(rs);
                 }
             }
+            ok = true;
         } catch (SQLException e) {
             throw new DatabaseException("Error reading insurance: " + e.getMessage(), e);
+        } finally {
+            FIND_BY_ID.record(start, ok, insurance != null ? 1 : 0);
         }
 
-        return null;
+        return insurance;
     }
 
     @Override
     public List<InsuranceVehicle> readAll(Connection conn) throws Exception {
         List<InsuranceVehicle> insurances = new ArrayList<>();
-        String sql = "SELECT * FROM insurance_vehicle WHERE isActive = true ORDER BY insurance_vehicle_id ";
+        String sql = SELECT_COLUMNS + " WHERE isActive = true ORDER BY insurance_vehicle_id";
+        long start = System.nanoTime();
+        boolean ok = false;
 
         try (PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
 
+            InsuranceRowMapper mapper = new InsuranceRowMapper(rs);
             while (rs.next()) {
-                insurances.add(mapResultSetToInsurance(rs));
+                insurances.add(mapper.mapRow(rs));
             }
+            ok = true;
         } catch (SQLException e) {
             throw new DatabaseException("Error reading all insurances: " + e.getMessage(), e);
+        } finally {
+            READ_ALL.record(start, ok, insurances.size());
+        }
+
+        return insurances;
+    }
+
+    @Override
+    public List<InsuranceVehicle> readPage(Long afterId, int limit, Connection conn) throws Exception {
+        List<InsuranceVehicle> insurances = new ArrayList<>(limit);
+        String sql = SELECT_COLUMNS + " WHERE insurance_vehicle_id > ? AND isActive = true " +
+                "ORDER BY insurance_vehicle_id LIMIT ?";
+        long start = System.nanoTime();
+        boolean ok = false;
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, afterId != null ? afterId : 0L);
+            stmt.setInt(2, limit);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                InsuranceRowMapper mapper = new InsuranceRowMapper(rs);
+                while (rs.next()) {
+                    insurances.add(mapper.mapRow(rs));
+                }
+            }
+            ok = true;
+        } catch (SQLException e) {
+            throw new DatabaseException("Error reading insurances page: " + e.getMessage(), e);
+        } finally {
+            READ_PAGE.record(start, ok, insurances.size());
         }
 
         return insurances;
     }
 
+    @Override
+    public void stream(Consumer<InsuranceVehicle> consumer, Connection conn) throws Exception {
+        KeysetPageIterator.forEach(afterId -> readPage(afterId, PAGE_SIZE, conn),
+                InsuranceVehicle::getId, PAGE_SIZE, consumer);
+    }
+
+    @Override
+    public void scanAll(Consumer<InsuranceVehicle> consumer, Connection conn) throws Exception {
+        String sql = SELECT_COLUMNS + " WHERE isActive = true ORDER BY insurance_vehicle_id";
+        long start = System.nanoTime();
+        boolean ok = false;
+        long rows = 0;
+
+        // Solo lectura y hacia adelante: el driver no necesita retener las filas ya entregadas
+        try (PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(DatabaseConnection.getStreamingFetchSize());
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                InsuranceRowMapper mapper = new InsuranceRowMapper(rs);
+                while (rs.next()) {
+                    consumer.accept(mapper.mapRow(rs));
+                    rows++;
+                }
+            }
+            ok = true;
+        } catch (SQLException e) {
+            throw new DatabaseException("Error scanning insurances: " + e.getMessage(), e);
+        } finally {
+            SCAN_ALL.record(start, ok, rows);
+        }
+    }
+
+    @Override
+    public Stream<InsuranceVehicle> stream(Connection conn) {
+        return KeysetPageIterator.stream(afterId -> readPage(afterId, PAGE_SIZE, conn),
+                InsuranceVehicle::getId, PAGE_SIZE);
+    }
+
     @Override
     public void update(InsuranceVehicle insurance, Connection conn) throws Exception {
+        // Condicional a la versión leída: si otro usuario modificó el seguro no se pisa su cambio
         String sql = "UPDATE insurance_vehicle SET insurance_name = ?, policy_number = ?, " +
-                "cover = ?, expire_date = ? WHERE id = ? AND isActive = true";
+                "cover = ?, expire_date = ?, version = version + 1 " +
+                "WHERE insurance_vehicle_id = ? AND isActive = true AND version = ?";
+        long start = System.nanoTime();
+        boolean ok = false;
 
         try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, insurance.getInsuranceName());
             stmt.setString(2, insurance.getPolicyNumber());
-            stmt.setString(4, insurance.getCover().getDescription());
+            stmt.setString(3, insurance.getCover().getDescription());
             stmt.setDate(4, Date.valueOf(insurance.getExpirationDate()));
             stmt.setLong(5, insurance.getId());
+            stmt.setLong(6, insurance.getVersion());
 
             int affectedRows = stmt.executeUpdate();
 
             if (affectedRows == 0) {
+                // Sigue activo: la versión cambió desde la lectura
+                if (existsActive(insurance.getId(), conn)) {
+                    throw new OptimisticLockException("Insurance", insurance.getId(), insurance.getVersion());
+                }
                 throw new DatabaseException("Updating insurance failed, insurance not found or already deleted.");
             }
+            insurance.setVersion(insurance.getVersion() + 1);
+            ok = true;
         } catch (SQLException e) {
+            if (DuplicateKeys.isDuplicateKey(e)) {
+                throw duplicate(insurance, e);
+            }
             throw new DatabaseException("Error updating insurance: " + e.getMessage(), e);
+        } finally {
+            UPDATE.record(start, ok, ok ? 1 : 0);
         }
     }
 
     @Override
     public void delete(Long id, Connection conn) throws Exception {
-        String sql = "UPDATE insurance_vehicle SET isActive = false WHERE insurance_vehicle_id = ?";
+        String sql = "UPDATE insurance_vehicle SET isActive = false WHERE insurance_vehicle_id = ? AND isActive = true";
+        long start = System.nanoTime();
+        boolean ok = false;
 
         try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setLong(1, id);
@@ -113,71 +283,203 @@ public class InsuranceVehicleDao implements GenericDao<InsuranceVehicle> {
             int affectedRows = stmt.executeUpdate();
 
             if (affectedRows == 0) {
-                throw new DatabaseException("Deleting insurance failed, insurance not found.");
+                throw new DatabaseException("Deleting insurance failed, insurance not found or already deleted.");
             }
+            ok = true;
         } catch (SQLException e) {
             throw new DatabaseException("Error deleting insurance: " + e.getMessage(), e);
+        } finally {
+            DELETE.record(start, ok, ok ? 1 : 0);
         }
     }
 
+    @Override
+    public boolean existsActive(Long id, Connection conn) throws Exception {
+        String sql = "SELECT 1 FROM insurance_vehicle WHERE insurance_vehicle_id = ? AND isActive = true";
+        return checkActive(sql, id, conn, EXISTS_ACTIVE);
+    }
+
+    @Override
+    public boolean lockForUpdate(Long id, Connection conn) throws Exception {
+        // Requiere una transacción abierta (autocommit = false): el bloqueo dura hasta commit/rollback
+        String sql = "SELECT 1 FROM insurance_vehicle WHERE insurance_vehicle_id = ? AND isActive = true FOR UPDATE";
+        return checkActive(sql, id, conn, LOCK_FOR_UPDATE);
+    }
+
+    private boolean checkActive(String sql, Long id, Connection conn, OperationMetrics metrics) throws Exception {
+        long start = System.nanoTime();
+        boolean ok = false;
+        boolean found = false;
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, id);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                found = rs.next();
+            }
+            ok = true;
+        } catch (SQLException e) {
+            throw new DatabaseException("Error checking insurance " + id + ": " + e.getMessage(), e);
+        } finally {
+            metrics.record(start, ok, found ? 1 : 0);
+        }
+
+        return found;
+    }
+
     public InsuranceVehicle findByVehicleId(Long vehicleId, Connection conn) throws Exception {
-        String sql = " SELECT * FROM vehicle v " +
-                     " JOIN insurance_vehicle iv on v.insurance_vehicle_id = iv.insurance_vehicle_id " +
-                     " WHERE v.vehicle_id = ? AND iv.isActive = true ";
+        String sql = "SELECT iv.insurance_vehicle_id, iv.isActive, iv.insurance_name, iv.policy_number, " +
+                     "iv.cover, iv.expire_date, iv.version, v.vehicle_id FROM vehicle v " +
+                     "JOIN insurance_vehicle iv ON v.insurance_vehicle_id = iv.insurance_vehicle_id " +
+                     "WHERE v.vehicle_id = ? AND iv.isActive = true";
+        InsuranceVehicle insurance = null;
+        long start = System.nanoTime();
+        boolean ok = false;
 
         try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setLong(1, vehicleId);
 
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    return mapResultSetToInsurance(rs);
+                    insurance = new InsuranceRowMapper(rs, "", true).mapRow(rs);
                 }
             }
+            ok = true;
         } catch (SQLException e) {
             throw new DatabaseException("Error finding insurance by vehicle: " + e.getMessage(), e);
+        } finally {
+            FIND_BY_VEHICLE_ID.record(start, ok, insurance != null ? 1 : 0);
         }
 
-        return null;
+        return insurance;
+    }
+
+    /**
+     * Solo el ID del seguro activo del vehículo (null si no tiene), sin cargar la entidad.
+     */
+    public Long findIdByVehicleId(Long vehicleId, Connection conn) throws Exception {
+        String sql = "SELECT iv.insurance_vehicle_id FROM vehicle v " +
+                     "JOIN insurance_vehicle iv ON v.insurance_vehicle_id = iv.insurance_vehicle_id " +
+                     "WHERE v.vehicle_id = ? AND iv.isActive = true";
+        Long insuranceId = null;
+        long start = System.nanoTime();
+        boolean ok = false;
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, vehicleId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    insuranceId = rs.getLong(1);
+                }
+            }
+            ok = true;
+        } catch (SQLException e) {
+            throw new DatabaseException("Error finding insurance ID by vehicle: " + e.getMessage(), e);
+        } finally {
+            FIND_ID_BY_VEHICLE_ID.record(start, ok, insuranceId != null ? 1 : 0);
+        }
+
+        return insuranceId;
     }
 
     public InsuranceVehicle findByPolicyNumber(String policyNumber, Connection conn) throws Exception {
-        String sql = "SELECT * FROM insurance_vehicle WHERE policy_number = ? AND isActive = true";
+        String sql = SELECT_COLUMNS + " WHERE policy_number = ? AND isActive = true";
+        InsuranceVehicle insurance = null;
+        long start = System.nanoTime();
+        boolean ok = false;
 
         try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, policyNumber);
 
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    return mapResultSetToInsurance(rs);
+                    insurance = new InsuranceRowMapper(rs).mapRow(rs);
                 }
             }
+            ok = true;
         } catch (SQLException e) {
             throw new DatabaseException("Error finding insurance by policy number: " + e.getMessage(), e);
+        } finally {
+            FIND_BY_POLICY_NUMBER.record(start, ok, insurance != null ? 1 : 0);
         }
 
-        return null;
+        return insurance;
     }
 
-    private InsuranceVehicle mapResultSetToInsurance(ResultSet rs) throws SQLException {
-        InsuranceVehicle insurance = new InsuranceVehicle();
-        insurance.setId(rs.getLong("insurance_vehicle_id"));
-        insurance.setIsActive(rs.getBoolean("isActive"));
-        insurance.setInsuranceName(rs.getString("insurance_name"));
-        insurance.setPolicyNumber(rs.getString("policy_number"));
-        CoverType cover = getCoverType(rs);
-        insurance.setCover(cover);
-        insurance.setExpirationDate(rs.getDate("expire_date").toLocalDate());
-        return insurance;
+    /**
+     * Busca varios seguros activos en bloques IN de db.lookup.chunkSize.
+     * El mapa conserva el orden de los IDs recibidos; los inexistentes no aparecen.
+     */
+    public Map<Long, InsuranceVehicle> findByIds(Collection<Long> ids, Connection conn) throws Exception {
+        Map<Long, InsuranceVehicle> found = findIn("insurance_vehicle_id",
+                InClause.chunks(ids, Function.identity(), LOOKUP_CHUNK_SIZE), InsuranceVehicle::getId, conn, FIND_BY_IDS);
+        return InClause.byInputKey(ids, Function.identity(), found);
+    }
+
+    public Map<String, InsuranceVehicle> findByPolicyNumbers(Collection<String> policyNumbers, Connection conn)
+            throws Exception {
+        Map<String, InsuranceVehicle> found = findIn("policy_number",
+                InClause.chunks(policyNumbers, Function.identity(), LOOKUP_CHUNK_SIZE),
+                InsuranceVehicle::getPolicyNumber, conn, FIND_BY_POLICY_NUMBERS);
+        return InClause.byInputKey(policyNumbers, Function.identity(), found);
+    }
+
+    private <K> Map<K, InsuranceVehicle> findIn(String column, List<List<K>> chunks, Function<InsuranceVehicle, K> keyOf,
+                                                Connection conn, OperationMetrics metrics) throws Exception {
+        Map<K, InsuranceVehicle> found = new HashMap<>();
+        long start = System.nanoTime();
+        boolean ok = false;
+
+        try {
+            for (List<K> chunk : chunks) {
+                int slots = InClause.slots(chunk.size(), LOOKUP_CHUNK_SIZE);
+                String sql = SELECT_COLUMNS + " WHERE isActive = true AND " + column +
+                        " IN (" + InClause.placeholders(slots) + ")";
+
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    InClause.bind(stmt, chunk, slots);
+
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        InsuranceRowMapper mapper = new InsuranceRowMapper(rs);
+                        while (rs.next()) {
+                            InsuranceVehicle insurance = mapper.mapRow(rs);
+                            found.put(keyOf.apply(insurance), insurance);
+                        }
+                    }
+                }
+            }
+            ok = true;
+        } catch (SQLException e) {
+            throw new DatabaseException("Error finding insurances by " + column + ": " + e.getMessage(), e);
+        } finally {
+            metrics.record(start, ok, found.size());
+        }
+
+        return found;
+    }
+
+    /**
+     * Traduce la violación de la clave UNIQUE de policy_number.
+     */
+    private static DuplicateEntityException duplicate(InsuranceVehicle insurance, SQLException e) {
+        String column = DuplicateKeys.column(e, "policy_number");
+        String message;
+        if ("policy_number".equals(column) && insurance != null) {
+            message = "Policy number '" + insurance.getPolicyNumber() + "' already exists.";
+        } else if ("policy_number".equals(column)) {
+            message = "An insurance with the same policy number already exists: " + e.getMessage();
+        } else {
+            message = "Duplicate insurance: " + e.getMessage();
+        }
+        return new DuplicateEntityException(message, column, e);
     }
 
-    private static CoverType getCoverType(ResultSet rs) throws SQLException {
-        String coverStr = rs.getString("cover");
-        CoverType cover = Arrays.stream(CoverType.values())
-                .filter(c -> c.getDescription().equalsIgnoreCase(coverStr))
-                .findFirst()
-                .orElseThrow(() ->
-                        new IllegalArgumentException("Cobertura inválida: " + coverStr)
-                );
-        return cover;
+    private void bindInsert(PreparedStatement stmt, InsuranceVehicle insurance) throws SQLException {
+        stmt.setBoolean(1, insurance.getIsActive());
+        stmt.setString(2, insurance.getInsuranceName());
+        stmt.setString(3, insurance.getPolicyNumber());
+        stmt.setString(4, insurance.getCover().getDescription());
+        stmt.setDate(5, Date.valueOf(insurance.getExpirationDate()));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,88 @@
+package com.mycompany.trabajo.practico.integrador.p2.daos;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Recorre una tabla página por página usando paginado por clave (WHERE id > ? ORDER BY id LIMIT ?),
+ * manteniendo en memoria solo la página actual.
+ */
+public class KeysetPageIterator<T> implements Iterator<T> {
+
+    @FunctionalInterface
+    public interface PageFetcher<T> {
+        List<T> fetch(Long afterId) throws Exception;
+    }
+
+    private final PageFetcher<T> fetcher;
+    private final Function<T, Long> idExtractor;
+    private final int pageSize;
+
+    private Iterator<T> current = Collections.emptyIterator();
+    private Long lastId = 0L;
+    private boolean lastPage;
+
+    public KeysetPageIterator(PageFetcher<T> fetcher, Function<T, Long> idExtractor, int pageSize) {
+        this.fetcher = fetcher;
+        this.idExtractor = idExtractor;
+        this.pageSize = pageSize;
+    }
+
+    public static <T> Stream<T> stream(PageFetcher<T> fetcher, Function<T, Long> idExtractor, int pageSize) {
+        Iterator<T> iterator = new KeysetPageIterator<>(fetcher, idExtractor, pageSize);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    public static <T> void forEach(PageFetcher<T> fetcher, Function<T, Long> idExtractor, int pageSize,
+                                   Consumer<T> consumer) throws Exception {
+        Long afterId = 0L;
+        List<T> page;
+        do {
+            page = fetcher.fetch(afterId);
+            for (T entity : page) {
+                consumer.accept(entity);
+            }
+            if (!page.isEmpty()) {
+                afterId = idExtractor.apply(page.get(page.size() - 1));
+            }
+        } while (page.size() >= pageSize);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            if (lastPage) {
+                return false;
+            }
+            List<T> page;
+            try {
+                page = fetcher.fetch(lastId);
+            } catch (Exception e) {
+                throw new IllegalStateException("Error reading page after id " + lastId + ": " + e.getMessage(), e);
+            }
+            lastPage = page.size() < pageSize;
+            if (!page.isEmpty()) {
+                lastId = idExtractor.apply(page.get(page.size() - 1));
+            }
+            current = page.iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+}
@@ -0,0 +1,14 @@
+package com.mycompany.trabajo.practico.integrador.p2.daos;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Convierte la fila actual de un ResultSet en una entidad.
+ * Las implementaciones resuelven los índices de columna una sola vez (al crearse para un ResultSet)
+ * y luego leen cada fila por posición, sin buscar columnas por nombre.
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+    T mapRow(ResultSet rs) throws SQLException;
+}
@@ -1,37 +1,73 @@
 package com.mycompany.trabajo.practico.integrador.p2.daos;
 
-
-
+import com.mycompany.trabajo.practico.integrador.p2.config.DatabaseConnection;
+import com.mycompany.trabajo.practico.integrador.p2.config.ShardRouter;
 import com.mycompany.trabajo.practico.integrador.p2.entities.InsuranceVehicle;
 import com.mycompany.trabajo.practico.integrador.p2.entities.Vehicle;
 import com.mycompany.trabajo.practico.integrador.p2.exceptions.DatabaseException;
+import com.mycompany.trabajo.practico.integrador.p2.exceptions.DuplicateEntityException;
+import com.mycompany.trabajo.practico.integrador.p2.exceptions.OptimisticLockException;
+import com.mycompany.trabajo.practico.integrador.p2.metrics.Metrics;
+import com.mycompany.trabajo.practico.integrador.p2.metrics.OperationMetrics;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class VehicleDao implements GenericDao<Vehicle> {
 
-    private InsuranceVehicleDao insuranceDao = new InsuranceVehicleDao();
+    private static final int PAGE_SIZE = DatabaseConnection.getIntProperty("db.pageSize", 500);
+    private static final int BATCH_SIZE = DatabaseConnection.getIntProperty("db.batch.size", 1000);
+    private static final int LOOKUP_CHUNK_SIZE = DatabaseConnection.getIntProperty("db.lookup.chunkSize", 500);
+
+    private static final OperationMetrics CREATE = Metrics.operation("VehicleDao.create");
+    private static final OperationMetrics CREATE_ALL = Metrics.operation("VehicleDao.createAll");
+    private static final OperationMetrics LINK_INSURANCE = Metrics.operation("VehicleDao.linkInsurance");
+    private static final OperationMetrics LINK_INSURANCES = Metrics.operation("VehicleDao.linkInsurances");
+    private static final OperationMetrics FIND_BY_ID = Metrics.operation("VehicleDao.findVehicleById");
+    private static final OperationMetrics FIND_BY_DOMAIN = Metrics.operation("VehicleDao.findByDomain");
+    private static final OperationMetrics FIND_BY_IDS = Metrics.operation("VehicleDao.findByIds");
+    private static final OperationMetrics FIND_BY_DOMAINS = Metrics.operation("VehicleDao.findByDomains");
+    private static final OperationMetrics READ_ALL = Metrics.operation("VehicleDao.readAll");
+    private static final OperationMetrics READ_PAGE = Metrics.operation("VehicleDao.readPage");
+    private static final OperationMetrics SCAN_ALL = Metrics.operation("VehicleDao.scanAll");
+    private static final OperationMetrics UPDATE = Metrics.operation("VehicleDao.update");
+    private static final OperationMetrics DELETE = Metrics.operation("VehicleDao.delete");
+    private static final OperationMetrics EXISTS_ACTIVE = Metrics.operation("VehicleDao.existsActive");
+    private static final OperationMetrics LOCK_FOR_UPDATE = Metrics.operation("VehicleDao.lockForUpdate");
+
+    private static final String INSERT_SQL =
+            "INSERT INTO Vehicle (isActive, domain, brand, model, year, chasis_number, insurance_vehicle_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    // Solo vincula si el vehículo está activo y no tiene ya un seguro activo (regla 1→1).
+    // Incrementa la versión: una edición abierta antes del vínculo no debe poder deshacerlo
+    private static final String LINK_INSURANCE_SQL =
+            "UPDATE vehicle SET insurance_vehicle_id = ?, version = version + 1 WHERE vehicle_id = ? AND isActive = true " +
+            "AND (insurance_vehicle_id IS NULL OR insurance_vehicle_id NOT IN " +
+            "(SELECT insurance_vehicle_id FROM insurance_vehicle WHERE isActive = true))";
+
+    // Vehículo + seguro activo en una sola consulta (evita N+1)
+    private static final String SELECT_WITH_INSURANCE =
+            "SELECT " + VehicleRowMapper.COLUMNS + ", " +
+            "iv.insurance_vehicle_id AS iv_insurance_vehicle_id, iv.isActive AS iv_isActive, " +
+            "iv.insurance_name AS iv_insurance_name, iv.policy_number AS iv_policy_number, " +
+            "iv.cover AS iv_cover, iv.expire_date AS iv_expire_date, iv.version AS iv_version " +
+            "FROM vehicle v " +
+            "LEFT JOIN insurance_vehicle iv ON v.insurance_vehicle_id = iv.insurance_vehicle_id AND iv.isActive = true";
 
     @Override
     public void create(Vehicle vehicle, Connection conn) throws Exception {
-        String sql = "INSERT INTO Vehicle (isActive, domain, brand, model, year, chasis_number, insurance_vehicle_id) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?)";
-
-        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            stmt.setBoolean(1, vehicle.getIsActive());
-            stmt.setString(2, vehicle.getDomain().toUpperCase());
-            stmt.setString(3, vehicle.getBrand());
-            stmt.setString(4, vehicle.getModel());
-            stmt.setInt(5, vehicle.getYear());
-            stmt.setString(6, vehicle.getChassisNumber());
-
-            if (vehicle.getInsurance() != null && vehicle.getInsurance().getId() != null) {
-                stmt.setLong(7, vehicle.getInsurance().getId());
-            } else {
-                stmt.setNull(7, Types.BIGINT);
-            }
+        long start = System.nanoTime();
+        boolean ok = false;
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            bindInsert(stmt, vehicle);
 
             int affectedRows = stmt.executeUpdate();
 
@@ -41,73 +77,247 @@ public class VehicleDao implements GenericDao<Vehicle> {
 
             try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
                 if (generatedKeys.next()) {
-                    vehicle.setVehicleId(generatedKeys.getLong(1));
+                    long id = generatedKeys.getLong(1);
+                    ShardRouter.checkGeneratedId(id);
+                    vehicle.setVehicleId(id);
                 } else {
                     throw new DatabaseException("Creating vehicle failed, no ID obtained.");
                 }
             }
+            ok = true;
         } catch (SQLException e) {
+            if (DuplicateKeys.isDuplicateKey(e)) {
+                throw duplicate(vehicle, e);
+            }
             throw new DatabaseException("Error creating vehicle: " + e.getMessage(), e);
+        } finally {
+            CREATE.record(start, ok, ok ? 1 : 0);
+        }
+    }
+
+    @Override
+    public void createAll(List<Vehicle> vehicles, Connection conn) throws Exception {
+        long start = System.nanoTime();
+        boolean ok = false;
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            int from = 0;
+            for (int i = 0; i < vehicles.size(); i++) {
+                bindInsert(stmt, vehicles.get(i));
+                stmt.addBatch();
+
+                if (i + 1 - from == BATCH_SIZE || i == vehicles.size() - 1) {
+                    stmt.executeBatch();
+
+                    // Asignar los IDs generados en el mismo orden del lote
+                    try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                        for (int j = from; j <= i; j++) {
+                            if (!generatedKeys.next()) {
+                                throw new DatabaseException("Batch insert of vehicles failed, missing generated ID for '"
+                                        + vehicles.get(j).getDomain() + "'.");
+                            }
+                            long id = generatedKeys.getLong(1);
+                            ShardRouter.checkGeneratedId(id);
+                            vehicles.get(j).setVehicleId(id);
+                        }
+                    }
+                    from = i + 1;
+                }
+            }
+            ok = true;
+        } catch (SQLException e) {
+            if (DuplicateKeys.isDuplicateKey(e)) {
+                throw duplicate(null, e);
+            }
+            throw new DatabaseException("Error creating vehicles in batch: " + e.getMessage(), e);
+        } finally {
+            CREATE_ALL.record(start, ok, ok ? vehicles.size() : 0);
+        }
+    }
+
+    /**
+     * Asocia un seguro recién creado a su vehículo con un único UPDATE condicional.
+     * Retorna false si el vehículo no existe, está dado de baja o ya tiene un seguro activo.
+     */
+    public boolean linkInsurance(Long vehicleId, Long insuranceId, Connection conn) throws Exception {
+        long start = System.nanoTime();
+        boolean ok = false;
+        boolean linked = false;
+
+        try (PreparedStatement stmt = conn.prepareStatement(LINK_INSURANCE_SQL)) {
+            stmt.setLong(1, insuranceId);
+            stmt.setLong(2, vehicleId);
+            linked = stmt.executeUpdate() > 0;
+            ok = true;
+        } catch (SQLException e) {
+            throw new DatabaseException("Error linking insurance to vehicle: " + e.getMessage(), e);
+        } finally {
+            LINK_INSURANCE.record(start, ok, linked ? 1 : 0);
+        }
+
+        return linked;
+    }
+
+    /**
+     * Asocia cada seguro con su vehículo (insurance.getVehicleId()) en un único lote.
+     * Retorna los IDs de vehículo que no se pudieron vincular (inexistentes o con un seguro activo).
+     */
+    public List<Long> linkInsurances(List<InsuranceVehicle> insurances, Connection conn) throws Exception {
+        List<Long> notLinked = new ArrayList<>();
+        long start = System.nanoTime();
+        boolean ok = false;
+
+        try (PreparedStatement stmt = conn.prepareStatement(LINK_INSURANCE_SQL)) {
+            int from = 0;
+            for (int i = 0; i < insurances.size(); i++) {
+                stmt.setLong(1, insurances.get(i).getId());
+                stmt.setLong(2, insurances.get(i).getVehicleId());
+                stmt.addBatch();
+
+                if (i + 1 - from == BATCH_SIZE || i == insurances.size() - 1) {
+                    int[] counts = stmt.executeBatch();
+                    for (int j = 0; j < counts.length; j++) {
+                        if (counts[j] == 0) {
+                            notLinked.add(insurances.get(from + j).getVehicleId());
+                        }
+                    }
+                    from = i + 1;
+                }
+            }
+            ok = true;
+        } catch (SQLException e) {
+            throw new DatabaseException("Error linking insurances to vehicles: " + e.getMessage(), e);
+        } finally {
+            LINK_INSURANCES.record(start, ok, insurances.size() - notLinked.size());
         }
+
+        return notLinked;
     }
 
     @Override
     public Vehicle findVehicleById(Long id, Connection conn) throws Exception {
-        String sql = "SELECT * FROM vehicle WHERE vehicle_id = ? AND isActive = true";
+        String sql = SELECT_WITH_INSURANCE + " WHERE v.vehicle_id = ? AND v.isActive = true";
+        Vehicle vehicle = null;
+        long start = System.nanoTime();
+        boolean ok = false;
 
         try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setLong(1, id);
 
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    Vehicle vehicle = mapResultSetToVehicle(rs);
-
-                    // Cargar el seguro asociado si existe
-                    InsuranceVehicle insurance = insuranceDao.findByVehicleId(vehicle.getVehicleId(), conn);
-                    vehicle.setInsurance(insurance);
-
-                    return vehicle;
+                    vehicle = new VehicleRowMapper(rs, true).mapRow(rs);
                 }
             }
+            ok = true;
         } catch (SQLException e) {
             throw new DatabaseException("Error reading vehicle: " + e.getMessage(), e);
+        } finally {
+            FIND_BY_ID.record(start, ok, vehicle != null ? 1 : 0);
         }
 
-        return null;
+        return vehicle;
     }
 
     @Override
     public List<Vehicle> readAll(Connection conn) throws Exception {
         List<Vehicle> vehicles = new ArrayList<>();
-        String sql = "SELECT * FROM vehicle WHERE isActive = true ORDER BY vehicle_id";
+        String sql = SELECT_WITH_INSURANCE + " WHERE v.isActive = true ORDER BY v.vehicle_id";
+        long start = System.nanoTime();
+        boolean ok = false;
 
         try (PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
 
+            VehicleRowMapper mapper = new VehicleRowMapper(rs, true);
             while (rs.next()) {
-                Vehicle vehicle = mapResultSetToVehicle(rs);
+                vehicles.add(mapper.mapRow(rs));
+            }
+            ok = true;
+        } catch (SQLException e) {
+            throw new DatabaseException("Error reading all vehicles: " + e.getMessage(), e);
+        } finally {
+            READ_ALL.record(start, ok, vehicles.size());
+        }
+
+        return vehicles;
+    }
+
+    @Override
+    public List<Vehicle> readPage(Long afterId, int limit, Connection conn) throws Exception {
+        List<Vehicle> vehicles = new ArrayList<>(limit);
+        String sql = SELECT_WITH_INSURANCE + " WHERE v.vehicle_id > ? AND v.isActive = true ORDER BY v.vehicle_id LIMIT ?";
+        long start = System.nanoTime();
+        boolean ok = false;
 
-                // Cargar el seguro asociado si existe
-                Long vehicleId = vehicle.getVehicleId();
-                InsuranceVehicle insurance = insuranceDao.findByVehicleId(vehicleId, conn);
-                vehicle.setInsurance(insurance);
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, afterId != null ? afterId : 0L);
+            stmt.setInt(2, limit);
 
-                vehicles.add(vehicle);
+            try (ResultSet rs = stmt.executeQuery()) {
+                VehicleRowMapper mapper = new VehicleRowMapper(rs, true);
+                while (rs.next()) {
+                    vehicles.add(mapper.mapRow(rs));
+                }
             }
+            ok = true;
         } catch (SQLException e) {
-            throw new DatabaseException("Error reading all vehicles: " + e.getMessage(), e);
+            throw new DatabaseException("Error reading vehicles page: " + e.getMessage(), e);
+        } finally {
+            READ_PAGE.record(start, ok, vehicles.size());
         }
 
         return vehicles;
     }
 
+    @Override
+    public void stream(Consumer<Vehicle> consumer, Connection conn) throws Exception {
+        KeysetPageIterator.forEach(afterId -> readPage(afterId, PAGE_SIZE, conn),
+                Vehicle::getVehicleId, PAGE_SIZE, consumer);
+    }
+
+    @Override
+    public void scanAll(Consumer<Vehicle> consumer, Connection conn) throws Exception {
+        String sql = SELECT_WITH_INSURANCE + " WHERE v.isActive = true ORDER BY v.vehicle_id";
+        long start = System.nanoTime();
+        boolean ok = false;
+        long rows = 0;
+
+        // Solo lectura y hacia adelante: el driver no necesita retener las filas ya entregadas
+        try (PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(DatabaseConnection.getStreamingFetchSize());
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                VehicleRowMapper mapper = new VehicleRowMapper(rs, true);
+                while (rs.next()) {
+                    consumer.accept(mapper.mapRow(rs));
+                    rows++;
+                }
+            }
+            ok = true;
+        } catch (SQLException e) {
+            throw new DatabaseException("Error scanning vehicles: " + e.getMessage(), e);
+        } finally {
+            SCAN_ALL.record(start, ok, rows);
+        }
+    }
+
+    @Override
+    public Stream<Vehicle> stream(Connection conn) {
+        return KeysetPageIterator.stream(afterId -> readPage(afterId, PAGE_SIZE, conn),
+                Vehicle::getVehicleId, PAGE_SIZE);
+    }
+
     @Override
     public void update(Vehicle vehicle, Connection conn) throws Exception {
+        // Condicional a la versión leída: si otro usuario modificó el vehículo no se pisa su cambio
         String sql = "UPDATE Vehicle SET domain = ?, brand = ?, model = ?, year = ?, " +
-                "chasis_number = ?, insurance_vehicle_id = ? WHERE vehicle_id = ? AND isActive = true";
+                "chasis_number = ?, insurance_vehicle_id = ?, version = version + 1 " +
+                "WHERE vehicle_id = ? AND isActive = true AND version = ?";
+        long start = System.nanoTime();
+        boolean ok = false;
 
         try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, vehicle.getDomain().toUpperCase());
+            stmt.setString(1, Vehicle.normalizeDomain(vehicle.getDomain()));
             stmt.setString(2, vehicle.getBrand());
             stmt.setString(3, vehicle.getModel());
             stmt.setInt(4, vehicle.getYear());
@@ -121,20 +331,34 @@ public class VehicleDao implements GenericDao<Vehicle> {
             }
 
             stmt.setLong(7, vehicle.getVehicleId());
+            stmt.setLong(8, vehicle.getVersion());
 
             int affectedRows = stmt.executeUpdate();
 
             if (affectedRows == 0) {
+                // Sigue activo: la versión cambió desde la lectura
+                if (existsActive(vehicle.getVehicleId(), conn)) {
+                    throw new OptimisticLockException("Vehicle", vehicle.getVehicleId(), vehicle.getVersion());
+                }
                 throw new DatabaseException("Updating vehicle failed, vehicle not found or already deleted.");
             }
+            vehicle.setVersion(vehicle.getVersion() + 1);
+            ok = true;
         } catch (SQLException e) {
+            if (DuplicateKeys.isDuplicateKey(e)) {
+                throw duplicate(vehicle, e);
+            }
             throw new DatabaseException("Error updating vehicle: " + e.getMessage(), e);
+        } finally {
+            UPDATE.record(start, ok, ok ? 1 : 0);
         }
     }
 
     @Override
     public void delete(Long id, Connection conn) throws Exception {
-        String sql = "UPDATE Vehicle SET isActive = false WHERE vehicle_id = ?";
+        String sql = "UPDATE Vehicle SET isActive = false WHERE vehicle_id = ? AND isActive = true";
+        long start = System.nanoTime();
+        boolean ok = false;
 
         try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setLong(1, id);
@@ -142,47 +366,162 @@ public class VehicleDao implements GenericDao<Vehicle> {
             int affectedRows = stmt.executeUpdate();
 
             if (affectedRows == 0) {
-                throw new DatabaseException("Deleting vehicle failed, vehicle not found.");
+                throw new DatabaseException("Deleting vehicle failed, vehicle not found or already deleted.");
             }
+            ok = true;
         } catch (SQLException e) {
             throw new DatabaseException("Error deleting vehicle: " + e.getMessage(), e);
+        } finally {
+            DELETE.record(start, ok, ok ? 1 : 0);
+        }
+    }
+
+    @Override
+    public boolean existsActive(Long id, Connection conn) throws Exception {
+        String sql = "SELECT 1 FROM vehicle WHERE vehicle_id = ? AND isActive = true";
+        return checkActive(sql, id, conn, EXISTS_ACTIVE);
+    }
+
+    @Override
+    public boolean lockForUpdate(Long id, Connection conn) throws Exception {
+        // Requiere una transacción abierta (autocommit = false): el bloqueo dura hasta commit/rollback
+        String sql = "SELECT 1 FROM vehicle WHERE vehicle_id = ? AND isActive = true FOR UPDATE";
+        return checkActive(sql, id, conn, LOCK_FOR_UPDATE);
+    }
+
+    private boolean checkActive(String sql, Long id, Connection conn, OperationMetrics metrics) throws Exception {
+        long start = System.nanoTime();
+        boolean ok = false;
+        boolean found = false;
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, id);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                found = rs.next();
+            }
+            ok = true;
+        } catch (SQLException e) {
+            throw new DatabaseException("Error checking vehicle " + id + ": " + e.getMessage(), e);
+        } finally {
+            metrics.record(start, ok, found ? 1 : 0);
         }
+
+        return found;
     }
 
     public Vehicle findByDomain(String domain, Connection conn) throws Exception {
-        String sql = "SELECT * FROM vehicle WHERE domain = ? AND isActive = true";
+        String sql = SELECT_WITH_INSURANCE + " WHERE v.domain = ? AND v.isActive = true";
+        Vehicle vehicle = null;
+        long start = System.nanoTime();
+        boolean ok = false;
 
         try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, domain.toUpperCase());
+            stmt.setString(1, Vehicle.normalizeDomain(domain));
 
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    Vehicle vehicle = mapResultSetToVehicle(rs);
+                    vehicle = new VehicleRowMapper(rs, true).mapRow(rs);
+                }
+            }
+            ok = true;
+        } catch (SQLException e) {
+            throw new DatabaseException("Error finding vehicle by domain: " + e.getMessage(), e);
+        } finally {
+            FIND_BY_DOMAIN.record(start, ok, vehicle != null ? 1 : 0);
+        }
 
-                    // Cargar el seguro asociado si existe
-                    InsuranceVehicle insurance = insuranceDao.findByVehicleId(vehicle.getVehicleId(), conn);
-                    vehicle.setInsurance(insurance);
+        return vehicle;
+    }
+
+    /**
+     * Busca varios vehículos activos (con su seguro) en bloques IN de db.lookup.chunkSize.
+     * El mapa conserva el orden de los IDs recibidos; los inexistentes no aparecen.
+     */
+    public Map<Long, Vehicle> findByIds(Collection<Long> ids, Connection conn) throws Exception {
+        Map<Long, Vehicle> found = findIn("v.vehicle_id",
+                InClause.chunks(ids, Function.identity(), LOOKUP_CHUNK_SIZE), Vehicle::getVehicleId, conn, FIND_BY_IDS);
+        return InClause.byInputKey(ids, Function.identity(), found);
+    }
+
+    /**
+     * Igual que findByIds pero por patente (sin distinguir mayúsculas); las claves del mapa son las recibidas.
+     */
+    public Map<String, Vehicle> findByDomains(Collection<String> domains, Connection conn) throws Exception {
+        Map<String, Vehicle> found = findIn("v.domain",
+                InClause.chunks(domains, Vehicle::normalizeDomain, LOOKUP_CHUNK_SIZE), Vehicle::getDomain, conn, FIND_BY_DOMAINS);
+        return InClause.byInputKey(domains, Vehicle::normalizeDomain, found);
+    }
 
-                    return vehicle;
+    private <K> Map<K, Vehicle> findIn(String column, List<List<K>> chunks, Function<Vehicle, K> keyOf,
+                                       Connection conn, OperationMetrics metrics) throws Exception {
+        Map<K, Vehicle> found = new HashMap<>();
+        long start = System.nanoTime();
+        boolean ok = false;
+
+        try {
+            for (List<K> chunk : chunks) {
+                int slots = InClause.slots(chunk.size(), LOOKUP_CHUNK_SIZE);
+                String sql = SELECT_WITH_INSURANCE + " WHERE v.isActive = true AND " + column +
+                        " IN (" + InClause.placeholders(slots) + ")";
+
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    InClause.bind(stmt, chunk, slots);
+
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        VehicleRowMapper mapper = new VehicleRowMapper(rs, true);
+                        while (rs.next()) {
+                            Vehicle vehicle = mapper.mapRow(rs);
+                            found.put(keyOf.apply(vehicle), vehicle);
+                        }
+                    }
                 }
             }
+            ok = true;
         } catch (SQLException e) {
-            throw new DatabaseException("Error finding vehicle by domain: " + e.getMessage(), e);
+            throw new DatabaseException("Error finding vehicles by " + column + ": " + e.getMessage(), e);
+        } finally {
+            metrics.record(start, ok, found.size());
         }
 
-        return null;
+        return found;
     }
 
-    private Vehicle mapResultSetToVehicle(ResultSet rs) throws SQLException {
-        Vehicle vehicle = new Vehicle();
-        vehicle.setVehicleId(rs.getLong("vehicle_id"));
-        vehicle.setIsActive(rs.getBoolean("isActive"));
-        vehicle.setDomain(rs.getString("domain"));
-        vehicle.setBrand(rs.getString("brand"));
-        vehicle.setModel(rs.getString("model"));
-        vehicle.setYear(rs.getInt("year"));
-        vehicle.setChassisNumber(rs.getString("chasis_number"));
-        return vehicle;
+    /**
+     * Traduce la violación de una clave UNIQUE (domain, chasis_number, insurance_vehicle_id).
+     */
+    private static DuplicateEntityException duplicate(Vehicle vehicle, SQLException e) {
+        String column = DuplicateKeys.column(e, "domain", "chasis_number", "insurance_vehicle_id");
+        String message;
+        if ("domain".equals(column)) {
+            message = vehicle != null
+                    ? "A vehicle with domain '" + Vehicle.normalizeDomain(vehicle.getDomain()) + "' already exists."
+                    : "A vehicle with the same domain already exists: " + e.getMessage();
+        } else if ("chasis_number".equals(column)) {
+            message = vehicle != null
+                    ? "A vehicle with chassis number '" + vehicle.getChassisNumber() + "' already exists."
+                    : "A vehicle with the same chassis number already exists: " + e.getMessage();
+        } else if ("insurance_vehicle_id".equals(column)) {
+            message = "Insurance policy is already assigned to another vehicle.";
+        } else {
+            message = "Duplicate vehicle: " + e.getMessage();
+        }
+        return new DuplicateEntityException(message, column, e);
+    }
+
+    private void bindInsert(PreparedStatement stmt, Vehicle vehicle) throws SQLException {
+        stmt.setBoolean(1, vehicle.getIsActive());
+        stmt.setString(2, Vehicle.normalizeDomain(vehicle.getDomain()));
+        stmt.setString(3, vehicle.getBrand());
+        stmt.setString(4, vehicle.getModel());
+        stmt.setInt(5, vehicle.getYear());
+        stmt.setString(6, vehicle.getChassisNumber());
+
+        if (vehicle.getInsurance() != null && vehicle.getInsurance().getId() != null) {
+            stmt.setLong(7, vehicle.getInsurance().getId());
+        } else {
+            stmt.setNull(7, Types.BIGINT);
+        }
     }
 }
 
@@ -0,0 +1,59 @@
+package com.mycompany.trabajo.practico.integrador.p2.daos;
+
+import com.mycompany.trabajo.practico.integrador.p2.entities.Vehicle;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Mapea las columnas de vehicle y, si la consulta lo incluye, el seguro activo unido con prefijo "iv_".
+ */
+final class VehicleRowMapper implements RowMapper<Vehicle> {
+
+    static final String COLUMNS = "v.vehicle_id, v.isActive, v.domain, v.brand, v.model, v.year, v.chasis_number, v.version";
+
+    private final int vehicleId;
+    private final int isActive;
+    private final int domain;
+    private final int brand;
+    private final int model;
+    private final int year;
+    private final int chassisNumber;
+    private final int version;
+    private final InsuranceRowMapper insuranceMapper;
+
+    VehicleRowMapper(ResultSet rs, boolean withInsurance) throws SQLException {
+        this.vehicleId = rs.findColumn("vehicle_id");
+        this.isActive = rs.findColumn("isActive");
+        this.domain = rs.findColumn("domain");
+        this.brand = rs.findColumn("brand");
+        this.model = rs.findColumn("model");
+        this.year = rs.findColumn("year");
+        this.chassisNumber = rs.findColumn("chasis_number");
+        this.version = rs.findColumn("version");
+        this.insuranceMapper = withInsurance ? new InsuranceRowMapper(rs, "iv_", false) : null;
+    }
+
+    @Override
+    public Vehicle mapRow(ResultSet rs) throws SQLException {
+        Long id = rs.getLong(vehicleId);
+        int yearValue = rs.getInt(year);
+        Integer vehicleYear = rs.wasNull() ? null : yearValue;
+
+        Vehicle vehicle = new Vehicle(
+                id,
+                rs.getBoolean(isActive),
+                rs.getString(domain),
+                rs.getString(brand),
+                rs.getString(model),
+                vehicleYear,
+                rs.getString(chassisNumber),
+                null);
+        vehicle.setVersion(rs.getLong(version));
+
+        if (insuranceMapper != null) {
+            vehicle.setInsurance(insuranceMapper.mapRow(rs, id));
+        }
+        return vehicle;
+    }
+}
@@ -0,0 +1,138 @@
+package com.mycompany.trabajo.practico.integrador.p2.diagnostics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Resumen comparable de un plan: tipo de acceso e índice por tabla, más las marcas
+ * FULL_SCAN:tabla, FILESORT y ROWS:tabla (estimación por encima del umbral).
+ * Formato de texto (el de la línea base): "access=v:ref/idx_x,iv:eq_ref/PRIMARY flags=ROWS:v".
+ */
+final class PlanSummary {
+
+    // Tipos de acceso de MySQL de mejor a peor ("scan"/"index" son los equivalentes de H2)
+    private static final List<String> ACCESS_RANK = Arrays.asList("system", "const", "eq_ref", "ref", "fulltext",
+            "ref_or_null", "index_merge", "unique_subquery", "index_subquery", "range", "index", "scan", "ALL");
+
+    private static final Pattern TABLE_OBJECT = Pattern.compile("\"table\"\\s*:\\s*\\{");
+    private static final Pattern H2_TABLE = Pattern.compile("\"\\w+\"\\.\"(\\w+)\"(?:\\s+\"(\\w+)\")?\\s*/\\*\\s*([\\w.]+)");
+
+    private final Map<String, String> access = new LinkedHashMap<>();
+    private final TreeSet<String> flags = new TreeSet<>();
+
+    static PlanSummary fromJson(String json, long maxRowsExamined) {
+        PlanSummary summary = new PlanSummary();
+        String[] tables = TABLE_OBJECT.split(json);
+        for (int i = 1; i < tables.length; i++) {
+            String table = tables[i];
+            String name = stringField(table, "table_name");
+            // INSERT figura como "table" con access_type ALL aunque no lea filas
+            if (name == null || table.matches("(?s)\\s*\"insert\"\\s*:\\s*true.*")) {
+                continue;
+            }
+            String accessType = stringField(table, "access_type");
+            String key = stringField(table, "key");
+            summary.access.put(name, accessType + (key != null ? "/" + key : ""));
+
+            if ("ALL".equals(accessType)) {
+                summary.flags.add("FULL_SCAN:" + name);
+            }
+            String rows = numberField(table, "rows_examined_per_scan");
+            if (rows != null && Long.parseLong(rows) > maxRowsExamined) {
+                summary.flags.add("ROWS:" + name);
+            }
+        }
+        if (json.matches("(?s).*\"using_filesort\"\\s*:\\s*true.*")) {
+            summary.flags.add("FILESORT");
+        }
+        return summary;
+    }
+
+    static PlanSummary fromText(String plan) {
+        PlanSummary summary = new PlanSummary();
+        Matcher matcher = H2_TABLE.matcher(plan);
+        while (matcher.find()) {
+            String name = matcher.group(2) != null ? matcher.group(2) : matcher.group(1);
+            String index = matcher.group(3);
+            if (index.endsWith(".tableScan")) {
+                summary.access.put(name, "scan");
+                summary.flags.add("FULL_SCAN:" + name);
+            } else {
+                summary.access.put(name, "index/" + index.substring(index.lastIndexOf('.') + 1));
+            }
+        }
+        // H2 indica "index sorted" cuando el orden sale del índice; si no, ordena en memoria
+        if (plan.contains("\nORDER BY") && !plan.contains("index sorted")) {
+            summary.flags.add("FILESORT");
+        }
+        return summary;
+    }
+
+    static PlanSummary parse(String text) {
+        PlanSummary summary = new PlanSummary();
+        for (String part : text.split(" ")) {
+            if (part.startsWith("access=") && part.length() > "access=".length()) {
+                for (String entry : part.substring("access=".length()).split(",")) {
+                    int colon = entry.indexOf(':');
+                    summary.access.put(entry.substring(0, colon), entry.substring(colon + 1));
+                }
+            } else if (part.startsWith("flags=") && !part.equals("flags=-")) {
+                summary.flags.addAll(Arrays.asList(part.substring("flags=".length()).split(",")));
+            }
+        }
+        return summary;
+    }
+
+    /**
+     * Describe en qué empeoró este plan respecto de la línea base, o null si no empeoró.
+     * Cambiar de índice con el mismo tipo de acceso no se considera regresión.
+     */
+    String regressionFrom(PlanSummary baseline) {
+        List<String> problems = new ArrayList<>();
+        for (String flag : flags) {
+            if (!baseline.flags.contains(flag)) {
+                problems.add("new " + flag);
+            }
+        }
+        for (Map.Entry<String, String> entry : access.entrySet()) {
+            String before = baseline.access.get(entry.getKey());
+            if (before != null && rank(entry.getValue()) > rank(before)) {
+                problems.add(entry.getKey() + " access " + before + " -> " + entry.getValue());
+            }
+        }
+        return problems.isEmpty() ? null : String.join("; ", problems);
+    }
+
+    private static int rank(String access) {
+        int slash = access.indexOf('/');
+        return ACCESS_RANK.indexOf(slash < 0 ? access : access.substring(0, slash));
+    }
+
+    private static String stringField(String json, String field) {
+        Matcher matcher = Pattern.compile("\"" + field + "\"\\s*:\\s*\"([^\"]*)\"").matcher(json);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private static String numberField(String json, String field) {
+        Matcher matcher = Pattern.compile("\"" + field + "\"\\s*:\\s*(\\d+)").matcher(json);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("access=");
+        boolean first = true;
+        for (Map.Entry<String, String> entry : access.entrySet()) {
+            sb.append(first ? "" : ",").append(entry.getKey()).append(':').append(entry.getValue());
+            first = false;
+        }
+        sb.append(" flags=").append(flags.isEmpty() ? "-" : String.join(",", flags));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,271 @@
+package com.mycompany.trabajo.practico.integrador.p2.diagnostics;
+
+import com.mycompany.trabajo.practico.integrador.p2.config.DatabaseConnection;
+import com.mycompany.trabajo.practico.integrador.p2.daos.InsuranceVehicleDao;
+import com.mycompany.trabajo.practico.integrador.p2.daos.VehicleDao;
+import com.mycompany.trabajo.practico.integrador.p2.entities.InsuranceVehicle;
+import com.mycompany.trabajo.practico.integrador.p2.entities.Vehicle;
+import com.mycompany.trabajo.practico.integrador.p2.entities.enums.CoverType;
+import com.mycompany.trabajo.practico.integrador.p2.exceptions.DatabaseException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Diagnóstico de planes de ejecución: recorre los métodos de VehicleDao e InsuranceVehicleDao sobre una
+ * conexión de ensayo (SqlCapture) para obtener cada SQL con parámetros reales, ejecuta EXPLAIN FORMAT=JSON
+ * (EXPLAIN de texto en bases que no son MySQL) y guarda los planes en explain.outputDir.
+ *
+ * Marca recorridos completos, filesort y estimaciones de filas por encima de explain.maxRowsExamined.
+ * Los resúmenes se comparan con explain.baseline: una marca nueva o un acceso peor que el registrado
+ * es una regresión y run() devuelve 1 (el comando explain termina con ese código). También devuelve 1,
+ * sin tocar la línea base, si algún método de DAO falló sin llegar a preparar su sentencia.
+ */
+public class QueryPlanCheck {
+
+    private static final String OUTPUT_DIR = DatabaseConnection.getProperty("explain.outputDir", "explain-plans");
+    private static final String BASELINE = DatabaseConnection.getProperty("explain.baseline", "explain-baseline.properties");
+    private static final long MAX_ROWS_EXAMINED = DatabaseConnection.getLongProperty("explain.maxRowsExamined", 1000L);
+
+    private final VehicleDao vehicleDao = new VehicleDao();
+    private final InsuranceVehicleDao insuranceDao = new InsuranceVehicleDao();
+    private final List<String> captureFailures = new ArrayList<>();
+
+    /**
+     * @param updateBaseline true para reemplazar la línea base con los planes actuales
+     * @return 0 si no hay regresiones, 1 si algún plan empeoró respecto de la línea base o no se pudo capturar
+     */
+    public int run(boolean updateBaseline) throws Exception {
+        Connection conn = null;
+        Map<String, PlanSummary> current = new TreeMap<>();
+        try {
+            conn = DatabaseConnection.getConnection();
+            boolean mySql = conn.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT).contains("mysql");
+            Path outputDir = Files.createDirectories(Paths.get(OUTPUT_DIR));
+
+            for (SqlCapture.CapturedStatement statement : capture(conn)) {
+                String plan = explain(statement, mySql, conn);
+                PlanSummary summary = mySql ? PlanSummary.fromJson(plan, MAX_ROWS_EXAMINED) : PlanSummary.fromText(plan);
+                current.put(statement.getId(), summary);
+
+                Files.writeString(outputDir.resolve(statement.getId() + (mySql ? ".json" : ".txt")),
+                        "-- " + statement.getSql() + "\n-- " + statement.getParameters() + "\n" + plan + "\n",
+                        StandardCharsets.UTF_8);
+                System.out.println(String.format("%-40s %s", statement.getId(), summary));
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException("Error explaining DAO statements: " + e.getMessage(), e);
+        } finally {
+            DatabaseConnection.closeConnection(conn);
+        }
+
+        if (!captureFailures.isEmpty()) {
+            for (String failure : captureFailures) {
+                System.out.println("NOT CAPTURED " + failure);
+            }
+            System.out.println(captureFailures.size() + " DAO method(s) could not be captured; baseline not updated.");
+            return 1;
+        }
+
+        Path baselineFile = Paths.get(BASELINE);
+        if (updateBaseline || !Files.exists(baselineFile)) {
+            writeBaseline(baselineFile, current);
+            System.out.println("Baseline written to " + baselineFile.toAbsolutePath());
+            return 0;
+        }
+        return compare(readBaseline(baselineFile), current);
+    }
+
+    private List<SqlCapture.CapturedStatement> capture(Connection conn) throws SQLException {
+        Sample sample = Sample.load(conn);
+        SqlCapture capture = new SqlCapture();
+        Connection dryRun = capture.connection();
+        captureFailures.clear();
+
+        run(capture, "VehicleDao.create", () -> vehicleDao.create(sample.newVehicle(), dryRun));
+        run(capture, "VehicleDao.createAll", () -> vehicleDao.createAll(List.of(sample.newVehicle()), dryRun));
+        run(capture, "VehicleDao.linkInsurance", () -> vehicleDao.linkInsurance(sample.vehicleId, sample.insuranceId, dryRun));
+        run(capture, "VehicleDao.linkInsurances", () -> vehicleDao.linkInsurances(List.of(sample.existingInsurance()), dryRun));
+        run(capture, "VehicleDao.findVehicleById", () -> vehicleDao.findVehicleById(sample.vehicleId, dryRun));
+        run(capture, "VehicleDao.findByDomain", () -> vehicleDao.findByDomain(sample.domain, dryRun));
+        run(capture, "VehicleDao.findByIds", () -> vehicleDao.findByIds(List.of(sample.vehicleId), dryRun));
+        run(capture, "VehicleDao.findByDomains", () -> vehicleDao.findByDomains(List.of(sample.domain), dryRun));
+        run(capture, "VehicleDao.readAll", () -> vehicleDao.readAll(dryRun));
+        run(capture, "VehicleDao.readPage", () -> vehicleDao.readPage(sample.vehicleId, 500, dryRun));
+        run(capture, "VehicleDao.scanAll", () -> vehicleDao.scanAll(vehicle -> { }, dryRun));
+        run(capture, "VehicleDao.update", () -> vehicleDao.update(sample.existingVehicle(), dryRun));
+        run(capture, "VehicleDao.delete", () -> vehicleDao.delete(sample.vehicleId, dryRun));
+        run(capture, "VehicleDao.existsActive", () -> vehicleDao.existsActive(sample.vehicleId, dryRun));
+        run(capture, "VehicleDao.lockForUpdate", () -> vehicleDao.lockForUpdate(sample.vehicleId, dryRun));
+
+        run(capture, "InsuranceVehicleDao.create", () -> insuranceDao.create(sample.newInsurance(), dryRun));
+        run(capture, "InsuranceVehicleDao.createAll", () -> insuranceDao.createAll(List.of(sample.newInsurance()), dryRun));
+        run(capture, "InsuranceVehicleDao.findVehicleById", () -> insuranceDao.findVehicleById(sample.insuranceId, dryRun));
+        run(capture, "InsuranceVehicleDao.findByVehicleId", () -> insuranceDao.findByVehicleId(sample.vehicleId, dryRun));
+        run(capture, "InsuranceVehicleDao.findIdByVehicleId", () -> insuranceDao.findIdByVehicleId(sample.vehicleId, dryRun));
+        run(capture, "InsuranceVehicleDao.findByPolicyNumber", () -> insuranceDao.findByPolicyNumber(sample.policyNumber, dryRun));
+        run(capture, "InsuranceVehicleDao.findByIds", () -> insuranceDao.findByIds(List.of(sample.insuranceId), dryRun));
+        run(capture, "InsuranceVehicleDao.findByPolicyNumbers", () -> insuranceDao.findByPolicyNumbers(List.of(sample.policyNumber), dryRun));
+        run(capture, "InsuranceVehicleDao.readAll", () -> insuranceDao.readAll(dryRun));
+        run(capture, "InsuranceVehicleDao.readPage", () -> insuranceDao.readPage(sample.insuranceId, 500, dryRun));
+        run(capture, "InsuranceVehicleDao.scanAll", () -> insuranceDao.scanAll(insurance -> { }, dryRun));
+        run(capture, "InsuranceVehicleDao.update", () -> insuranceDao.update(sample.existingInsurance(), dryRun));
+        run(capture, "InsuranceVehicleDao.delete", () -> insuranceDao.delete(sample.insuranceId, dryRun));
+        run(capture, "InsuranceVehicleDao.existsActive", () -> insuranceDao.existsActive(sample.insuranceId, dryRun));
+        run(capture, "InsuranceVehicleDao.lockForUpdate", () -> insuranceDao.lockForUpdate(sample.insuranceId, dryRun));
+
+        return capture.getStatements();
+    }
+
+    private void run(SqlCapture capture, String label, DaoCall call) {
+        capture.begin(label);
+        int before = capture.getStatements().size();
+        String error = "no statement prepared";
+        try {
+            call.run();
+        } catch (Exception e) {
+            // Esperable una vez preparada la sentencia: la conexión de ensayo no devuelve filas
+            error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+        if (capture.getStatements().size() == before) {
+            captureFailures.add(label + " (" + error + ")");
+        }
+    }
+
+    private static String explain(SqlCapture.CapturedStatement statement, boolean mySql, Connection conn)
+            throws SQLException {
+        String sql = (mySql ? "EXPLAIN FORMAT=JSON " : "EXPLAIN ") + statement.getSql();
+        StringBuilder plan = new StringBuilder();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (Map.Entry<Integer, Object> parameter : statement.getParameters().entrySet()) {
+                stmt.setObject(parameter.getKey(), parameter.getValue());
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append('\n');
+                }
+            }
+        }
+        return plan.toString().trim();
+    }
+
+    private static int compare(Map<String, String> baseline, Map<String, PlanSummary> current) {
+        int regressions = 0;
+        for (Map.Entry<String, PlanSummary> entry : current.entrySet()) {
+            String previous = baseline.get(entry.getKey());
+            if (previous == null) {
+                System.out.println("NEW        " + entry.getKey() + " (not in baseline)");
+                continue;
+            }
+            String regression = entry.getValue().regressionFrom(PlanSummary.parse(previous));
+            if (regression != null) {
+                regressions++;
+                System.out.println("REGRESSION " + entry.getKey() + ": " + regression);
+            } else if (!previous.equals(entry.getValue().toString())) {
+                System.out.println("CHANGED    " + entry.getKey() + ": " + previous + " -> " + entry.getValue());
+            }
+        }
+
+        if (regressions > 0) {
+            System.out.println(regressions + " query plan regression(s) against the baseline.");
+            return 1;
+        }
+        System.out.println("No query plan regressions.");
+        return 0;
+    }
+
+    private static Map<String, String> readBaseline(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream input = Files.newInputStream(file)) {
+            properties.load(input);
+        }
+        Map<String, String> baseline = new TreeMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            baseline.put(key, properties.getProperty(key));
+        }
+        return baseline;
+    }
+
+    private static void writeBaseline(Path file, Map<String, PlanSummary> current) throws IOException {
+        Properties properties = new Properties();
+        for (Map.Entry<String, PlanSummary> entry : current.entrySet()) {
+            properties.setProperty(entry.getKey(), entry.getValue().toString());
+        }
+        try (OutputStream output = Files.newOutputStream(file)) {
+            properties.store(output, "Query plan baseline (QueryPlanCheck)");
+        }
+    }
+
+    @FunctionalInterface
+    private interface DaoCall {
+        void run() throws Exception;
+    }
+
+    /**
+     * Claves reales para que el optimizador planifique como con datos de producción
+     * (con claves inexistentes MySQL responde "no matching row in const table" sin plan).
+     */
+    private static final class Sample {
+        private Long vehicleId = 1L;
+        private String domain = "AA000AA";
+        private Long insuranceId = 1L;
+        private String policyNumber = "POL1";
+
+        static Sample load(Connection conn) throws SQLException {
+            Sample sample = new Sample();
+            String sql = "SELECT v.vehicle_id, v.domain, iv.insurance_vehicle_id, iv.policy_number FROM vehicle v " +
+                    "JOIN insurance_vehicle iv ON v.insurance_vehicle_id = iv.insurance_vehicle_id " +
+                    "WHERE v.isActive = true AND iv.isActive = true ORDER BY v.vehicle_id LIMIT 1";
+            try (PreparedStatement stmt = conn.prepareStatement(sql);
+                 ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    sample.vehicleId = rs.getLong(1);
+                    sample.domain = rs.getString(2);
+                    sample.insuranceId = rs.getLong(3);
+                    sample.policyNumber = rs.getString(4);
+                } else {
+                    System.err.println("No active vehicle with insurance found; plans use placeholder keys.");
+                }
+            }
+            return sample;
+        }
+
+        Vehicle newVehicle() {
+            return new Vehicle("ZZ999ZZ", "Explain", "Plan", 2020, "EXPLAIN-PLAN");
+        }
+
+        Vehicle existingVehicle() {
+            Vehicle vehicle = new Vehicle(domain, "Explain", "Plan", 2020, null);
+            vehicle.setVehicleId(vehicleId);
+            InsuranceVehicle insurance = existingInsurance();
+            vehicle.setInsurance(insurance);
+            return vehicle;
+        }
+
+        InsuranceVehicle newInsurance() {
+            return new InsuranceVehicle(null, "Explain", "EXPLAIN-POL", CoverType.RC, LocalDate.now());
+        }
+
+        InsuranceVehicle existingInsurance() {
+            InsuranceVehicle insurance = new InsuranceVehicle(vehicleId, "Explain", policyNumber, CoverType.RC, LocalDate.now());
+            insurance.setId(insuranceId);
+            return insurance;
+        }
+    }
+}
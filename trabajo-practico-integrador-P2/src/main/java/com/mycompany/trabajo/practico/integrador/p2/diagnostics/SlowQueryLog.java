@@ -0,0 +1,202 @@
+package com.mycompany.trabajo.practico.integrador.p2.diagnostics;
+
+import com.mycompany.trabajo.practico.integrador.p2.config.DatabaseConnection;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.time.LocalDateTime;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registro de sentencias lentas. Con db.slowQuery.thresholdMs >= 0, DatabaseConnection envuelve cada conexión
+ * que entrega y cada sentencia preparada mide sus ejecuciones (execute*); en las consultas se suma además el
+ * tiempo de lectura de filas (next() del ResultSet). Si una supera el umbral se registra el SQL, los parámetros
+ * (textos enmascarados salvo db.slowQuery.maskStrings=false), las filas afectadas o devueltas, el tiempo y el
+ * método de DAO y de servicio que la ejecutó.
+ *
+ * Los envoltorios delegan con llamadas directas (sin reflexión): leer columnas no pasa por ninguna medición y
+ * por debajo del umbral solo se toman dos System.nanoTime() por ejecución y por fila leída.
+ * La pila de llamadas y el texto se arman únicamente para las sentencias lentas. Las entradas pasan por una
+ * cola acotada que vacía un hilo aparte hacia db.slowQuery.file (vacío = System.err); si la cola está llena
+ * se descartan y se cuentan. Por defecto (-1) está apagado y las conexiones se entregan sin envolver.
+ */
+public final class SlowQueryLog {
+
+    private static final long THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(
+            DatabaseConnection.getLongProperty("db.slowQuery.thresholdMs", -1L));
+    private static final boolean ENABLED = THRESHOLD_NANOS >= 0;
+    private static final boolean MASK_STRINGS = DatabaseConnection.getBooleanProperty("db.slowQuery.maskStrings", true);
+    private static final int QUEUE_CAPACITY = Math.max(1, DatabaseConnection.getIntProperty("db.slowQuery.queueSize", 1024));
+    private static final int MAX_SQL_LENGTH = 2000;
+
+    private static final String BASE_PACKAGE = "com.mycompany.trabajo.practico.integrador.p2.";
+    private static final StackWalker WALKER = StackWalker.getInstance();
+
+    private static final BlockingQueue<String> QUEUE = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private static final AtomicLong DROPPED = new AtomicLong();
+    private static volatile Thread writer;
+
+    private SlowQueryLog() {
+    }
+
+    /**
+     * Devuelve la conexión envuelta para medir sus sentencias, o la misma conexión si el registro está apagado.
+     */
+    public static Connection wrap(Connection conn) {
+        if (!ENABLED || conn == null || conn instanceof TimedConnection) {
+            return conn;
+        }
+        return new TimedConnection(conn);
+    }
+
+    /**
+     * Conexión real detrás de wrap(); el pool solo reconoce las conexiones que prestó.
+     */
+    public static Connection unwrap(Connection conn) {
+        return conn instanceof TimedConnection ? ((TimedConnection) conn).target : conn;
+    }
+
+    public static long getDroppedCount() {
+        return DROPPED.get();
+    }
+
+    static boolean isSlow(long elapsedNanos) {
+        return elapsedNanos > THRESHOLD_NANOS;
+    }
+
+    /**
+     * Arma la entrada de una ejecución lenta (rows = -1 si no se conocen).
+     */
+    static void record(String sql, long elapsedNanos, long rows, int batchCount, Object[] parameters, int parameterCount) {
+        StringBuilder sb = new StringBuilder(256);
+        sb.append(LocalDateTime.now()).append(" SLOW ").append(elapsedNanos / 1_000_000).append(" ms");
+        if (rows >= 0) {
+            sb.append(" rows=").append(rows);
+        }
+        if (batchCount > 0) {
+            sb.append(" batch=").append(batchCount);
+        }
+        sb.append(" caller=").append(callSite()).append(System.lineSeparator());
+
+        String text = sql.replaceAll("\\s+", " ").trim();
+        sb.append("  sql: ").append(text.length() > MAX_SQL_LENGTH ? text.substring(0, MAX_SQL_LENGTH) + "..." : text)
+                .append(System.lineSeparator());
+        sb.append("  params").append(batchCount > 0 ? " (last batch row)" : "").append(": [");
+        for (int i = 0; i < parameterCount; i++) {
+            sb.append(i == 0 ? "" : ", ").append(format(parameters[i]));
+        }
+        enqueue(sb.append(']').toString());
+    }
+
+    // Primer método de DAO y primer método de servicio en la pila (solo para sentencias lentas)
+    private static String callSite() {
+        return WALKER.walk(frames -> {
+            String dao = null;
+            String service = null;
+            for (StackWalker.StackFrame frame : (Iterable<StackWalker.StackFrame>) frames::iterator) {
+                String className = frame.getClassName();
+                // Los lambdas (UnitOfWork, ShardRouter) no dicen qué operación era: se sigue hasta el método que los creó
+                if (!className.startsWith(BASE_PACKAGE) || frame.getMethodName().startsWith("lambda$")) {
+                    continue;
+                }
+                String simple = className.substring(className.lastIndexOf('.') + 1) + "." + frame.getMethodName();
+                if (dao == null && className.startsWith(BASE_PACKAGE + "daos.")) {
+                    dao = simple;
+                } else if (className.startsWith(BASE_PACKAGE + "services.")) {
+                    service = simple;
+                    break;
+                }
+            }
+            if (dao == null && service == null) {
+                return "unknown";
+            }
+            return dao == null ? service : service == null ? dao : dao + " <- " + service;
+        });
+    }
+
+    private static String format(Object value) {
+        if (value == null) {
+            return "NULL";
+        }
+        if (value instanceof CharSequence) {
+            String text = value.toString();
+            return MASK_STRINGS ? "'***'(" + text.length() + " chars)" : "'" + text + "'";
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof java.time.temporal.Temporal
+                || value instanceof java.util.Date) {
+            return value.toString();
+        }
+        return value.getClass().getSimpleName();
+    }
+
+    private static void enqueue(String entry) {
+        if (writer == null) {
+            startWriter();
+        }
+        if (!QUEUE.offer(entry)) {
+            DROPPED.incrementAndGet();
+        }
+    }
+
+    private static synchronized void startWriter() {
+        if (writer != null) {
+            return;
+        }
+        Thread t = new Thread(SlowQueryLog::drain, "slow-query-log");
+        t.setDaemon(true);
+        t.start();
+        // Al salir, escribir lo que quedó en la cola
+        Runtime.getRuntime().addShutdownHook(new Thread(SlowQueryLog::flush, "slow-query-log-flush"));
+        writer = t;
+    }
+
+    private static void drain() {
+        while (true) {
+            try {
+                String entry = QUEUE.take();
+                StringBuilder batch = new StringBuilder(entry).append(System.lineSeparator());
+                String next;
+                while ((next = QUEUE.poll()) != null) {
+                    batch.append(next).append(System.lineSeparator());
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private static synchronized void flush() {
+        StringBuilder batch = new StringBuilder();
+        String next;
+        while ((next = QUEUE.poll()) != null) {
+            batch.append(next).append(System.lineSeparator());
+        }
+        if (batch.length() > 0) {
+            write(batch);
+        }
+    }
+
+    private static synchronized void write(CharSequence batch) {
+        long dropped = DROPPED.getAndSet(0);
+        String text = dropped > 0
+                ? batch + "(" + dropped + " slow query entries dropped: log queue full)" + System.lineSeparator()
+                : batch.toString();
+
+        String file = DatabaseConnection.getProperty("db.slowQuery.file", "");
+        if (file.isEmpty()) {
+            System.err.print(text);
+            return;
+        }
+        try (PrintWriter out = new PrintWriter(new FileWriter(file, true))) {
+            out.print(text);
+        } catch (IOException e) {
+            System.err.println("Error writing slow query log: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.mycompany.trabajo.practico.integrador.p2.diagnostics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Conexión de ensayo: registra el SQL y los parámetros de cada sentencia que preparan los DAOs
+ * sin ejecutar nada contra la base. Las consultas devuelven un ResultSet vacío y las escrituras
+ * 0 filas, así que los DAOs pueden terminar con excepción; lo que interesa es lo ya registrado.
+ */
+final class SqlCapture {
+
+    private final List<CapturedStatement> statements = new ArrayList<>();
+    private String label;
+    private int labelCount;
+
+    /**
+     * Registra las sentencias siguientes bajo la etiqueta dada (p. ej. "VehicleDao.findByDomain").
+     */
+    void begin(String label) {
+        this.label = label;
+        this.labelCount = 0;
+    }
+
+    List<CapturedStatement> getStatements() {
+        return Collections.unmodifiableList(statements);
+    }
+
+    Connection connection() {
+        return proxy(Connection.class, (proxy, method, args) -> {
+            if (method.getName().equals("prepareStatement")) {
+                labelCount++;
+                CapturedStatement captured = new CapturedStatement(
+                        labelCount == 1 ? label : label + "#" + labelCount, (String) args[0]);
+                statements.add(captured);
+                return statement(captured);
+            }
+            if (method.getName().equals("createStatement")) {
+                // Sin SQL para planificar: sentencia que no hace nada y devuelve resultados vacíos
+                return plainStatement();
+            }
+            return defaultValue(method);
+        });
+    }
+
+    private static Statement plainStatement() {
+        return proxy(Statement.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "executeQuery":
+                case "getGeneratedKeys":
+                case "getResultSet":
+                    return emptyResultSet();
+                case "executeBatch":
+                    return new int[0];
+                case "executeLargeBatch":
+                    return new long[0];
+                default:
+                    return defaultValue(method);
+            }
+        });
+    }
+
+    private static PreparedStatement statement(CapturedStatement captured) {
+        return proxy(PreparedStatement.class, (proxy, method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer
+                    && !captured.frozen) {
+                captured.parameters.put((Integer) args[0], name.equals("setNull") ? null : args[1]);
+                return null;
+            }
+            switch (name) {
+                case "addBatch":
+                    // Del lote se conserva solo la primera fila de parámetros
+                    captured.frozen = true;
+                    return null;
+                case "executeQuery":
+                case "getGeneratedKeys":
+                case "getResultSet":
+                    return emptyResultSet();
+                case "executeBatch":
+                    return new int[0];
+                case "executeLargeBatch":
+                    return new long[0];
+                default:
+                    return defaultValue(method);
+            }
+        });
+    }
+
+    private static ResultSet emptyResultSet() {
+        return proxy(ResultSet.class, (proxy, method, args) -> {
+            // Los mappers resuelven los índices de columna antes de leer filas
+            if (method.getName().equals("findColumn")) {
+                return 1;
+            }
+            return defaultValue(method);
+        });
+    }
+
+    // Cero, false o null según el tipo: cualquier otro método de JDBC no hace nada
+    private static Object defaultValue(Method method) {
+        Class<?> type = method.getReturnType();
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == double.class) {
+            return 0.0;
+        }
+        if (type == float.class) {
+            return 0.0f;
+        }
+        if (type == short.class) {
+            return (short) 0;
+        }
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+        if (type == char.class) {
+            return '\0';
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(SqlCapture.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    static final class CapturedStatement {
+        private final String id;
+        private final String sql;
+        private final Map<Integer, Object> parameters = new TreeMap<>();
+        private boolean frozen;
+
+        private CapturedStatement(String id, String sql) {
+            this.id = id;
+            this.sql = sql;
+        }
+
+        String getId() { return id; }
+        String getSql() { return sql; }
+        Map<Integer, Object> getParameters() { return parameters; }
+    }
+}
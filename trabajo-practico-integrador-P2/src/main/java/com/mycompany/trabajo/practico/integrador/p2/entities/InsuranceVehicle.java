@@ -12,6 +12,7 @@ public class InsuranceVehicle {
     private String policyNumber;
     private CoverType cover;
     private LocalDate expirationDate;
+    private Long version = 0L; // Versión leída (control de concurrencia optimista)
 
     // Constructor vacío
     public InsuranceVehicle() {
@@ -41,6 +42,18 @@ public class InsuranceVehicle {
         this.expirationDate = expirationDate;
     }
 
+    // Constructor de copia
+    public InsuranceVehicle(InsuranceVehicle other) {
+        this.id = other.id;
+        this.isActive = other.isActive;
+        this.vehicleId = other.vehicleId;
+        this.insuranceName = other.insuranceName;
+        this.policyNumber = other.policyNumber;
+        this.cover = other.cover;
+        this.expirationDate = other.expirationDate;
+        this.version = other.version;
+    }
+
     // Getters y Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -63,6 +76,9 @@ public class InsuranceVehicle {
     public LocalDate getExpirationDate() { return expirationDate; }
     public void setExpirationDate(LocalDate expirationDate) { this.expirationDate = expirationDate; }
 
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
     @Override
     public String toString() {
         return String.format("InsuranceVehicle{id=%d, insuranceName='%s', policyNumber='%s', " +
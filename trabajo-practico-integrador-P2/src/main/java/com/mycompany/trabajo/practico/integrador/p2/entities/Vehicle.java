@@ -1,5 +1,7 @@
 package com.mycompany.trabajo.practico.integrador.p2.entities;
 
+import java.util.Locale;
+
 public class Vehicle {
 
     private Long vehicleId;
@@ -10,6 +12,7 @@ public class Vehicle {
     private Integer year;
     private String chassisNumber;
     private InsuranceVehicle insurance; // Referencia 1→1
+    private Long version = 0L; // Versión leída (control de concurrencia optimista)
 
     // Constructor vacío
     public Vehicle() {
@@ -39,6 +42,25 @@ public class Vehicle {
         this.chassisNumber = chassisNumber;
     }
 
+    // Constructor de copia (copia también el seguro)
+    public Vehicle(Vehicle other) {
+        this.vehicleId = other.vehicleId;
+        this.isActive = other.isActive;
+        this.domain = other.domain;
+        this.brand = other.brand;
+        this.model = other.model;
+        this.year = other.year;
+        this.chassisNumber = other.chassisNumber;
+        this.insurance = other.insurance != null ? new InsuranceVehicle(other.insurance) : null;
+        this.version = other.version;
+    }
+
+    // Forma canónica de una patente (mayúsculas con Locale.ROOT, sin depender del idioma de la JVM):
+    // la que se guarda, se busca, se usa como clave de caché y elige el shard
+    public static String normalizeDomain(String domain) {
+        return domain.toUpperCase(Locale.ROOT);
+    }
+
     // Getters y Setters
     public Long getVehicleId() { return vehicleId; }
     public void setVehicleId(Long vehicleId) { this.vehicleId = vehicleId; }
@@ -64,6 +86,9 @@ public class Vehicle {
     public InsuranceVehicle getInsurance() { return insurance; }
     public void setInsurance(InsuranceVehicle insurance) { this.insurance = insurance; }
 
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
     @Override
     public String toString() {
         String insuranceInfo = insurance != null
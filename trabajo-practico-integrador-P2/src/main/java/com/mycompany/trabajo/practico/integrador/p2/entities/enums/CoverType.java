@@ -1,10 +1,24 @@
 package com.mycompany.trabajo.practico.integrador.p2.entities.enums;
 
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
 public enum CoverType {
     RC("RC"),
     TERCEROS("Contra terceros"),
     TODO_RIESGO("Todo_riesgo");
 
+    // Tabla precalculada: la descripción exacta (como la devuelve el ENUM de MySQL) y en minúsculas
+    private static final Map<String, CoverType> BY_DESCRIPTION = new HashMap<>();
+
+    static {
+        for (CoverType cover : values()) {
+            BY_DESCRIPTION.put(cover.description, cover);
+            BY_DESCRIPTION.put(cover.description.toLowerCase(Locale.ROOT), cover);
+        }
+    }
+
     private final String description;
 
     CoverType(String description) {
@@ -14,4 +28,18 @@ public enum CoverType {
     public String getDescription() {
         return description;
     }
+
+    public static CoverType fromDescription(String description) {
+        if (description == null) {
+            throw new IllegalArgumentException("Cobertura inválida: null");
+        }
+        CoverType cover = BY_DESCRIPTION.get(description);
+        if (cover == null) {
+            cover = BY_DESCRIPTION.get(description.toLowerCase(Locale.ROOT));
+        }
+        if (cover == null) {
+            throw new IllegalArgumentException("Cobertura inválida: " + description);
+        }
+        return cover;
+    }
 }
@@ -1,7 +1,19 @@
 package com.mycompany.trabajo.practico.integrador.p2.exceptions;
 
 public class DuplicateEntityException extends Exception {
+    // Columna UNIQUE que rechazó el alta (null si no se pudo determinar)
+    private final String column;
+
     public DuplicateEntityException(String message) {
-        super(message);
+        this(message, null, null);
+    }
+
+    public DuplicateEntityException(String message, String column, Throwable cause) {
+        super(message, cause);
+        this.column = column;
+    }
+
+    public String getColumn() {
+        return column;
     }
 }
@@ -0,0 +1,31 @@
+package com.mycompany.trabajo.practico.integrador.p2.exceptions;
+
+/**
+ * El registro cambió (o se dio de baja) desde que se leyó: su columna version ya no coincide.
+ * Hay que volver a leerlo y repetir la modificación sobre los datos actuales.
+ */
+public class OptimisticLockException extends Exception {
+    private final String entity;
+    private final Long id;
+    private final Long expectedVersion;
+
+    public OptimisticLockException(String entity, Long id, Long expectedVersion) {
+        super(entity + " with ID " + id + " was modified by another user (expected version " +
+                expectedVersion + "). Reload it and try again.");
+        this.entity = entity;
+        this.id = id;
+        this.expectedVersion = expectedVersion;
+    }
+
+    public String getEntity() {
+        return entity;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getExpectedVersion() {
+        return expectedVersion;
+    }
+}
@@ -0,0 +1,90 @@
+package com.mycompany.trabajo.practico.integrador.p2.metrics;
+
+import com.mycompany.trabajo.practico.integrador.p2.config.DatabaseConnection;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registro central de métricas por operación.
+ * Cada operación se publica por JMX (com.mycompany.trabajo.practico.integrador.p2:type=Operation,name=...)
+ * y, si metrics.log.intervalMs > 0, se vuelca periódicamente en metrics.log.file (o System.err).
+ */
+public final class Metrics {
+
+    private static final String JMX_DOMAIN = "com.mycompany.trabajo.practico.integrador.p2";
+    private static final Map<String, OperationMetrics> OPERATIONS = new ConcurrentHashMap<>();
+
+    static {
+        long interval = DatabaseConnection.getLongProperty("metrics.log.intervalMs", 0L);
+        if (interval > 0) {
+            ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "metrics-reporter");
+                t.setDaemon(true);
+                return t;
+            });
+            reporter.scheduleAtFixedRate(Metrics::logSnapshot, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private Metrics() {
+    }
+
+    public static OperationMetrics operation(String name) {
+        return OPERATIONS.computeIfAbsent(name, Metrics::register);
+    }
+
+    public static String snapshot() {
+        StringBuilder sb = new StringBuilder();
+        for (OperationMetrics metrics : new TreeMap<>(OPERATIONS).values()) {
+            if (metrics.getCalls() > 0) {
+                sb.append(metrics).append(System.lineSeparator());
+            }
+        }
+        return sb.toString();
+    }
+
+    private static OperationMetrics register(String name) {
+        OperationMetrics metrics = new OperationMetrics(name);
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(JMX_DOMAIN + ":type=Operation,name=" + ObjectName.quote(name));
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(metrics, objectName);
+            }
+        } catch (Exception e) {
+            System.err.println("Could not register JMX metrics for " + name + ": " + e.getMessage());
+        }
+        return metrics;
+    }
+
+    private static void logSnapshot() {
+        String snapshot = snapshot();
+        if (snapshot.isEmpty()) {
+            return;
+        }
+
+        String file = DatabaseConnection.getProperty("metrics.log.file", "");
+        String header = "=== Metrics " + LocalDateTime.now() + " ===" + System.lineSeparator();
+        if (file.isEmpty()) {
+            System.err.print(header + snapshot);
+            return;
+        }
+        try (PrintWriter out = new PrintWriter(new FileWriter(file, true))) {
+            out.print(header + snapshot);
+        } catch (IOException e) {
+            System.err.println("Error writing metrics log: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.mycompany.trabajo.practico.integrador.p2.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas de una operación: llamadas, errores, filas devueltas/afectadas e histograma de latencia.
+ * Se obtiene una sola vez con {@link Metrics#operation(String)} y se guarda en un campo estático,
+ * así registrar una llamada no busca en mapas ni asigna memoria.
+ */
+public class OperationMetrics implements OperationMetricsMXBean {
+
+    private final String name;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    public void record(long startNanos, boolean success) {
+        record(startNanos, success, 0);
+    }
+
+    public void record(long startNanos, boolean success, long rowCount) {
+        latency.record(System.nanoTime() - startNanos);
+        calls.increment();
+        if (!success) {
+            errors.increment();
+        }
+        if (rowCount > 0) {
+            rows.add(rowCount);
+        }
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    @Override
+    public String getName() { return name; }
+
+    @Override
+    public long getCalls() { return calls.sum(); }
+
+    @Override
+    public long getErrors() { return errors.sum(); }
+
+    @Override
+    public long getRows() { return rows.sum(); }
+
+    @Override
+    public long getMeanMicros() { return latency.getMean() / 1000; }
+
+    @Override
+    public long getP50Micros() { return latency.getPercentile(50) / 1000; }
+
+    @Override
+    public long getP95Micros() { return latency.getPercentile(95) / 1000; }
+
+    @Override
+    public long getP99Micros() { return latency.getPercentile(99) / 1000; }
+
+    @Override
+    public long getMaxMicros() { return latency.getMax() / 1000; }
+
+    @Override
+    public String toString() {
+        return String.format("%-45s calls=%-8d errors=%-6d rows=%-10d p50=%dus p95=%dus p99=%dus max=%dus",
+                name, getCalls(), getErrors(), getRows(),
+                getP50Micros(), getP95Micros(), getP99Micros(), getMaxMicros());
+    }
+}
@@ -0,0 +1,16 @@
+package com.mycompany.trabajo.practico.integrador.p2.metrics;
+
+/**
+ * Vista JMX de las métricas de una operación (latencias en microsegundos).
+ */
+public interface OperationMetricsMXBean {
+    String getName();
+    long getCalls();
+    long getErrors();
+    long getRows();
+    long getMeanMicros();
+    long getP50Micros();
+    long getP95Micros();
+    long getP99Micros();
+    long getMaxMicros();
+}
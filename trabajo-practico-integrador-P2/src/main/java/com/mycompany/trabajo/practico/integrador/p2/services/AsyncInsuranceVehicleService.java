@@ -0,0 +1,48 @@
+package com.mycompany.trabajo.practico.integrador.p2.services;
+
+import com.mycompany.trabajo.practico.integrador.p2.entities.InsuranceVehicle;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+public class AsyncInsuranceVehicleService extends AsyncService<InsuranceVehicle> {
+
+    private final InsuranceVehicleService insuranceService;
+
+    public AsyncInsuranceVehicleService() {
+        this(new InsuranceVehicleService());
+    }
+
+    public AsyncInsuranceVehicleService(InsuranceVehicleService insuranceService) {
+        super(insuranceService);
+        this.insuranceService = insuranceService;
+    }
+
+    public CompletableFuture<Void> insertAll(List<InsuranceVehicle> insurances) {
+        return AsyncSupport.supply(() -> {
+            insuranceService.insertAll(insurances);
+            return null;
+        });
+    }
+
+    public CompletableFuture<InsuranceVehicle> findByVehicleId(Long vehicleId) {
+        return AsyncSupport.supply(() -> insuranceService.findByVehicleId(vehicleId));
+    }
+
+    public CompletableFuture<InsuranceVehicle> findByPolicyNumber(String policyNumber) {
+        return AsyncSupport.supply(() -> insuranceService.findByPolicyNumber(policyNumber));
+    }
+
+    /**
+     * Busca el seguro activo de varios vehículos en paralelo; los vehículos sin seguro no aparecen en el mapa.
+     */
+    public CompletableFuture<Map<Long, InsuranceVehicle>> findByVehicleIds(Collection<Long> vehicleIds) {
+        return AsyncSupport.gather(vehicleIds, this::findByVehicleId);
+    }
+
+    public CompletableFuture<Map<String, InsuranceVehicle>> findByPolicyNumbers(Collection<String> policyNumbers) {
+        return AsyncSupport.supply(() -> insuranceService.findByPolicyNumbers(policyNumbers));
+    }
+}
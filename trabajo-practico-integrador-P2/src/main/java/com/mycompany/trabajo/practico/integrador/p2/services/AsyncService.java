@@ -0,0 +1,59 @@
+package com.mycompany.trabajo.practico.integrador.p2.services;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Contraparte no bloqueante de un {@link GenericService}: cada llamada corre en el ejecutor
+ * compartido (hilos virtuales si están disponibles) y devuelve un CompletableFuture.
+ */
+public class AsyncService<T> {
+
+    protected final GenericService<T> service;
+
+    public AsyncService(GenericService<T> service) {
+        this.service = service;
+    }
+
+    public CompletableFuture<Void> insert(T entity) {
+        return AsyncSupport.supply(() -> {
+            service.insert(entity);
+            return null;
+        });
+    }
+
+    public CompletableFuture<T> getById(Long id) {
+        return AsyncSupport.supply(() -> service.getById(id));
+    }
+
+    public CompletableFuture<List<T>> getAll() {
+        return AsyncSupport.supply(service::getAll);
+    }
+
+    public CompletableFuture<List<T>> getPage(Long afterId, int limit) {
+        return AsyncSupport.supply(() -> service.getPage(afterId, limit));
+    }
+
+    public CompletableFuture<Void> update(T entity) {
+        return AsyncSupport.supply(() -> {
+            service.update(entity);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> delete(Long id) {
+        return AsyncSupport.supply(() -> {
+            service.delete(id);
+            return null;
+        });
+    }
+
+    /**
+     * Busca varios IDs con las consultas IN por bloques del servicio. El mapa conserva el orden de los IDs recibidos.
+     */
+    public CompletableFuture<Map<Long, T>> getByIds(Collection<Long> ids) {
+        return AsyncSupport.supply(() -> service.getByIds(ids));
+    }
+}
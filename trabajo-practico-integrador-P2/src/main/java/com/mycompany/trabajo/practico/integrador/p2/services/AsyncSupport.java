@@ -0,0 +1,95 @@
+package com.mycompany.trabajo.practico.integrador.p2.services;
+
+import com.mycompany.trabajo.practico.integrador.p2.config.DatabaseConnection;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Ejecutor compartido por los servicios asíncronos.
+ * Usa hilos virtuales cuando la JVM los ofrece (Java 21+) y si no un pool fijo de hilos daemon.
+ * Un semáforo limita las llamadas simultáneas a la capacidad del pool de conexiones, así un
+ * fan-out de cientos de claves espera su turno en lugar de agotar el tiempo de db.pool.acquireTimeoutMs.
+ */
+final class AsyncSupport {
+
+    private static final int MAX_CONCURRENCY = Math.max(1, DatabaseConnection.getIntProperty("async.maxConcurrency",
+            DatabaseConnection.getIntProperty("db.pool.maxSize", 10)));
+    private static final Semaphore PERMITS = new Semaphore(MAX_CONCURRENCY, true);
+    private static final ExecutorService EXECUTOR = createExecutor();
+
+    private AsyncSupport() {
+    }
+
+    static <T> CompletableFuture<T> supply(Callable<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        EXECUTOR.execute(() -> {
+            try {
+                PERMITS.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.completeExceptionally(e);
+                return;
+            }
+            try {
+                future.complete(call.call());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            } finally {
+                PERMITS.release();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Lanza una búsqueda por clave (sin repetir claves) y junta los resultados en el orden recibido.
+     * Las claves sin resultado (null) quedan fuera del mapa; si alguna búsqueda falla, falla el conjunto.
+     */
+    static <K, V> CompletableFuture<Map<K, V>> gather(Collection<K> keys, Function<K, CompletableFuture<V>> lookup) {
+        List<K> distinct = new ArrayList<>(new LinkedHashSet<>(keys));
+        List<CompletableFuture<V>> futures = new ArrayList<>(distinct.size());
+        for (K key : distinct) {
+            futures.add(lookup.apply(key));
+        }
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> {
+                    Map<K, V> results = new LinkedHashMap<>();
+                    for (int i = 0; i < distinct.size(); i++) {
+                        V value = futures.get(i).join();
+                        if (value != null) {
+                            results.put(distinct.get(i), value);
+                        }
+                    }
+                    return results;
+                });
+    }
+
+    private static ExecutorService createExecutor() {
+        // El proyecto compila con release 17: los hilos virtuales se obtienen por reflexión si existen
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            AtomicInteger counter = new AtomicInteger();
+            return Executors.newFixedThreadPool(MAX_CONCURRENCY, r -> {
+                Thread t = new Thread(r, "async-service-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.mycompany.trabajo.practico.integrador.p2.services;
+
+import com.mycompany.trabajo.practico.integrador.p2.entities.Vehicle;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+public class AsyncVehicleService extends AsyncService<Vehicle> {
+
+    private final VehicleService vehicleService;
+
+    public AsyncVehicleService() {
+        this(new VehicleService());
+    }
+
+    public AsyncVehicleService(VehicleService vehicleService) {
+        super(vehicleService);
+        this.vehicleService = vehicleService;
+    }
+
+    public CompletableFuture<Void> insertAll(List<Vehicle> vehicles) {
+        return AsyncSupport.supply(() -> {
+            vehicleService.insertAll(vehicles);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Vehicle> findByDomain(String domain) {
+        return AsyncSupport.supply(() -> vehicleService.findByDomain(domain));
+    }
+
+    /**
+     * Busca varias patentes con consultas IN por bloques; las que no existen no aparecen en el mapa.
+     */
+    public CompletableFuture<Map<String, Vehicle>> findByDomains(Collection<String> domains) {
+        return AsyncSupport.supply(() -> vehicleService.findByDomains(domains));
+    }
+}
@@ -0,0 +1,94 @@
+package com.mycompany.trabajo.practico.integrador.p2.services;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Escritor de texto UTF-8 sobre un FileChannel con un único buffer directo reutilizado
+ * (opcionalmente comprimido con gzip). La memoria usada no depende de cuánto se escriba.
+ */
+final class ChannelTextWriter implements Closeable {
+
+    private final WritableByteChannel channel;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final ByteBuffer buffer;
+    private long bytesWritten;
+    private boolean closed;
+
+    private ChannelTextWriter(WritableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    static ChannelTextWriter open(Path file, boolean gzip, int bufferSize) throws IOException {
+        FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        if (!gzip) {
+            return new ChannelTextWriter(fileChannel, bufferSize);
+        }
+
+        // Compresión rápida: la exportación debe quedar limitada por E/S y no por CPU
+        GZIPOutputStream out = new GZIPOutputStream(Channels.newOutputStream(fileChannel), bufferSize) {
+            {
+                def.setLevel(Deflater.BEST_SPEED);
+            }
+        };
+        return new ChannelTextWriter(Channels.newChannel(out), bufferSize);
+    }
+
+    void write(CharSequence text) throws IOException {
+        CharBuffer chars = CharBuffer.wrap(text);
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, false);
+            if (result.isOverflow()) {
+                drain();
+            } else if (result.isUnderflow()) {
+                return;
+            } else {
+                result.throwException();
+            }
+        }
+    }
+
+    /**
+     * Bytes escritos en el canal (sin comprimir cuando se usa gzip).
+     */
+    long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            encoder.encode(CharBuffer.allocate(0), buffer, true);
+            encoder.flush(buffer);
+            drain();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            bytesWritten += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
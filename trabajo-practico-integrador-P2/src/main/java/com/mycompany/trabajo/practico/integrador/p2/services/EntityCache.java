@@ -0,0 +1,165 @@
+package com.mycompany.trabajo.practico.integrador.p2.services;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+/**
+ * Caché en memoria acotada para las búsquedas de los servicios.
+ * Expulsa por LRU al superar el tamaño máximo y descarta las entradas vencidas por TTL.
+ * Con un copiador, guarda y entrega copias: modificar lo devuelto por get() no altera la caché.
+ */
+public class EntityCache<K, V> {
+
+    private final String name;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final UnaryOperator<V> copier;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public EntityCache(String name, int maxSize, long ttlMillis) {
+        this(name, maxSize, ttlMillis, UnaryOperator.identity());
+    }
+
+    public EntityCache(String name, int maxSize, long ttlMillis, UnaryOperator<V> copier) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.copier = copier;
+        // accessOrder = true: el primer elemento es siempre el menos usado recientemente
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public V get(K key) {
+        if (key == null || maxSize <= 0) {
+            return null;
+        }
+
+        V value;
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            if (System.nanoTime() - entry.createdAt > ttlNanos) {
+                entries.remove(key);
+                expirations.incrementAndGet();
+                misses.incrementAndGet();
+                return null;
+            }
+            hits.incrementAndGet();
+            value = entry.value;
+        }
+        return copier.apply(value);
+    }
+
+    /**
+     * Consulta sin contar aciertos/fallos ni copiar (para invalidaciones: no modificar el resultado).
+     */
+    public V peek(K key) {
+        if (key == null) {
+            return null;
+        }
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            return entry != null ? entry.value : null;
+        }
+    }
+
+    public void put(K key, V value) {
+        put(key, value, stamp());
+    }
+
+    /**
+     * Marca a tomar antes de leer de la base un valor que después se pasará a put(key, value, stamp).
+     */
+    public long stamp() {
+        return invalidations.get();
+    }
+
+    /**
+     * Guarda el valor solo si no hubo invalidaciones desde stamp(): una lectura que empezó antes de un
+     * cambio confirmado no vuelve a dejar en la caché los datos (y la versión) anteriores.
+     */
+    public void put(K key, V value, long stamp) {
+        if (key == null || value == null || maxSize <= 0) {
+            return;
+        }
+
+        Entry<V> entry = new Entry<>(copier.apply(value), System.nanoTime());
+        synchronized (entries) {
+            if (invalidations.get() != stamp) {
+                return;
+            }
+            entries.put(key, entry);
+
+            Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+            while (entries.size() > maxSize && it.hasNext()) {
+                it.next();
+                it.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    public void invalidate(K key) {
+        if (key == null) {
+            return;
+        }
+        synchronized (entries) {
+            invalidations.incrementAndGet();
+            entries.remove(key);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            invalidations.incrementAndGet();
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHits() { return hits.get(); }
+    public long getMisses() { return misses.get(); }
+    public long getEvictions() { return evictions.get(); }
+    public long getExpirations() { return expirations.get(); }
+
+    public double getHitRatio() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0.0 : (double) hits.get() / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("EntityCache{name='%s', size=%d/%d, hits=%d, misses=%d, hitRatio=%.2f, " +
+                        "evictions=%d, expirations=%d}",
+                name, size(), maxSize, hits.get(), misses.get(), getHitRatio(),
+                evictions.get(), expirations.get());
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long createdAt;
+
+        private Entry(V value, long createdAt) {
+            this.value = value;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -1,11 +1,25 @@
 package com.mycompany.trabajo.practico.integrador.p2.services;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public interface GenericService<T> {
     void insert(T entity) throws Exception;
     T getById(Long id) throws Exception;
+    // Búsqueda masiva: mapa ID → entidad en el orden recibido (los IDs inexistentes no aparecen)
+    Map<Long, T> getByIds(Collection<Long> ids) throws Exception;
     List<T> getAll() throws Exception;
     void update(T entity) throws Exception;
     void delete(Long id) throws Exception;
+
+    // Variantes paginadas / en streaming de getAll (memoria acotada a una página)
+    List<T> getPage(Long afterId, int limit) throws Exception;
+    void getAll(Consumer<T> consumer) throws Exception;
+    Stream<T> streamAll();
+
+    // Recorrido completo en una sola consulta sobre una conexión dedicada (memoria independiente del tamaño de la tabla)
+    void scanAll(Consumer<T> consumer) throws Exception;
 }
@@ -1,263 +1,684 @@
 package com.mycompany.trabajo.practico.integrador.p2.services;
 
 import com.mycompany.trabajo.practico.integrador.p2.config.DatabaseConnection;
+import com.mycompany.trabajo.practico.integrador.p2.config.RetryPolicy;
+import com.mycompany.trabajo.practico.integrador.p2.config.ShardRouter;
+import com.mycompany.trabajo.practico.integrador.p2.config.UnitOfWork;
 import com.mycompany.trabajo.practico.integrador.p2.daos.InsuranceVehicleDao;
 import com.mycompany.trabajo.practico.integrador.p2.daos.VehicleDao;
 import com.mycompany.trabajo.practico.integrador.p2.entities.InsuranceVehicle;
-import com.mycompany.trabajo.practico.integrador.p2.entities.Vehicle;
 import com.mycompany.trabajo.practico.integrador.p2.exceptions.DatabaseException;
-import com.mycompany.trabajo.practico.integrador.p2.exceptions.DuplicateEntityException;
+import com.mycompany.trabajo.practico.integrador.p2.exceptions.OptimisticLockException;
 import com.mycompany.trabajo.practico.integrador.p2.exceptions.ValidationException;
+import com.mycompany.trabajo.practico.integrador.p2.metrics.Metrics;
+import com.mycompany.trabajo.practico.integrador.p2.metrics.OperationMetrics;
 
 import java.sql.Connection;
-import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Con varios shards (ShardRouter) cada seguro vive en el shard de su vehículo: las búsquedas por ID o por
+ * vehículo van a un solo shard y las búsquedas por póliza y los listados consultan todos en paralelo.
+ */
 public class InsuranceVehicleService implements GenericService<InsuranceVehicle> {
 
+    private static final int PAGE_SIZE = DatabaseConnection.getIntProperty("db.pageSize", 500);
+    private static final int BATCH_SIZE = DatabaseConnection.getIntProperty("db.batch.size", 1000);
+    private static final Comparator<InsuranceVehicle> BY_ID = Comparator.comparing(InsuranceVehicle::getId);
+
+    private static final OperationMetrics INSERT = Metrics.operation("InsuranceVehicleService.insert");
+    private static final OperationMetrics INSERT_ALL = Metrics.operation("InsuranceVehicleService.insertAll");
+    private static final OperationMetrics GET_BY_ID = Metrics.operation("InsuranceVehicleService.getById");
+    private static final OperationMetrics GET_ALL = Metrics.operation("InsuranceVehicleService.getAll");
+    private static final OperationMetrics GET_PAGE = Metrics.operation("InsuranceVehicleService.getPage");
+    private static final OperationMetrics STREAM_ALL = Metrics.operation("InsuranceVehicleService.getAll(Consumer)");
+    private static final OperationMetrics SCAN_ALL = Metrics.operation("InsuranceVehicleService.scanAll");
+    private static final OperationMetrics UPDATE = Metrics.operation("InsuranceVehicleService.update");
+    private static final OperationMetrics DELETE = Metrics.operation("InsuranceVehicleService.delete");
+    private static final OperationMetrics FIND_BY_VEHICLE_ID = Metrics.operation("InsuranceVehicleService.findByVehicleId");
+    private static final OperationMetrics FIND_BY_POLICY_NUMBER = Metrics.operation("InsuranceVehicleService.findByPolicyNumber");
+    private static final OperationMetrics GET_BY_IDS = Metrics.operation("InsuranceVehicleService.getByIds");
+    private static final OperationMetrics FIND_BY_POLICY_NUMBERS = Metrics.operation("InsuranceVehicleService.findByPolicyNumbers");
+
+    // Reintento ante deadlock / espera de bloqueo: cada transacción se puede repetir completa
+    private static final RetryPolicy INSERT_RETRY = RetryPolicy.idempotent("InsuranceVehicleService.insert");
+    private static final RetryPolicy INSERT_ALL_RETRY = RetryPolicy.idempotent("InsuranceVehicleService.insertAll");
+    private static final RetryPolicy UPDATE_RETRY = RetryPolicy.idempotent("InsuranceVehicleService.update");
+    private static final RetryPolicy DELETE_RETRY = RetryPolicy.idempotent("InsuranceVehicleService.delete");
+
+    // Caché compartida por todas las instancias: seguros por ID e índices póliza → ID y vehículo → ID
+    // (guarda y entrega copias, así las ediciones de quien llama no quedan en la caché)
+    private static final EntityCache<Long, InsuranceVehicle> INSURANCE_CACHE = new EntityCache<>("insurance.byId",
+            DatabaseConnection.getIntProperty("cache.maxSize", 10_000),
+            DatabaseConnection.getLongProperty("cache.ttlMs", 300_000L), InsuranceVehicle::new);
+    private static final EntityCache<String, Long> POLICY_INDEX = new EntityCache<>("insurance.byPolicyNumber",
+            DatabaseConnection.getIntProperty("cache.maxSize", 10_000),
+            DatabaseConnection.getLongProperty("cache.ttlMs", 300_000L));
+    private static final EntityCache<Long, Long> VEHICLE_INDEX = new EntityCache<>("insurance.byVehicleId",
+            DatabaseConnection.getIntProperty("cache.maxSize", 10_000),
+            DatabaseConnection.getLongProperty("cache.ttlMs", 300_000L));
+
     private InsuranceVehicleDao insuranceDao = new InsuranceVehicleDao();
     private VehicleDao vehicleDao = new VehicleDao();
 
+    @Override
+    public void insert(InsuranceVehicle insurance) throws Exception {
+        long start = System.nanoTime();
+        boolean ok = false;
+        try {
+            doInsert(insurance);
+            ok = true;
+        } finally {
+            INSERT.record(start, ok);
+        }
+    }
 
-    public void insertWithConnection(InsuranceVehicle insurance, Connection conn) throws Exception {
+    private void doInsert(InsuranceVehicle insurance) throws Exception {
         validateInsurance(insurance);
 
-        // Verificar que el vehículo existe
-        Vehicle vehicle = vehicleDao.findVehicleById(insurance.getVehicleId(), conn);
-        if (vehicle == null) {
-            throw new ValidationException("Vehicle with ID " + insurance.getVehicleId() + " does not exist.");
+        ShardRouter.run(shardOf(insurance), () -> UnitOfWork.run(INSERT_RETRY, conn -> {
+            createAndLink(insurance, conn);
+            UnitOfWork.afterCommit(() -> {
+                evictForVehicle(insurance.getVehicleId());
+                POLICY_INDEX.invalidate(insurance.getPolicyNumber());
+            });
+        }));
+        System.out.println("Insurance created successfully with ID: " + insurance.getId());
+        System.out.println("Vehicle updated with insurance reference.");
+    }
+
+    /**
+     * Alta masiva de seguros: valida el lote completo, inserta en bloques de db.batch.size
+     * y vincula cada seguro a su vehículo con un UPDATE por lotes, confirmando bloque por bloque.
+     */
+    public void insertAll(List<InsuranceVehicle> insurances) throws Exception {
+        long start = System.nanoTime();
+        boolean ok = false;
+        try {
+            doInsertAll(insurances);
+            ok = true;
+        } finally {
+            INSERT_ALL.record(start, ok);
         }
+    }
 
-        // Verificar que el vehículo no tenga ya un seguro (regla 1→1)
-        InsuranceVehicle existing = insuranceDao.findByVehicleId(insurance.getVehicleId(), conn);
-        if (existing != null) {
-            throw new ValidationException("Vehicle already has an insurance policy assigned. Remove it first.");
+    private void doInsertAll(List<InsuranceVehicle> insurances) throws Exception {
+        if (insurances == null || insurances.isEmpty()) {
+            throw new ValidationException("Insurance list cannot be empty.");
         }
 
-        // Verificar que no exista otra póliza con el mismo número
-        InsuranceVehicle duplicatePolicy = insuranceDao.findByPolicyNumber(insurance.getPolicyNumber(), conn);
-        if (duplicatePolicy != null) {
-            throw new ValidationException("Policy number '" + insurance.getPolicyNumber() + "' already exists.");
+        for (int i = 0; i < insurances.size(); i++) {
+            try {
+                validateInsurance(insurances.get(i));
+            } catch (ValidationException e) {
+                throw new ValidationException("Insurance #" + (i + 1) + ": " + e.getMessage());
+            }
         }
 
-        insuranceDao.create(insurance, conn);
-        System.out.println("Insurance created successfully with ID: " + insurance.getId());
+        // Cada bloque de un shard es su propia transacción; dentro de una UnitOfWork abierta se suman todos a ella
+        boolean joined = UnitOfWork.isActive();
+        int written = 0;
+        try {
+            for (Map.Entry<Integer, List<InsuranceVehicle>> group :
+                    ShardRouter.groupByShard(insurances, InsuranceVehicleService::shardOf).entrySet()) {
+                List<InsuranceVehicle> shardInsurances = group.getValue();
+                for (int from = 0; from < shardInsurances.size(); from += BATCH_SIZE) {
+                    List<InsuranceVehicle> chunk = shardInsurances.subList(from, Math.min(from + BATCH_SIZE, shardInsurances.size()));
+                    ShardRouter.run(group.getKey(), () -> UnitOfWork.run(INSERT_ALL_RETRY, conn -> {
+                        insuranceDao.createAll(chunk, conn);
+
+                        List<Long> notLinked = vehicleDao.linkInsurances(chunk, conn);
+                        if (!notLinked.isEmpty()) {
+                            throw new ValidationException("Vehicles " + notLinked +
+                                    " do not exist or already have an insurance policy assigned.");
+                        }
+
+                        UnitOfWork.afterCommit(() -> {
+                            for (InsuranceVehicle insurance : chunk) {
+                                evictForVehicle(insurance.getVehicleId());
+                            }
+                        });
+                    }));
+                    written += chunk.size();
+                }
+            }
+        } catch (Exception e) {
+            if (!joined && written > 0) {
+                System.err.println("Insurances already committed: " + written);
+            }
+            throw e;
+        }
+
+        System.out.println(written + " insurances created successfully.");
     }
 
     @Override
-    public void insert(InsuranceVehicle insurance) throws Exception {
-        validateInsurance(insurance);
-
-        Connection conn = null;
+    public InsuranceVehicle getById(Long id) throws Exception {
+        long start = System.nanoTime();
+        boolean ok = false;
         try {
-            conn = DatabaseConnection.getConnection();
-            conn.setAutoCommit(false);
+            InsuranceVehicle result = doGetById(id);
+            ok = true;
+            return result;
+        } finally {
+            GET_BY_ID.record(start, ok);
+        }
+    }
 
-            // Verificar que el vehículo existe
-            Vehicle vehicle = vehicleDao.findVehicleById(insurance.getVehicleId(), conn);
-            if (vehicle == null) {
-                throw new ValidationException("Vehicle with ID " + insurance.getVehicleId() + " does not exist.");
-            }
+    private InsuranceVehicle doGetById(Long id) throws Exception {
+        if (id == null || id <= 0) {
+            throw new ValidationException("Invalid insurance ID.");
+        }
 
-            // Verificar que el vehículo no tenga ya un seguro
-            InsuranceVehicle existing = insuranceDao.findByVehicleId(insurance.getVehicleId(), conn);
-            if (existing != null) {
-                throw new ValidationException("Vehicle already has an insurance policy assigned. Remove it first.");
-            }
+        InsuranceVehicle cached = INSURANCE_CACHE.get(id);
+        if (cached != null) {
+            return cached;
+        }
 
-            // Verificar que no exista otra póliza con el mismo número
-            InsuranceVehicle duplicatePolicy = insuranceDao.findByPolicyNumber(insurance.getPolicyNumber(), conn);
-            if (duplicatePolicy != null) {
-                throw new DuplicateEntityException("Policy number '" + insurance.getPolicyNumber() + "' already exists.");
+        long stamp = INSURANCE_CACHE.stamp();
+        InsuranceVehicle insurance = ShardRouter.call(ShardRouter.shardForId(id), () -> {
+            Connection conn = null;
+            try {
+                conn = DatabaseConnection.getReadConnection();
+                return insuranceDao.findVehicleById(id, conn);
+            } finally {
+                DatabaseConnection.closeConnection(conn);
             }
+        });
 
-            // Crear el seguro
-            insuranceDao.create(insurance, conn);
+        if (insurance == null) {
+            throw new DatabaseException("Insurance with ID " + id + " not found.");
+        }
 
-            //Actualizar el vehículo con la FK del seguro
-            vehicle.setInsurance(insurance);
-            vehicleDao.update(vehicle, conn);
+        cacheInsurance(insurance, stamp);
+        return insurance;
+    }
 
-            conn.commit();
-            System.out.println("Insurance created successfully with ID: " + insurance.getId());
-            System.out.println("Vehicle updated with insurance reference.");
+    @Override
+    public List<InsuranceVehicle> getAll() throws Exception {
+        long start = System.nanoTime();
+        boolean ok = false;
+        int rows = 0;
+        try {
+            List<InsuranceVehicle> result = doGetAll();
+            ok = true;
+            rows = result.size();
+            return result;
+        } finally {
+            GET_ALL.record(start, ok, rows);
+        }
+    }
 
-        } catch (Exception e) {
-            if (conn != null) {
-                try {
-                    conn.rollback();
-                    System.err.println("Transaction rolled back due to error.");
-                } catch (SQLException ex) {
-                    System.err.println("Error during rollback: " + ex.getMessage());
-                }
+    private List<InsuranceVehicle> doGetAll() throws Exception {
+        // Cada shard devuelve sus seguros ordenados por ID; se mezclan en un solo orden
+        List<List<InsuranceVehicle>> parts = ShardRouter.fanOut(() -> {
+            Connection conn = null;
+            try {
+                conn = DatabaseConnection.getReadConnection();
+                return insuranceDao.readAll(conn);
+            } finally {
+                DatabaseConnection.closeConnection(conn);
             }
-            throw e;
+        });
+        return ShardRouter.mergeOrdered(parts, BY_ID);
+    }
+
+    @Override
+    public List<InsuranceVehicle> getPage(Long afterId, int limit) throws Exception {
+        long start = System.nanoTime();
+        boolean ok = false;
+        int rows = 0;
+        try {
+            List<InsuranceVehicle> result = doGetPage(afterId, limit);
+            ok = true;
+            rows = result.size();
+            return result;
         } finally {
-            if (conn != null) {
-                try {
-                    conn.setAutoCommit(true);
-                    DatabaseConnection.closeConnection(conn);
-                } catch (SQLException e) {
-                    System.err.println("Error restoring autocommit: " + e.getMessage());
-                }
-            }
+            GET_PAGE.record(start, ok, rows);
         }
     }
 
-    @Override
-    public InsuranceVehicle getById(Long id) throws Exception {
-        if (id == null || id <= 0) {
-            throw new ValidationException("Invalid insurance ID.");
+    private List<InsuranceVehicle> doGetPage(Long afterId, int limit) throws Exception {
+        if (limit <= 0) {
+            throw new ValidationException("Page size must be greater than zero.");
         }
 
-        Connection conn = null;
+        // La página global son los primeros limit IDs entre las páginas de cada shard
+        List<List<InsuranceVehicle>> parts = ShardRouter.fanOut(() -> {
+            Connection conn = null;
+            try {
+                conn = DatabaseConnection.getReadConnection();
+                return insuranceDao.readPage(afterId, limit, conn);
+            } finally {
+                DatabaseConnection.closeConnection(conn);
+            }
+        });
+        List<InsuranceVehicle> merged = ShardRouter.mergeOrdered(parts, BY_ID);
+        return merged.size() > limit ? new ArrayList<>(merged.subList(0, limit)) : merged;
+    }
+
+    @Override
+    public void getAll(Consumer<InsuranceVehicle> consumer) throws Exception {
+        long start = System.nanoTime();
+        boolean ok = false;
         try {
-            conn = DatabaseConnection.getConnection();
-            InsuranceVehicle insurance = insuranceDao.findVehicleById(id, conn);
+            doStreamAll(consumer);
+            ok = true;
+        } finally {
+            STREAM_ALL.record(start, ok);
+        }
+    }
 
-            if (insurance == null) {
-                throw new DatabaseException("Insurance with ID " + id + " not found.");
-            }
+    private void doStreamAll(Consumer<InsuranceVehicle> consumer) throws Exception {
+        if (ShardRouter.isSharded()) {
+            // Un cursor por shard, mezclados en orden de ID
+            ShardRouter.forEachOrdered(this::readShardPage, InsuranceVehicle::getId, PAGE_SIZE, consumer);
+            return;
+        }
 
-            return insurance;
+        Connection conn = null;
+        try {
+            conn = DatabaseConnection.getReadConnection();
+            insuranceDao.stream(consumer, conn);
         } finally {
             DatabaseConnection.closeConnection(conn);
         }
     }
 
-    @Override
-    public List<InsuranceVehicle> getAll() throws Exception {
+    // Página del shard actual con su propia conexión del pool (cursores de ShardRouter.forEachOrdered/streamOrdered)
+    private List<InsuranceVehicle> readShardPage(Long afterId, int limit) throws Exception {
         Connection conn = null;
         try {
-            conn = DatabaseConnection.getConnection();
-            return insuranceDao.readAll(conn);
+            conn = DatabaseConnection.getReadConnection();
+            return insuranceDao.readPage(afterId, limit, conn);
         } finally {
             DatabaseConnection.closeConnection(conn);
         }
     }
 
+    @Override
+    public void scanAll(Consumer<InsuranceVehicle> consumer) throws Exception {
+        long start = System.nanoTime();
+        boolean ok = false;
+        try {
+            doScanAll(consumer);
+            ok = true;
+        } finally {
+            SCAN_ALL.record(start, ok);
+        }
+    }
+
+    private void doScanAll(Consumer<InsuranceVehicle> consumer) throws Exception {
+        // Shard por shard: el orden por ID se respeta dentro de cada shard, no entre shards
+        for (int shard = 0; shard < ShardRouter.getShardCount(); shard++) {
+            ShardRouter.run(shard, () -> {
+                // Conexión fuera del pool: queda ocupada por el ResultSet hasta terminar el recorrido
+                try (Connection conn = DatabaseConnection.openStreamingConnection()) {
+                    insuranceDao.scanAll(consumer, conn);
+                }
+            });
+        }
+    }
+
+    @Override
+    public Stream<InsuranceVehicle> streamAll() {
+        // Cada página toma y devuelve su propia conexión del pool; con varios shards, un cursor por shard
+        // (no getPage, que leería N páginas para entregar una)
+        return ShardRouter.streamOrdered(this::readShardPage, InsuranceVehicle::getId, PAGE_SIZE);
+    }
+
     @Override
     public void update(InsuranceVehicle insurance) throws Exception {
+        long start = System.nanoTime();
+        boolean ok = false;
+        try {
+            doUpdate(insurance);
+            ok = true;
+        } finally {
+            UPDATE.record(start, ok);
+        }
+    }
+
+    private void doUpdate(InsuranceVehicle insurance) throws Exception {
         validateInsuranceToUpdate(insurance);
 
         if (insurance.getId() == null) {
             throw new ValidationException("Insurance ID is required for update.");
         }
+        if (insurance.getVersion() == null) {
+            throw new ValidationException("Insurance version is required for update.");
+        }
 
-        Connection conn = null;
+        evictInsurance(insurance.getId());
+
+        Long readVersion = insurance.getVersion();
         try {
-            conn = DatabaseConnection.getConnection();
-            conn.setAutoCommit(false);
+            ShardRouter.run(ShardRouter.shardForId(insurance.getId()), () -> UnitOfWork.run(UPDATE_RETRY, conn -> {
+                // Cada intento parte de la versión leída (un intento revertido pudo haberla incrementado)
+                insurance.setVersion(readVersion);
+
+                // Un seguro inexistente o dado de baja no afecta filas, uno modificado por otro usuario
+                // lanza OptimisticLockException y una póliza repetida la rechaza la clave UNIQUE (DuplicateEntityException)
+                insuranceDao.update(insurance, conn);
+                UnitOfWork.afterCommit(() -> {
+                    evictInsurance(insurance.getId());
+                    POLICY_INDEX.invalidate(insurance.getPolicyNumber());
+                });
+            }));
+        } catch (OptimisticLockException e) {
+            // Lo que haya en caché tiene la versión vieja: la próxima lectura va a la base
+            evictInsurance(insurance.getId());
+            throw e;
+        }
+        System.out.println("Insurance updated successfully.");
+    }
 
-            // Verificar que el seguro existe
-            InsuranceVehicle existing = insuranceDao.findVehicleById(insurance.getId(), conn);
-            if (existing == null) {
-                throw new DatabaseException("Insurance with ID " + insurance.getId() + " not found.");
+    @Override
+    public void delete(Long id) throws Exception {
+        long start = System.nanoTime();
+        boolean ok = false;
+        try {
+            doDelete(id);
+            ok = true;
+        } finally {
+            DELETE.record(start, ok);
+        }
+    }
+
+    private void doDelete(Long id) throws Exception {
+        if (id == null || id <= 0) {
+            throw new ValidationException("Invalid insurance ID.");
+        }
+
+        ShardRouter.run(ShardRouter.shardForId(id), () -> UnitOfWork.run(DELETE_RETRY, conn -> {
+            // Baja condicional (isActive = true): un seguro inexistente o ya dado de baja no afecta filas
+            insuranceDao.delete(id, conn);
+            UnitOfWork.afterCommit(() -> evictInsurance(id));
+        }));
+        System.out.println("Insurance deleted successfully (logical deletion).");
+    }
+
+    public InsuranceVehicle findByVehicleId(Long vehicleId) throws Exception {
+        long start = System.nanoTime();
+        boolean ok = false;
+        try {
+            InsuranceVehicle result = doFindByVehicleId(vehicleId);
+            ok = true;
+            return result;
+        } finally {
+            FIND_BY_VEHICLE_ID.record(start, ok);
+        }
+    }
+
+    private InsuranceVehicle doFindByVehicleId(Long vehicleId) throws Exception {
+        if (vehicleId == null || vehicleId <= 0) {
+            throw new ValidationException("Invalid vehicle ID.");
+        }
+
+        Long cachedId = VEHICLE_INDEX.get(vehicleId);
+        if (cachedId != null) {
+            InsuranceVehicle cached = INSURANCE_CACHE.get(cachedId);
+            if (cached != null && vehicleId.equals(cached.getVehicleId())) {
+                return cached;
             }
+        }
 
-            // Verificar que no haya otra póliza con el mismo número
-            InsuranceVehicle duplicatePolicy = insuranceDao.findByPolicyNumber(insurance.getPolicyNumber(), conn);
-            if (duplicatePolicy != null && !duplicatePolicy.getId().equals(insurance.getId())) {
-                throw new ValidationException("Another insurance with policy number '" + insurance.getPolicyNumber() + "' already exists.");
+        long stamp = INSURANCE_CACHE.stamp();
+        InsuranceVehicle insurance = ShardRouter.call(ShardRouter.shardForId(vehicleId), () -> {
+            Connection conn = null;
+            try {
+                conn = DatabaseConnection.getReadConnection();
+                return insuranceDao.findByVehicleId(vehicleId, conn);
+            } finally {
+                DatabaseConnection.closeConnection(conn);
             }
+        });
+        if (insurance != null) {
+            insurance.setVehicleId(vehicleId);
+            cacheInsurance(insurance, stamp);
+        }
+        return insurance;
+    }
 
-            insuranceDao.update(insurance, conn);
+    public InsuranceVehicle findByPolicyNumber(String policyNumber) throws Exception {
+        long start = System.nanoTime();
+        boolean ok = false;
+        try {
+            InsuranceVehicle result = doFindByPolicyNumber(policyNumber);
+            ok = true;
+            return result;
+        } finally {
+            FIND_BY_POLICY_NUMBER.record(start, ok);
+        }
+    }
 
-            conn.commit();
-            System.out.println("Insurance updated successfully.");
+    private InsuranceVehicle doFindByPolicyNumber(String policyNumber) throws Exception {
+        if (policyNumber == null || policyNumber.trim().isEmpty()) {
+            throw new ValidationException("Policy number cannot be empty.");
+        }
 
-        } catch (Exception e) {
-            if (conn != null) {
-                try {
-                    conn.rollback();
-                    System.err.println("Transaction rolled back due to error.");
-                } catch (SQLException ex) {
-                    System.err.println("Error during rollback: " + ex.getMessage());
-                }
+        Long cachedId = POLICY_INDEX.get(policyNumber);
+        if (cachedId != null) {
+            InsuranceVehicle cached = INSURANCE_CACHE.get(cachedId);
+            if (cached != null && policyNumber.equals(cached.getPolicyNumber())) {
+                return cached;
             }
-            throw e;
-        } finally {
-            if (conn != null) {
-                try {
-                    conn.setAutoCommit(true);
-                    DatabaseConnection.closeConnection(conn);
-                } catch (SQLException e) {
-                    System.err.println("Error restoring autocommit: " + e.getMessage());
-                }
+        }
+
+        // La póliza no indica el shard: se consulta en todos en paralelo
+        long stamp = INSURANCE_CACHE.stamp();
+        List<InsuranceVehicle> parts = ShardRouter.fanOut(() -> {
+            Connection conn = null;
+            try {
+                conn = DatabaseConnection.getReadConnection();
+                return insuranceDao.findByPolicyNumber(policyNumber, conn);
+            } finally {
+                DatabaseConnection.closeConnection(conn);
+            }
+        });
+        for (InsuranceVehicle insurance : parts) {
+            if (insurance != null) {
+                cacheInsurance(insurance, stamp);
+                return insurance;
             }
         }
+        return null;
     }
 
-    @Override
-    public void delete(Long id) throws Exception {
-        if (id == null || id <= 0) {
-            throw new ValidationException("Invalid insurance ID.");
+    /**
+     * Alta en dos sentencias: INSERT del seguro (la clave UNIQUE rechaza pólizas repetidas) y
+     * UPDATE condicional del vehículo, que solo vincula si existe, está activo y no tiene seguro activo.
+     */
+    private void createAndLink(InsuranceVehicle insurance, Connection conn) throws Exception {
+        insuranceDao.create(insurance, conn);
+
+        if (!vehicleDao.linkInsurance(insurance.getVehicleId(), insurance.getId(), conn)) {
+            throw new ValidationException("Vehicle with ID " + insurance.getVehicleId() +
+                    " does not exist or already has an insurance policy assigned.");
         }
+    }
 
-        Connection conn = null;
+    /**
+     * Búsqueda masiva por ID: primero la caché, el resto en consultas IN por bloques.
+     * El mapa conserva el orden de los IDs recibidos; los inexistentes no aparecen.
+     */
+    @Override
+    public Map<Long, InsuranceVehicle> getByIds(Collection<Long> ids) throws Exception {
+        long start = System.nanoTime();
+        boolean ok = false;
+        int rows = 0;
         try {
-            conn = DatabaseConnection.getConnection();
-            conn.setAutoCommit(false);
-
-            // Verificar que el seguro existe
-            InsuranceVehicle existing = insuranceDao.findVehicleById(id, conn);
-            if (existing == null) {
-                throw new DatabaseException("Insurance with ID " + id + " not found.");
-            }
+            Map<Long, InsuranceVehicle> result = doGetByIds(ids);
+            ok = true;
+            rows = result.size();
+            return result;
+        } finally {
+            GET_BY_IDS.record(start, ok, rows);
+        }
+    }
 
-            insuranceDao.delete(id, conn);
+    private Map<Long, InsuranceVehicle> doGetByIds(Collection<Long> ids) throws Exception {
+        if (ids == null) {
+            throw new ValidationException("Insurance ID list cannot be null.");
+        }
 
-            conn.commit();
-            System.out.println("Insurance deleted successfully (logical deletion).");
+        Map<Long, InsuranceVehicle> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            if (id == null || id <= 0) {
+                throw new ValidationException("Invalid insurance ID: " + id + ".");
+            }
+            InsuranceVehicle cached = INSURANCE_CACHE.get(id);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
 
-        } catch (Exception e) {
-            if (conn != null) {
+        if (!missing.isEmpty()) {
+            // Cada shard recibe solo sus IDs, en paralelo
+            long stamp = INSURANCE_CACHE.stamp();
+            Map<Integer, List<Long>> byShard = ShardRouter.groupByShard(missing, ShardRouter::shardForId);
+            List<Map<Long, InsuranceVehicle>> parts = ShardRouter.fanOut(byShard.keySet(), () -> {
+                Connection conn = null;
                 try {
-                    conn.rollback();
-                    System.err.println("Transaction rolled back due to error.");
-                } catch (SQLException ex) {
-                    System.err.println("Error during rollback: " + ex.getMessage());
+                    conn = DatabaseConnection.getReadConnection();
+                    return insuranceDao.findByIds(byShard.get(ShardRouter.currentShard()), conn);
+                } finally {
+                    DatabaseConnection.closeConnection(conn);
+                }
+            });
+            for (Map<Long, InsuranceVehicle> part : parts) {
+                for (InsuranceVehicle insurance : part.values()) {
+                    cacheInsurance(insurance, stamp);
+                    found.put(insurance.getId(), insurance);
                 }
             }
-            throw e;
+        }
+
+        Map<Long, InsuranceVehicle> result = new LinkedHashMap<>();
+        for (Long id : ids) {
+            InsuranceVehicle insurance = found.get(id);
+            if (insurance != null) {
+                result.put(id, insurance);
+            }
+        }
+        return result;
+    }
+
+    public Map<String, InsuranceVehicle> findByPolicyNumbers(Collection<String> policyNumbers) throws Exception {
+        long start = System.nanoTime();
+        boolean ok = false;
+        int rows = 0;
+        try {
+            Map<String, InsuranceVehicle> result = doFindByPolicyNumbers(policyNumbers);
+            ok = true;
+            rows = result.size();
+            return result;
         } finally {
-            if (conn != null) {
+            FIND_BY_POLICY_NUMBERS.record(start, ok, rows);
+        }
+    }
+
+    private Map<String, InsuranceVehicle> doFindByPolicyNumbers(Collection<String> policyNumbers) throws Exception {
+        if (policyNumbers == null) {
+            throw new ValidationException("Policy number list cannot be null.");
+        }
+
+        Map<String, InsuranceVehicle> found = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String policyNumber : policyNumbers) {
+            if (policyNumber == null || policyNumber.trim().isEmpty()) {
+                throw new ValidationException("Policy number cannot be empty.");
+            }
+            Long cachedId = POLICY_INDEX.get(policyNumber);
+            InsuranceVehicle cached = cachedId != null ? INSURANCE_CACHE.get(cachedId) : null;
+            if (cached != null && policyNumber.equals(cached.getPolicyNumber())) {
+                found.put(policyNumber, cached);
+            } else {
+                missing.add(policyNumber);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            // Las pólizas no indican el shard: todas se buscan en todos los shards, en paralelo
+            long stamp = INSURANCE_CACHE.stamp();
+            List<Map<String, InsuranceVehicle>> parts = ShardRouter.fanOut(() -> {
+                Connection conn = null;
                 try {
-                    conn.setAutoCommit(true);
+                    conn = DatabaseConnection.getReadConnection();
+                    return insuranceDao.findByPolicyNumbers(missing, conn);
+                } finally {
                     DatabaseConnection.closeConnection(conn);
-                } catch (SQLException e) {
-                    System.err.println("Error restoring autocommit: " + e.getMessage());
+                }
+            });
+            for (Map<String, InsuranceVehicle> part : parts) {
+                for (InsuranceVehicle insurance : part.values()) {
+                    cacheInsurance(insurance, stamp);
+                    found.put(insurance.getPolicyNumber(), insurance);
                 }
             }
         }
-    }
 
-    public InsuranceVehicle findByVehicleId(Long vehicleId) throws Exception {
-        if (vehicleId == null || vehicleId <= 0) {
-            throw new ValidationException("Invalid vehicle ID.");
+        Map<String, InsuranceVehicle> result = new LinkedHashMap<>();
+        for (String policyNumber : policyNumbers) {
+            InsuranceVehicle insurance = found.get(policyNumber);
+            if (insurance != null) {
+                result.put(policyNumber, insurance);
+            }
         }
+        return result;
+    }
 
-        Connection conn = null;
-        try {
-            conn = DatabaseConnection.getConnection();
-            return insuranceDao.findByVehicleId(vehicleId, conn);
-        } finally {
-            DatabaseConnection.closeConnection(conn);
-        }
+    public static String getCacheStats() {
+        return INSURANCE_CACHE + System.lineSeparator() + POLICY_INDEX + System.lineSeparator() + VEHICLE_INDEX;
     }
 
-    public InsuranceVehicle findByPolicyNumber(String policyNumber) throws Exception {
-        if (policyNumber == null || policyNumber.trim().isEmpty()) {
-            throw new ValidationException("Policy number cannot be empty.");
+    /**
+     * Invalida un seguro. Como los vehículos en caché incluyen su seguro, también se invalidan
+     * (solo el vehículo asociado si se conoce, o toda la caché de vehículos si no).
+     */
+    static void evictInsurance(Long insuranceId) {
+        InsuranceVehicle cached = INSURANCE_CACHE.peek(insuranceId);
+        INSURANCE_CACHE.invalidate(insuranceId);
+
+        if (cached != null && cached.getVehicleId() != null) {
+            VehicleService.evictVehicle(cached.getVehicleId());
+        } else {
+            VehicleService.evictAllVehicles();
         }
+    }
 
-        Connection conn = null;
-        try {
-            conn = DatabaseConnection.getConnection();
-            return insuranceDao.findByPolicyNumber(policyNumber, conn);
-        } finally {
-            DatabaseConnection.closeConnection(conn);
+    private static void evictForVehicle(Long vehicleId) {
+        VEHICLE_INDEX.invalidate(vehicleId);
+        VehicleService.evictVehicle(vehicleId);
+    }
+
+    // El seguro vive en el shard de su vehículo
+    private static int shardOf(InsuranceVehicle insurance) {
+        return ShardRouter.shardForId(insurance.getVehicleId());
+    }
+
+    // stamp: INSURANCE_CACHE.stamp() tomado antes de consultar la base
+    private static void cacheInsurance(InsuranceVehicle insurance, long stamp) {
+        // Lo leído dentro de una UnitOfWork puede no confirmarse nunca
+        if (UnitOfWork.isActive()) {
+            return;
+        }
+        INSURANCE_CACHE.put(insurance.getId(), insurance, stamp);
+        POLICY_INDEX.put(insurance.getPolicyNumber(), insurance.getId());
+        if (insurance.getVehicleId() != null) {
+            VEHICLE_INDEX.put(insurance.getVehicleId(), insurance.getId());
         }
     }
 
@@ -299,7 +720,7 @@ public class InsuranceVehicleService implements GenericService<InsuranceVehicle>
         }
     }
 
-    private void validateInsuranceToUpdate(InsuranceVehicle insurance) throws ValidationException {
+    void validateInsuranceToUpdate(InsuranceVehicle insurance) throws ValidationException {
         if (insurance == null) {
             throw new ValidationException("Insurance cannot be null.");
         }
@@ -0,0 +1,189 @@
+package com.mycompany.trabajo.practico.integrador.p2.services;
+
+import com.mycompany.trabajo.practico.integrador.p2.config.DatabaseConnection;
+import com.mycompany.trabajo.practico.integrador.p2.entities.InsuranceVehicle;
+import com.mycompany.trabajo.practico.integrador.p2.entities.Vehicle;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+/**
+ * Exportación completa de los vehículos activos con su seguro (como la vista active_vehicles,
+ * incluyendo los vehículos sin seguro) a CSV o JSON Lines, opcionalmente comprimida con gzip.
+ *
+ * Las filas llegan de VehicleService.scanAll (una sola consulta en streaming) y se escriben
+ * a medida que llegan, así la memoria no crece con la cantidad de vehículos.
+ * El CSV usa las mismas columnas que el comando import, precedidas por vehicle_id.
+ */
+public class VehicleExportService {
+
+    private static final int BUFFER_SIZE = DatabaseConnection.getIntProperty("export.bufferSize", 256 * 1024);
+    private static final String CSV_HEADER =
+            "vehicle_id,domain,brand,model,year,chassis_number,insurance_name,policy_number,cover,expire_date\n";
+
+    public enum Format { CSV, JSONL }
+
+    private final VehicleService vehicleService = new VehicleService();
+
+    public ExportResult export(Path file, Format format, boolean gzip) throws Exception {
+        long start = System.nanoTime();
+        ExportResult result = new ExportResult();
+        StringBuilder line = new StringBuilder(256);
+
+        ChannelTextWriter writer = ChannelTextWriter.open(file, gzip, BUFFER_SIZE);
+        try (writer) {
+            if (format == Format.CSV) {
+                writer.write(CSV_HEADER);
+            }
+
+            try {
+                vehicleService.scanAll(vehicle -> {
+                    line.setLength(0);
+                    if (format == Format.CSV) {
+                        appendCsv(line, vehicle);
+                    } else {
+                        appendJson(line, vehicle);
+                    }
+                    try {
+                        writer.write(line);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    result.rows++;
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+        // Después de cerrar: incluye lo que quedaba en el búfer
+        result.bytes = writer.getBytesWritten();
+
+        result.elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("Export finished: " + result);
+        return result;
+    }
+
+    private static void appendCsv(StringBuilder line, Vehicle vehicle) {
+        InsuranceVehicle insurance = vehicle.getInsurance();
+        line.append(vehicle.getVehicleId()).append(',');
+        appendCsvField(line, vehicle.getDomain()).append(',');
+        appendCsvField(line, vehicle.getBrand()).append(',');
+        appendCsvField(line, vehicle.getModel()).append(',');
+        if (vehicle.getYear() != null) {
+            line.append(vehicle.getYear());
+        }
+        line.append(',');
+        appendCsvField(line, vehicle.getChassisNumber()).append(',');
+        if (insurance != null) {
+            appendCsvField(line, insurance.getInsuranceName()).append(',');
+            appendCsvField(line, insurance.getPolicyNumber()).append(',');
+            appendCsvField(line, insurance.getCover() != null ? insurance.getCover().getDescription() : null).append(',');
+            if (insurance.getExpirationDate() != null) {
+                line.append(insurance.getExpirationDate());
+            }
+        } else {
+            line.append(",,,");
+        }
+        line.append('\n');
+    }
+
+    // Entre comillas solo si hace falta; "" representa una comilla (lo que espera el comando import)
+    private static StringBuilder appendCsvField(StringBuilder line, String value) {
+        if (value == null) {
+            return line;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            return line.append(value);
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        return line.append('"');
+    }
+
+    private static void appendJson(StringBuilder line, Vehicle vehicle) {
+        InsuranceVehicle insurance = vehicle.getInsurance();
+        line.append("{\"vehicleId\":").append(vehicle.getVehicleId());
+        line.append(",\"domain\":");
+        appendJsonString(line, vehicle.getDomain());
+        line.append(",\"brand\":");
+        appendJsonString(line, vehicle.getBrand());
+        line.append(",\"model\":");
+        appendJsonString(line, vehicle.getModel());
+        line.append(",\"year\":").append(vehicle.getYear());
+        line.append(",\"chassisNumber\":");
+        appendJsonString(line, vehicle.getChassisNumber());
+        line.append(",\"insurance\":");
+        if (insurance == null) {
+            line.append("null");
+        } else {
+            line.append("{\"id\":").append(insurance.getId());
+            line.append(",\"insuranceName\":");
+            appendJsonString(line, insurance.getInsuranceName());
+            line.append(",\"policyNumber\":");
+            appendJsonString(line, insurance.getPolicyNumber());
+            line.append(",\"cover\":");
+            appendJsonString(line, insurance.getCover() != null ? insurance.getCover().getDescription() : null);
+            line.append(",\"expirationDate\":");
+            appendJsonString(line, insurance.getExpirationDate() != null ? insurance.getExpirationDate().toString() : null);
+            line.append('}');
+        }
+        line.append("}\n");
+    }
+
+    private static void appendJsonString(StringBuilder line, String value) {
+        if (value == null) {
+            line.append("null");
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': line.append("\\\""); break;
+                case '\\': line.append("\\\\"); break;
+                case '\n': line.append("\\n"); break;
+                case '\r': line.append("\\r"); break;
+                case '\t': line.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+            }
+        }
+        line.append('"');
+    }
+
+    public static class ExportResult {
+        private long rows;
+        private long bytes;
+        private long elapsedMillis;
+
+        public long getRows() { return rows; }
+        public long getBytes() { return bytes; }
+        public long getElapsedMillis() { return elapsedMillis; }
+
+        public double getRowsPerSecond() {
+            return elapsedMillis == 0 ? rows : rows * 1000.0 / elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ExportResult{rows=%d, bytes=%d, elapsed=%d ms, rate=%.0f rows/s}",
+                    rows, bytes, elapsedMillis, getRowsPerSecond());
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.mycompany.trabajo.practico.integrador.p2.services;
+
+import com.mycompany.trabajo.practico.integrador.p2.config.DatabaseConnection;
+import com.mycompany.trabajo.practico.integrador.p2.config.RetryPolicy;
+import com.mycompany.trabajo.practico.integrador.p2.config.ShardRouter;
+import com.mycompany.trabajo.practico.integrador.p2.config.UnitOfWork;
+import com.mycompany.trabajo.practico.integrador.p2.daos.InsuranceVehicleDao;
+import com.mycompany.trabajo.practico.integrador.p2.daos.VehicleDao;
+import com.mycompany.trabajo.practico.integrador.p2.entities.InsuranceVehicle;
+import com.mycompany.trabajo.practico.integrador.p2.entities.Vehicle;
+import com.mycompany.trabajo.practico.integrador.p2.entities.enums.CoverType;
+import com.mycompany.trabajo.practico.integrador.p2.exceptions.ValidationException;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Importación masiva no interactiva de vehículos (con seguro opcional) desde un CSV.
+ *
+ * Formato (con encabezado opcional):
+ * domain,brand,model,year,chassis_number,insurance_name,policy_number,cover,expire_date
+ *
+ * El archivo se procesa en bloques: cada bloque se valida en paralelo mientras el bloque
+ * anterior se escribe en la base, así la memoria queda acotada a dos bloques.
+ * Las filas rechazadas se escriben en un reporte CSV con el número de línea y el motivo.
+ */
+public class VehicleImportService {
+
+    // Un bloque que cae en deadlock se repite antes de pasar a la importación fila por fila
+    private static final RetryPolicy WRITE_RETRY = RetryPolicy.idempotent("VehicleImportService.write");
+    private static final int CHUNK_SIZE = DatabaseConnection.getIntProperty("import.chunkSize",
+            DatabaseConnection.getIntProperty("db.batch.size", 1000));
+    private static final int COLUMNS = 9;
+
+    private final VehicleService vehicleService = new VehicleService();
+    private final InsuranceVehicleService insuranceService = new InsuranceVehicleService();
+    private final VehicleDao vehicleDao = new VehicleDao();
+    private final InsuranceVehicleDao insuranceDao = new InsuranceVehicleDao();
+
+    public ImportResult importCsv(Path csvFile, Path reportFile) throws Exception {
+        long start = System.nanoTime();
+        ImportResult result = new ImportResult();
+        ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "vehicle-import-writer");
+            t.setDaemon(true);
+            return t;
+        });
+
+        try (BufferedReader reader = Files.newBufferedReader(csvFile, StandardCharsets.UTF_8);
+             BufferedWriter report = Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8)) {
+
+            report.write("line,reason,row");
+            report.newLine();
+
+            Future<?> pendingWrite = null;
+            List<RawLine> chunk = new ArrayList<>(CHUNK_SIZE);
+            String line;
+            long lineNumber = 0;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty() || (lineNumber == 1 && line.toLowerCase(Locale.ROOT).startsWith("domain"))) {
+                    continue;
+                }
+                chunk.add(new RawLine(lineNumber, line));
+
+                if (chunk.size() == CHUNK_SIZE) {
+                    pendingWrite = submitChunk(chunk, writer, pendingWrite, report, result);
+                    chunk = new ArrayList<>(CHUNK_SIZE);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                pendingWrite = submitChunk(chunk, writer, pendingWrite, report, result);
+            }
+            if (pendingWrite != null) {
+                pendingWrite.get();
+            }
+        } finally {
+            writer.shutdown();
+        }
+
+        result.elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("Import finished: " + result);
+        return result;
+    }
+
+    private Future<?> submitChunk(List<RawLine> chunk, ExecutorService writer, Future<?> pendingWrite,
+                                  BufferedWriter report, ImportResult result) throws Exception {
+        // Etapa de validación en paralelo (en el hilo lector mientras se escribe el bloque anterior)
+        List<ParsedRow> parsed = chunk.parallelStream()
+                .map(this::parseAndValidate)
+                .collect(Collectors.toList());
+
+        List<ParsedRow> valid = new ArrayList<>(parsed.size());
+        for (ParsedRow row : parsed) {
+            if (row.error != null) {
+                reject(report, result, row.line, row.error);
+            } else {
+                valid.add(row);
+            }
+        }
+
+        // Como máximo un bloque en escritura: la memoria no crece con el tamaño del archivo
+        if (pendingWrite != null) {
+            pendingWrite.get();
+        }
+        if (valid.isEmpty()) {
+            return null;
+        }
+        return writer.submit(() -> {
+            writeChunk(valid, report, result);
+            return null;
+        });
+    }
+
+    private void writeChunk(List<ParsedRow> rows, BufferedWriter report, ImportResult result) throws IOException {
+        try {
+            writeInTransaction(rows);
+            result.imported += rows.size();
+        } catch (Exception e) {
+            // El bloque falló (p. ej. patente o póliza duplicada): reintentar fila por fila
+            for (ParsedRow row : rows) {
+                try {
+                    resetGeneratedIds(row);
+                    writeInTransaction(Collections.singletonList(row));
+                    result.imported++;
+                } catch (Exception rowError) {
+                    reject(report, result, row.line, rowError.getMessage());
+                }
+            }
+        }
+    }
+
+    private void writeInTransaction(List<ParsedRow> rows) throws Exception {
+        Map<Integer, List<ParsedRow>> byShard = ShardRouter.groupByShard(rows,
+                row -> VehicleService.shardOf(row.vehicle));
+
+        // Una sola transacción por bloque: con varios shards cada uno suma su conexión a la misma UnitOfWork,
+        // así un bloque fallido no deja filas confirmadas antes del reintento fila por fila
+        UnitOfWork.run(WRITE_RETRY, conn -> {
+            for (Map.Entry<Integer, List<ParsedRow>> group : byShard.entrySet()) {
+                ShardRouter.run(group.getKey(), () -> UnitOfWork.run(shardConn -> writeRows(group.getValue(), shardConn)));
+            }
+        });
+    }
+
+    private void writeRows(List<ParsedRow> rows, Connection conn) throws Exception {
+        List<Vehicle> vehicles = new ArrayList<>(rows.size());
+        List<InsuranceVehicle> insurances = new ArrayList<>();
+        for (ParsedRow row : rows) {
+            vehicles.add(row.vehicle);
+            if (row.vehicle.getInsurance() != null) {
+                insurances.add(row.vehicle.getInsurance());
+            }
+        }
+
+        // Primero los seguros, luego los vehículos ya vinculados por insurance_vehicle_id
+        if (!insurances.isEmpty()) {
+            insuranceDao.createAll(insurances, conn);
+        }
+        vehicleDao.createAll(vehicles, conn);
+    }
+
+    private static void resetGeneratedIds(ParsedRow row) {
+        row.vehicle.setVehicleId(null);
+        if (row.vehicle.getInsurance() != null) {
+            row.vehicle.getInsurance().setId(null);
+        }
+    }
+
+    private ParsedRow parseAndValidate(RawLine raw) {
+        try {
+            List<String> fields = parseCsvLine(raw.text);
+            if (fields.size() != COLUMNS) {
+                throw new ValidationException("Expected " + COLUMNS + " columns but found " + fields.size() + ".");
+            }
+
+            Vehicle vehicle = new Vehicle(
+                    Vehicle.normalizeDomain(fields.get(0)),
+                    fields.get(1),
+                    fields.get(2),
+                    parseYear(fields.get(3)),
+                    fields.get(4).isEmpty() ? null : fields.get(4));
+
+            if (!fields.get(5).isEmpty() || !fields.get(6).isEmpty()) {
+                vehicle.setInsurance(new InsuranceVehicle(null, fields.get(5), fields.get(6),
+                        parseCover(fields.get(7)), parseDate(fields.get(8))));
+            }
+
+            vehicleService.validateVehicle(vehicle);
+            if (vehicle.getInsurance() != null) {
+                insuranceService.validateInsuranceToUpdate(vehicle.getInsurance());
+            }
+            return new ParsedRow(raw, vehicle, null);
+        } catch (ValidationException e) {
+            return new ParsedRow(raw, null, e.getMessage());
+        }
+    }
+
+    private static Integer parseYear(String value) throws ValidationException {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Invalid year: '" + value + "'.");
+        }
+    }
+
+    private static LocalDate parseDate(String value) throws ValidationException {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new ValidationException("Invalid expiration date: '" + value + "'.");
+        }
+    }
+
+    private static CoverType parseCover(String value) throws ValidationException {
+        for (CoverType cover : CoverType.values()) {
+            if (cover.name().equalsIgnoreCase(value) || cover.getDescription().equalsIgnoreCase(value)) {
+                return cover;
+            }
+        }
+        throw new ValidationException("Invalid cover type: '" + value + "'.");
+    }
+
+    /**
+     * Separa una línea CSV respetando campos entre comillas dobles ("" representa una comilla).
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>(COLUMNS);
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString().trim());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString().trim());
+        return fields;
+    }
+
+    private static void reject(BufferedWriter report, ImportResult result, RawLine line, String reason)
+            throws IOException {
+        synchronized (report) {
+            report.write(line.number + ",\"" + escape(reason) + "\",\"" + escape(line.text) + "\"");
+            report.newLine();
+            result.rejected++;
+        }
+    }
+
+    private static String escape(String value) {
+        return value == null ? "" : value.replace("\"", "\"\"");
+    }
+
+    private static final class RawLine {
+        private final long number;
+        private final String text;
+
+        private RawLine(long number, String text) {
+            this.number = number;
+            this.text = text;
+        }
+    }
+
+    private static final class ParsedRow {
+        private final RawLine line;
+        private final Vehicle vehicle;
+        private final String error;
+
+        private ParsedRow(RawLine line, Vehicle vehicle, String error) {
+            this.line = line;
+            this.vehicle = vehicle;
+            this.error = error;
+        }
+    }
+
+    public static class ImportResult {
+        private volatile long imported;
+        private volatile long rejected;
+        private long elapsedMillis;
+
+        public long getImported() { return imported; }
+        public long getRejected() { return rejected; }
+        public long getElapsedMillis() { return elapsedMillis; }
+
+        @Override
+        public String toString() {
+            return String.format("ImportResult{imported=%d, rejected=%d, elapsed=%d ms}",
+                    imported, rejected, elapsedMillis);
+        }
+    }
+}
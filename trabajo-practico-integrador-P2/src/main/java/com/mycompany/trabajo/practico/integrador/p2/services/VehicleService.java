@@ -1,232 +1,663 @@
 package com.mycompany.trabajo.practico.integrador.p2.services;
 
 import com.mycompany.trabajo.practico.integrador.p2.config.DatabaseConnection;
+import com.mycompany.trabajo.practico.integrador.p2.config.RetryPolicy;
+import com.mycompany.trabajo.practico.integrador.p2.config.ShardRouter;
+import com.mycompany.trabajo.practico.integrador.p2.config.UnitOfWork;
 import com.mycompany.trabajo.practico.integrador.p2.daos.InsuranceVehicleDao;
 import com.mycompany.trabajo.practico.integrador.p2.daos.VehicleDao;
 import com.mycompany.trabajo.practico.integrador.p2.entities.InsuranceVehicle;
 import com.mycompany.trabajo.practico.integrador.p2.entities.Vehicle;
 import com.mycompany.trabajo.practico.integrador.p2.exceptions.DatabaseException;
-import com.mycompany.trabajo.practico.integrador.p2.exceptions.DuplicateEntityException;
+import com.mycompany.trabajo.practico.integrador.p2.exceptions.OptimisticLockException;
 import com.mycompany.trabajo.practico.integrador.p2.exceptions.ValidationException;
+import com.mycompany.trabajo.practico.integrador.p2.metrics.Metrics;
+import com.mycompany.trabajo.practico.integrador.p2.metrics.OperationMetrics;
 
 import java.sql.Connection;
-import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Con varios shards (ShardRouter) cada vehículo y su seguro se escriben en el shard de su patente;
+ * las búsquedas por patente o por ID van a un solo shard y los listados consultan todos y se mezclan por ID.
+ */
 public class VehicleService implements GenericService<Vehicle> {
 
+    private static final int PAGE_SIZE = DatabaseConnection.getIntProperty("db.pageSize", 500);
+    private static final int BATCH_SIZE = DatabaseConnection.getIntProperty("db.batch.size", 1000);
+    private static final Comparator<Vehicle> BY_ID = Comparator.comparing(Vehicle::getVehicleId);
+
+    private static final OperationMetrics INSERT = Metrics.operation("VehicleService.insert");
+    private static final OperationMetrics INSERT_ALL = Metrics.operation("VehicleService.insertAll");
+    private static final OperationMetrics GET_BY_ID = Metrics.operation("VehicleService.getById");
+    private static final OperationMetrics GET_ALL = Metrics.operation("VehicleService.getAll");
+    private static final OperationMetrics GET_PAGE = Metrics.operation("VehicleService.getPage");
+    private static final OperationMetrics STREAM_ALL = Metrics.operation("VehicleService.getAll(Consumer)");
+    private static final OperationMetrics SCAN_ALL = Metrics.operation("VehicleService.scanAll");
+    private static final OperationMetrics UPDATE = Metrics.operation("VehicleService.update");
+    private static final OperationMetrics DELETE = Metrics.operation("VehicleService.delete");
+    private static final OperationMetrics FIND_BY_DOMAIN = Metrics.operation("VehicleService.findByDomain");
+    private static final OperationMetrics GET_BY_IDS = Metrics.operation("VehicleService.getByIds");
+    private static final OperationMetrics FIND_BY_DOMAINS = Metrics.operation("VehicleService.findByDomains");
+
+    // Reintento ante deadlock / espera de bloqueo: cada transacción se puede repetir completa
+    // (los IDs generados se vuelven a asignar y las cachés se invalidan recién tras el commit)
+    private static final RetryPolicy INSERT_RETRY = RetryPolicy.idempotent("VehicleService.insert");
+    private static final RetryPolicy INSERT_ALL_RETRY = RetryPolicy.idempotent("VehicleService.insertAll");
+    private static final RetryPolicy UPDATE_RETRY = RetryPolicy.idempotent("VehicleService.update");
+    private static final RetryPolicy DELETE_RETRY = RetryPolicy.idempotent("VehicleService.delete");
+
+    // Caché compartida por todas las instancias: vehículos por ID y un índice patente → ID
+    // (guarda y entrega copias, así las ediciones de quien llama no quedan en la caché)
+    private static final EntityCache<Long, Vehicle> VEHICLE_CACHE = new EntityCache<>("vehicle.byId",
+            DatabaseConnection.getIntProperty("cache.maxSize", 10_000),
+            DatabaseConnection.getLongProperty("cache.ttlMs", 300_000L), Vehicle::new);
+    private static final EntityCache<String, Long> DOMAIN_INDEX = new EntityCache<>("vehicle.byDomain",
+            DatabaseConnection.getIntProperty("cache.maxSize", 10_000),
+            DatabaseConnection.getLongProperty("cache.ttlMs", 300_000L));
+
     private VehicleDao vehicleDao = new VehicleDao();
     private InsuranceVehicleDao insuranceDao = new InsuranceVehicleDao();
 
     @Override
     public void insert(Vehicle vehicle) throws Exception {
-        validateVehicle(vehicle);
-
-        Connection conn = null;
+        long start = System.nanoTime();
+        boolean ok = false;
         try {
-            conn = DatabaseConnection.getConnection();
-            conn.setAutoCommit(false);
+            doInsert(vehicle);
+            ok = true;
+        } finally {
+            INSERT.record(start, ok);
+        }
+    }
 
-            // Verificar dominio duplicado
-            Vehicle existing = vehicleDao.findByDomain(vehicle.getDomain(), conn);
-            if (existing != null) {
-                throw new DuplicateEntityException("A vehicle with domain '" + vehicle.getDomain() + "' already exists.");
-            }
+    private void doInsert(Vehicle vehicle) throws Exception {
+        validateVehicle(vehicle);
+        InsuranceVehicle insurance = vehicle.getInsurance();
+        if (insurance != null) {
+            new InsuranceVehicleService().validateInsuranceToUpdate(insurance);
+        }
+        DOMAIN_INDEX.invalidate(Vehicle.normalizeDomain(vehicle.getDomain()));
 
-            // Crear el vehículo primero (sin seguro)
-            InsuranceVehicle tempInsurance = vehicle.getInsurance();
-            vehicle.setInsurance(null);
+        // El seguro va al mismo shard que el vehículo
+        ShardRouter.run(shardOf(vehicle), () -> UnitOfWork.run(INSERT_RETRY, conn -> {
+            // Sin consultas previas: las claves UNIQUE (domain, chasis_number, policy_number)
+            // rechazan los duplicados y el DAO los informa como DuplicateEntityException.
+            // El seguro va primero, así el vehículo se inserta ya vinculado (dos sentencias en total).
+            if (insurance != null) {
+                insuranceDao.create(insurance, conn);
+            }
 
             vehicleDao.create(vehicle, conn);
-            System.out.println("Vehicle created successfully with ID: " + vehicle.getVehicleId());
+            if (insurance != null) {
+                insurance.setVehicleId(vehicle.getVehicleId());
+            }
+        }));
 
-            // Si tenía seguro, delegar su creación al InsuranceVehicleService
-            if (tempInsurance != null) {
-                tempInsurance.setVehicleId(vehicle.getVehicleId());
+        System.out.println("Vehicle created successfully with ID: " + vehicle.getVehicleId());
+        if (insurance != null) {
+            System.out.println("Insurance created successfully with ID: " + insurance.getId());
+        }
+    }
 
-                InsuranceVehicleService insuranceService = new InsuranceVehicleService();
-                insuranceService.insertWithConnection(tempInsurance, conn);
+    /**
+     * Alta masiva: valida el lote completo antes de escribir y confirma en bloques de db.batch.size.
+     * Los seguros incluidos se insertan primero, así cada vehículo se crea ya vinculado a su seguro.
+     */
+    public void insertAll(List<Vehicle> vehicles) throws Exception {
+        long start = System.nanoTime();
+        boolean ok = false;
+        try {
+            doInsertAll(vehicles);
+            ok = true;
+        } finally {
+            INSERT_ALL.record(start, ok);
+        }
+    }
 
-                // Actualizar el vehículo con la FK del seguro
-                vehicle.setInsurance(tempInsurance);
-                vehicleDao.update(vehicle, conn);
-                System.out.println("Vehicle linked to insurance.");
-            }
+    private void doInsertAll(List<Vehicle> vehicles) throws Exception {
+        if (vehicles == null || vehicles.isEmpty()) {
+            throw new ValidationException("Vehicle list cannot be empty.");
+        }
 
-            conn.commit();
+        InsuranceVehicleService insuranceService = new InsuranceVehicleService();
+        for (int i = 0; i < vehicles.size(); i++) {
+            Vehicle vehicle = vehicles.get(i);
+            try {
+                validateVehicle(vehicle);
+                if (vehicle.getInsurance() != null) {
+                    insuranceService.validateInsuranceToUpdate(vehicle.getInsurance());
+                }
+            } catch (ValidationException e) {
+                throw new ValidationException("Vehicle #" + (i + 1) + ": " + e.getMessage());
+            }
+            DOMAIN_INDEX.invalidate(Vehicle.normalizeDomain(vehicle.getDomain()));
+        }
 
-        } catch (Exception e) {
-            if (conn != null) {
-                try {
-                    conn.rollback();
-                    System.err.println("Transaction rolled back due to error.");
-                } catch (SQLException ex) {
-                    System.err.println("Error during rollback: " + ex.getMessage());
+        // Cada bloque de un shard es su propia transacción; dentro de una UnitOfWork abierta se suman todos a ella
+        boolean joined = UnitOfWork.isActive();
+        int written = 0;
+        try {
+            for (Map.Entry<Integer, List<Vehicle>> group : ShardRouter.groupByShard(vehicles, VehicleService::shardOf).entrySet()) {
+                List<Vehicle> shardVehicles = group.getValue();
+                for (int from = 0; from < shardVehicles.size(); from += BATCH_SIZE) {
+                    List<Vehicle> chunk = shardVehicles.subList(from, Math.min(from + BATCH_SIZE, shardVehicles.size()));
+                    ShardRouter.run(group.getKey(), () -> UnitOfWork.run(INSERT_ALL_RETRY, conn -> writeChunk(chunk, conn)));
+                    written += chunk.size();
                 }
             }
+        } catch (Exception e) {
+            if (!joined && written > 0) {
+                System.err.println("Vehicles already committed: " + written);
+            }
             throw e;
-        } finally {
-            if (conn != null) {
-                try {
-                    conn.setAutoCommit(true);
-                    DatabaseConnection.closeConnection(conn);
-                } catch (SQLException e) {
-                    System.err.println("Error restoring autocommit: " + e.getMessage());
-                }
+        }
+
+        System.out.println(written + " vehicles created successfully.");
+    }
+
+    private void writeChunk(List<Vehicle> chunk, Connection conn) throws Exception {
+        List<InsuranceVehicle> insurances = new ArrayList<>();
+        for (Vehicle vehicle : chunk) {
+            if (vehicle.getInsurance() != null) {
+                insurances.add(vehicle.getInsurance());
+            }
+        }
+        if (!insurances.isEmpty()) {
+            insuranceDao.createAll(insurances, conn);
+        }
+
+        vehicleDao.createAll(chunk, conn);
+        for (Vehicle vehicle : chunk) {
+            if (vehicle.getInsurance() != null) {
+                vehicle.getInsurance().setVehicleId(vehicle.getVehicleId());
             }
         }
     }
 
     @Override
     public Vehicle getById(Long id) throws Exception {
+        long start = System.nanoTime();
+        boolean ok = false;
+        try {
+            Vehicle result = doGetById(id);
+            ok = true;
+            return result;
+        } finally {
+            GET_BY_ID.record(start, ok);
+        }
+    }
+
+    private Vehicle doGetById(Long id) throws Exception {
         if (id == null || id <= 0) {
             throw new ValidationException("Invalid vehicle ID.");
         }
 
-        Connection conn = null;
+        Vehicle cached = VEHICLE_CACHE.get(id);
+        if (cached != null) {
+            return cached;
+        }
+
+        long stamp = VEHICLE_CACHE.stamp();
+        Vehicle vehicle = ShardRouter.call(ShardRouter.shardForId(id), () -> {
+            Connection conn = null;
+            try {
+                conn = DatabaseConnection.getReadConnection();
+                return vehicleDao.findVehicleById(id, conn);
+            } finally {
+                DatabaseConnection.closeConnection(conn);
+            }
+        });
+
+        if (vehicle == null) {
+            throw new DatabaseException("Vehicle with ID " + id + " not found.");
+        }
+
+        cacheVehicle(vehicle, stamp);
+        return vehicle;
+    }
+
+    @Override
+    public List<Vehicle> getAll() throws Exception {
+        long start = System.nanoTime();
+        boolean ok = false;
+        int rows = 0;
         try {
-            conn = DatabaseConnection.getConnection();
-            Vehicle vehicle = vehicleDao.findVehicleById(id, conn);
+            List<Vehicle> result = doGetAll();
+            ok = true;
+            rows = result.size();
+            return result;
+        } finally {
+            GET_ALL.record(start, ok, rows);
+        }
+    }
 
-            if (vehicle == null) {
-                throw new DatabaseException("Vehicle with ID " + id + " not found.");
+    private List<Vehicle> doGetAll() throws Exception {
+        // Cada shard devuelve sus vehículos ordenados por ID; se mezclan en un solo orden
+        List<List<Vehicle>> parts = ShardRouter.fanOut(() -> {
+            Connection conn = null;
+            try {
+                conn = DatabaseConnection.getReadConnection();
+                return vehicleDao.readAll(conn);
+            } finally {
+                DatabaseConnection.closeConnection(conn);
             }
+        });
+        return ShardRouter.mergeOrdered(parts, BY_ID);
+    }
 
-            return vehicle;
+    @Override
+    public List<Vehicle> getPage(Long afterId, int limit) throws Exception {
+        long start = System.nanoTime();
+        boolean ok = false;
+        int rows = 0;
+        try {
+            List<Vehicle> result = doGetPage(afterId, limit);
+            ok = true;
+            rows = result.size();
+            return result;
         } finally {
-            DatabaseConnection.closeConnection(conn);
+            GET_PAGE.record(start, ok, rows);
         }
     }
 
+    private List<Vehicle> doGetPage(Long afterId, int limit) throws Exception {
+        if (limit <= 0) {
+            throw new ValidationException("Page size must be greater than zero.");
+        }
+
+        // La página global son los primeros limit IDs entre las páginas de cada shard
+        List<List<Vehicle>> parts = ShardRouter.fanOut(() -> {
+            Connection conn = null;
+            try {
+                conn = DatabaseConnection.getReadConnection();
+                return vehicleDao.readPage(afterId, limit, conn);
+            } finally {
+                DatabaseConnection.closeConnection(conn);
+            }
+        });
+        List<Vehicle> merged = ShardRouter.mergeOrdered(parts, BY_ID);
+        return merged.size() > limit ? new ArrayList<>(merged.subList(0, limit)) : merged;
+    }
+
     @Override
-    public List<Vehicle> getAll() throws Exception {
+    public void getAll(Consumer<Vehicle> consumer) throws Exception {
+        long start = System.nanoTime();
+        boolean ok = false;
+        try {
+            doStreamAll(consumer);
+            ok = true;
+        } finally {
+            STREAM_ALL.record(start, ok);
+        }
+    }
+
+    private void doStreamAll(Consumer<Vehicle> consumer) throws Exception {
+        if (ShardRouter.isSharded()) {
+            // Un cursor por shard, mezclados en orden de ID
+            ShardRouter.forEachOrdered(this::readShardPage, Vehicle::getVehicleId, PAGE_SIZE, consumer);
+            return;
+        }
+
         Connection conn = null;
         try {
-            conn = DatabaseConnection.getConnection();
-            return vehicleDao.readAll(conn);
+            conn = DatabaseConnection.getReadConnection();
+            vehicleDao.stream(consumer, conn);
+        } finally {
+            DatabaseConnection.closeConnection(conn);
+        }
+    }
+
+    // Página del shard actual con su propia conexión del pool (cursores de ShardRouter.forEachOrdered/streamOrdered)
+    private List<Vehicle> readShardPage(Long afterId, int limit) throws Exception {
+        Connection conn = null;
+        try {
+            conn = DatabaseConnection.getReadConnection();
+            return vehicleDao.readPage(afterId, limit, conn);
         } finally {
             DatabaseConnection.closeConnection(conn);
         }
     }
 
     @Override
-    public void update(Vehicle vehicle) throws Exception {
-        validateVehicle(vehicle);
+    public void scanAll(Consumer<Vehicle> consumer) throws Exception {
+        long start = System.nanoTime();
+        boolean ok = false;
+        try {
+            doScanAll(consumer);
+            ok = true;
+        } finally {
+            SCAN_ALL.record(start, ok);
+        }
+    }
 
-        Connection conn = null;
+    private void doScanAll(Consumer<Vehicle> consumer) throws Exception {
+        // Shard por shard: el orden por ID se respeta dentro de cada shard, no entre shards
+        for (int shard = 0; shard < ShardRouter.getShardCount(); shard++) {
+            ShardRouter.run(shard, () -> {
+                // Conexión fuera del pool: queda ocupada por el ResultSet hasta terminar el recorrido
+                try (Connection conn = DatabaseConnection.openStreamingConnection()) {
+                    vehicleDao.scanAll(consumer, conn);
+                }
+            });
+        }
+    }
+
+    @Override
+    public Stream<Vehicle> streamAll() {
+        // Cada página toma y devuelve su propia conexión del pool; con varios shards, un cursor por shard
+        // (no getPage, que leería N páginas para entregar una)
+        return ShardRouter.streamOrdered(this::readShardPage, Vehicle::getVehicleId, PAGE_SIZE);
+    }
+
+    @Override
+    public void update(Vehicle vehicle) throws Exception {
+        long start = System.nanoTime();
+        boolean ok = false;
         try {
-            conn = DatabaseConnection.getConnection();
-            conn.setAutoCommit(false);
+            doUpdate(vehicle);
+            ok = true;
+        } finally {
+            UPDATE.record(start, ok);
+        }
+    }
 
-            // Verificar que el vehículo existe
-            Vehicle existing = vehicleDao.findVehicleById(vehicle.getVehicleId(), conn);
-            if (existing == null) {
-                throw new DatabaseException("Vehicle with ID " + vehicle.getVehicleId() + " not found.");
-            }
+    private void doUpdate(Vehicle vehicle) throws Exception {
+        validateVehicle(vehicle);
 
-            // Verificar que no haya otra patente duplicada
-            Vehicle duplicateDomain = vehicleDao.findByDomain(vehicle.getDomain(), conn);
-            if (duplicateDomain != null && !duplicateDomain.getVehicleId().equals(vehicle.getVehicleId())) {
-                throw new ValidationException("Another vehicle with domain '" + vehicle.getDomain() + "' already exists.");
-            }
+        if (vehicle.getVehicleId() == null) {
+            throw new ValidationException("Vehicle ID is required for update.");
+        }
+        if (vehicle.getVersion() == null) {
+            throw new ValidationException("Vehicle version is required for update.");
+        }
+        // El ID fija el shard: una patente que corresponde a otro shard dejaría de encontrarse
+        int shard = ShardRouter.shardForId(vehicle.getVehicleId());
+        if (shardOf(vehicle) != shard) {
+            throw new ValidationException("Domain " + vehicle.getDomain() +
+                    " belongs to another shard; delete the vehicle and create it again instead.");
+        }
 
-            vehicleDao.update(vehicle, conn);
+        evictVehicle(vehicle.getVehicleId());
+        DOMAIN_INDEX.invalidate(Vehicle.normalizeDomain(vehicle.getDomain()));
 
-            conn.commit();
-            System.out.println("Vehicle updated successfully.");
+        Long readVersion = vehicle.getVersion();
+        try {
+            ShardRouter.run(shard, () -> UnitOfWork.run(UPDATE_RETRY, conn -> {
+                // Cada intento parte de la versión leída (un intento revertido pudo haberla incrementado)
+                vehicle.setVersion(readVersion);
 
-        } catch (Exception e) {
-            if (conn != null) {
-                try {
-                    conn.rollback();
-                    System.err.println("Transaction rolled back due to error.");
-                } catch (SQLException ex) {
-                    System.err.println("Error during rollback: " + ex.getMessage());
-                }
-            }
+                // Un vehículo inexistente o dado de baja no afecta filas, uno modificado por otro usuario
+                // lanza OptimisticLockException y una patente repetida la rechaza la clave UNIQUE (DuplicateEntityException)
+                vehicleDao.update(vehicle, conn);
+                UnitOfWork.afterCommit(() -> evictVehicle(vehicle.getVehicleId()));
+            }));
+        } catch (OptimisticLockException e) {
+            // Lo que haya en caché tiene la versión vieja: la próxima lectura va a la base
+            evictVehicle(vehicle.getVehicleId());
             throw e;
-        } finally {
-            if (conn != null) {
-                try {
-                    conn.setAutoCommit(true);
-                    DatabaseConnection.closeConnection(conn);
-                } catch (SQLException e) {
-                    System.err.println("Error restoring autocommit: " + e.getMessage());
-                }
-            }
         }
+        System.out.println("Vehicle updated successfully.");
     }
 
     @Override
     public void delete(Long id) throws Exception {
+        long start = System.nanoTime();
+        boolean ok = false;
+        try {
+            doDelete(id);
+            ok = true;
+        } finally {
+            DELETE.record(start, ok);
+        }
+    }
+
+    private void doDelete(Long id) throws Exception {
         if (id == null || id <= 0) {
             throw new ValidationException("Invalid vehicle ID.");
         }
 
-        Connection conn = null;
-        try {
-            conn = DatabaseConnection.getConnection();
-            conn.setAutoCommit(false);
-
-            // Verificar que el vehículo existe
-            Vehicle existing = vehicleDao.findVehicleById(id, conn);
-            if (existing == null) {
+        // El seguro comparte el shard del vehículo
+        ShardRouter.run(ShardRouter.shardForId(id), () -> UnitOfWork.run(DELETE_RETRY, conn -> {
+            // Bloquear la fila del vehículo: verificación y bajas quedan atómicas hasta el commit
+            if (!vehicleDao.lockForUpdate(id, conn)) {
                 throw new DatabaseException("Vehicle with ID " + id + " not found.");
             }
 
             // Eliminar el seguro asociado si existe (baja lógica)
-            InsuranceVehicle insurance = insuranceDao.findByVehicleId(id, conn);
-            if (insurance != null) {
-                insuranceDao.delete(insurance.getId(), conn);
+            Long insuranceId = insuranceDao.findIdByVehicleId(id, conn);
+            if (insuranceId != null) {
+                insuranceDao.delete(insuranceId, conn);
             }
 
             // Eliminar el vehículo (baja lógica)
             vehicleDao.delete(id, conn);
 
-            conn.commit();
-            System.out.println("Vehicle deleted successfully (logical deletion).");
-
-        } catch (Exception e) {
-            if (conn != null) {
-                try {
-                    conn.rollback();
-                    System.err.println("Transaction rolled back due to error.");
-                } catch (SQLException ex) {
-                    System.err.println("Error during rollback: " + ex.getMessage());
+            UnitOfWork.afterCommit(() -> {
+                evictVehicle(id);
+                if (insuranceId != null) {
+                    InsuranceVehicleService.evictInsurance(insuranceId);
                 }
+            });
+        }));
+        System.out.println("Vehicle deleted successfully (logical deletion).");
+    }
+
+    public Vehicle findByDomain(String domain) throws Exception {
+        long start = System.nanoTime();
+        boolean ok = false;
+        try {
+            Vehicle result = doFindByDomain(domain);
+            ok = true;
+            return result;
+        } finally {
+            FIND_BY_DOMAIN.record(start, ok);
+        }
+    }
+
+    private Vehicle doFindByDomain(String domain) throws Exception {
+        if (domain == null || domain.trim().isEmpty()) {
+            throw new ValidationException("Domain cannot be empty.");
+        }
+
+        String key = Vehicle.normalizeDomain(domain);
+        Long cachedId = DOMAIN_INDEX.get(key);
+        if (cachedId != null) {
+            Vehicle cached = VEHICLE_CACHE.get(cachedId);
+            if (cached != null && key.equalsIgnoreCase(cached.getDomain())) {
+                return cached;
             }
-            throw e;
+        }
+
+        long stamp = VEHICLE_CACHE.stamp();
+        Vehicle vehicle = ShardRouter.call(ShardRouter.shardForDomain(key), () -> {
+            Connection conn = null;
+            try {
+                conn = DatabaseConnection.getReadConnection();
+                return vehicleDao.findByDomain(key, conn);
+            } finally {
+                DatabaseConnection.closeConnection(conn);
+            }
+        });
+        if (vehicle != null) {
+            cacheVehicle(vehicle, stamp);
+        }
+        return vehicle;
+    }
+
+    /**
+     * Búsqueda masiva por ID: primero la caché, el resto en consultas IN por bloques (con su seguro).
+     * El mapa conserva el orden de los IDs recibidos; los inexistentes no aparecen.
+     */
+    @Override
+    public Map<Long, Vehicle> getByIds(Collection<Long> ids) throws Exception {
+        long start = System.nanoTime();
+        boolean ok = false;
+        int rows = 0;
+        try {
+            Map<Long, Vehicle> result = doGetByIds(ids);
+            ok = true;
+            rows = result.size();
+            return result;
         } finally {
-            if (conn != null) {
+            GET_BY_IDS.record(start, ok, rows);
+        }
+    }
+
+    private Map<Long, Vehicle> doGetByIds(Collection<Long> ids) throws Exception {
+        if (ids == null) {
+            throw new ValidationException("Vehicle ID list cannot be null.");
+        }
+
+        Map<Long, Vehicle> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            if (id == null || id <= 0) {
+                throw new ValidationException("Invalid vehicle ID: " + id + ".");
+            }
+            Vehicle cached = VEHICLE_CACHE.get(id);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            // Cada shard recibe solo sus IDs, en paralelo
+            long stamp = VEHICLE_CACHE.stamp();
+            Map<Integer, List<Long>> byShard = ShardRouter.groupByShard(missing, ShardRouter::shardForId);
+            List<Map<Long, Vehicle>> parts = ShardRouter.fanOut(byShard.keySet(), () -> {
+                Connection conn = null;
                 try {
-                    conn.setAutoCommit(true);
+                    conn = DatabaseConnection.getReadConnection();
+                    return vehicleDao.findByIds(byShard.get(ShardRouter.currentShard()), conn);
+                } finally {
                     DatabaseConnection.closeConnection(conn);
-                } catch (SQLException e) {
-                    System.err.println("Error restoring autocommit: " + e.getMessage());
+                }
+            });
+            for (Map<Long, Vehicle> part : parts) {
+                for (Vehicle vehicle : part.values()) {
+                    cacheVehicle(vehicle, stamp);
+                    found.put(vehicle.getVehicleId(), vehicle);
                 }
             }
         }
-    }
 
-    public Vehicle findByDomain(String domain) throws Exception {
-        if (domain == null || domain.trim().isEmpty()) {
-            throw new ValidationException("Domain cannot be empty.");
+        Map<Long, Vehicle> result = new LinkedHashMap<>();
+        for (Long id : ids) {
+            Vehicle vehicle = found.get(id);
+            if (vehicle != null) {
+                result.put(id, vehicle);
+            }
         }
+        return result;
+    }
 
-        Connection conn = null;
+    /**
+     * Búsqueda masiva por patente; las claves del mapa son las patentes tal como se recibieron.
+     */
+    public Map<String, Vehicle> findByDomains(Collection<String> domains) throws Exception {
+        long start = System.nanoTime();
+        boolean ok = false;
+        int rows = 0;
         try {
-            conn = DatabaseConnection.getConnection();
-            return vehicleDao.findByDomain(domain.toUpperCase(), conn);
+            Map<String, Vehicle> result = doFindByDomains(domains);
+            ok = true;
+            rows = result.size();
+            return result;
         } finally {
-            DatabaseConnection.closeConnection(conn);
+            FIND_BY_DOMAINS.record(start, ok, rows);
         }
     }
 
-    private void validateVehicle(Vehicle vehicle) throws ValidationException {
-        if (vehicle.getVehicleId() == null) {
-            throw new ValidationException("Vehicle ID is required for update.");
+    private Map<String, Vehicle> doFindByDomains(Collection<String> domains) throws Exception {
+        if (domains == null) {
+            throw new ValidationException("Domain list cannot be null.");
         }
 
+        Map<String, Vehicle> found = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String domain : domains) {
+            if (domain == null || domain.trim().isEmpty()) {
+                throw new ValidationException("Domain cannot be empty.");
+            }
+            String key = Vehicle.normalizeDomain(domain);
+            Long cachedId = DOMAIN_INDEX.get(key);
+            Vehicle cached = cachedId != null ? VEHICLE_CACHE.get(cachedId) : null;
+            if (cached != null && key.equalsIgnoreCase(cached.getDomain())) {
+                found.put(key, cached);
+            } else {
+                missing.add(key);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            // Cada shard recibe solo sus patentes, en paralelo
+            long stamp = VEHICLE_CACHE.stamp();
+            Map<Integer, List<String>> byShard = ShardRouter.groupByShard(missing, ShardRouter::shardForDomain);
+            List<Map<String, Vehicle>> parts = ShardRouter.fanOut(byShard.keySet(), () -> {
+                Connection conn = null;
+                try {
+                    conn = DatabaseConnection.getReadConnection();
+                    return vehicleDao.findByDomains(byShard.get(ShardRouter.currentShard()), conn);
+                } finally {
+                    DatabaseConnection.closeConnection(conn);
+                }
+            });
+            for (Map<String, Vehicle> part : parts) {
+                for (Vehicle vehicle : part.values()) {
+                    cacheVehicle(vehicle, stamp);
+                    found.put(Vehicle.normalizeDomain(vehicle.getDomain()), vehicle);
+                }
+            }
+        }
+
+        Map<String, Vehicle> result = new LinkedHashMap<>();
+        for (String domain : domains) {
+            Vehicle vehicle = found.get(Vehicle.normalizeDomain(domain));
+            if (vehicle != null) {
+                result.put(domain, vehicle);
+            }
+        }
+        return result;
+    }
+
+    public static String getCacheStats() {
+        return VEHICLE_CACHE + System.lineSeparator() + DOMAIN_INDEX;
+    }
+
+    static void evictVehicle(Long vehicleId) {
+        VEHICLE_CACHE.invalidate(vehicleId);
+    }
+
+    static void evictAllVehicles() {
+        VEHICLE_CACHE.clear();
+    }
+
+    static int shardOf(Vehicle vehicle) {
+        return ShardRouter.shardForDomain(vehicle.getDomain());
+    }
+
+    // stamp: VEHICLE_CACHE.stamp() tomado antes de consultar la base
+    private static void cacheVehicle(Vehicle vehicle, long stamp) {
+        // Lo leído dentro de una UnitOfWork puede no confirmarse nunca
+        if (UnitOfWork.isActive()) {
+            return;
+        }
+        VEHICLE_CACHE.put(vehicle.getVehicleId(), vehicle, stamp);
+        DOMAIN_INDEX.put(Vehicle.normalizeDomain(vehicle.getDomain()), vehicle.getVehicleId());
+    }
+
+    void validateVehicle(Vehicle vehicle) throws ValidationException {
         if (vehicle == null) {
             throw new ValidationException("Vehicle cannot be null.");
         }
@@ -0,0 +1,3 @@
+-- Listados, páginas por clave y scanAll: WHERE isActive = true [AND vehicle_id > ?] ORDER BY vehicle_id
+-- (las búsquedas por domain / chasis_number ya usan sus índices UNIQUE)
+CREATE INDEX idx_vehicle_active_id ON vehicle (isActive, vehicle_id);
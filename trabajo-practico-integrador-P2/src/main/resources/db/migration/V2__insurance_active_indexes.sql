@@ -0,0 +1,5 @@
+-- Listados y páginas por clave: WHERE isActive = true [AND insurance_vehicle_id > ?] ORDER BY insurance_vehicle_id
+CREATE INDEX idx_insurance_active_id ON insurance_vehicle (isActive, insurance_vehicle_id);
+
+-- Consultas de vencimiento: WHERE isActive = true AND expire_date BETWEEN ? AND ?
+CREATE INDEX idx_insurance_active_expire ON insurance_vehicle (isActive, expire_date);
@@ -0,0 +1,3 @@
+-- Control de concurrencia optimista: cada UPDATE exige la versión leída y la incrementa
+ALTER TABLE vehicle ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE insurance_vehicle ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,75 @@
+package com.mycompany.trabajo.practico.integrador.p2;
+
+import com.mycompany.trabajo.practico.integrador.p2.config.DatabaseConnection;
+import com.mycompany.trabajo.practico.integrador.p2.config.MigrationRunner;
+import com.mycompany.trabajo.practico.integrador.p2.config.ShardRouter;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+/**
+ * Base de las pruebas: H2 en memoria en modo MySQL (db.url en la configuración de surefire del pom) con las
+ * tablas del script entregable, sin las cláusulas propias de MySQL, más las migraciones de db/migration.
+ * Con db.shards (ejecución "sharded" de surefire) cada shard tiene su base y sus IDs arrancan en shard + 1
+ * con incremento N, lo que en MySQL hacen auto_increment_offset/auto_increment_increment.
+ */
+public final class TestDatabase {
+
+    private static boolean created;
+
+    private TestDatabase() {
+    }
+
+    /**
+     * Crea el esquema la primera vez y borra todas las filas. Los IDs no se reinician, así que lo que
+     * haya quedado en las cachés de los servicios no coincide con las filas nuevas.
+     */
+    public static synchronized void reset() throws Exception {
+        for (int shard = 0; shard < ShardRouter.getShardCount(); shard++) {
+            int current = shard;
+            ShardRouter.run(shard, () -> resetShard(current));
+        }
+
+        if (!created) {
+            MigrationRunner.migrate();
+            created = true;
+        }
+    }
+
+    private static void resetShard(int shard) throws Exception {
+        Connection conn = DatabaseConnection.getConnection();
+        try (Statement stmt = conn.createStatement()) {
+            if (!created) {
+                stmt.execute("CREATE TABLE IF NOT EXISTS insurance_vehicle (" +
+                        "insurance_vehicle_id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                        "isActive BOOLEAN NOT NULL DEFAULT FALSE, " +
+                        "insurance_name VARCHAR(80) NOT NULL, " +
+                        "policy_number VARCHAR(50) NOT NULL UNIQUE, " +
+                        "cover ENUM('RC','Contra terceros','Todo_riesgo') NOT NULL, " +
+                        "expire_date DATE NOT NULL)");
+                stmt.execute("CREATE TABLE IF NOT EXISTS vehicle (" +
+                        "vehicle_id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                        "isActive BOOLEAN NOT NULL DEFAULT FALSE, " +
+                        "domain VARCHAR(10) NOT NULL UNIQUE, " +
+                        "brand VARCHAR(50) NOT NULL, " +
+                        "model VARCHAR(50) NOT NULL, " +
+                        "year INT NOT NULL, " +
+                        "chasis_number VARCHAR(50) UNIQUE, " +
+                        "insurance_vehicle_id BIGINT UNIQUE, " +
+                        "CONSTRAINT fk_vehicle_insurance FOREIGN KEY (insurance_vehicle_id) " +
+                        "REFERENCES insurance_vehicle(insurance_vehicle_id) ON UPDATE CASCADE)");
+                if (ShardRouter.isSharded()) {
+                    for (String column : new String[]{"vehicle ALTER COLUMN vehicle_id",
+                            "insurance_vehicle ALTER COLUMN insurance_vehicle_id"}) {
+                        stmt.execute("ALTER TABLE " + column + " RESTART WITH " + (shard + 1));
+                        stmt.execute("ALTER TABLE " + column + " SET INCREMENT BY " + ShardRouter.getShardCount());
+                    }
+                }
+            }
+            stmt.execute("DELETE FROM vehicle");
+            stmt.execute("DELETE FROM insurance_vehicle");
+        } finally {
+            DatabaseConnection.closeConnection(conn);
+        }
+    }
+}
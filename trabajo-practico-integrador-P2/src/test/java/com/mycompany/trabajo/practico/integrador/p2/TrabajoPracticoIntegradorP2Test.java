@@ -0,0 +1,70 @@
+package com.mycompany.trabajo.practico.integrador.p2;
+
+import com.mycompany.trabajo.practico.integrador.p2.entities.Vehicle;
+import com.mycompany.trabajo.practico.integrador.p2.services.VehicleService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrabajoPracticoIntegradorP2Test {
+
+    @TempDir
+    Path dir;
+
+    private Locale previous;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        TestDatabase.reset();
+        new VehicleService().insert(new Vehicle("EXP1", "Ford", "Ka", 2020, "EXPCH1"));
+        // Opciones y extensiones no pueden depender del idioma de la JVM (p. ej. la "i" en turco)
+        previous = Locale.getDefault();
+        Locale.setDefault(new Locale("tr", "TR"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        Locale.setDefault(previous);
+    }
+
+    private static String firstLine(Path file, boolean gzip) throws Exception {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(gzip
+                ? new GZIPInputStream(Files.newInputStream(file)) : Files.newInputStream(file), StandardCharsets.UTF_8))) {
+            return reader.readLine();
+        }
+    }
+
+    @Test
+    void exportDeducesFormatAndGzipFromAnUppercaseExtension() throws Exception {
+        Path file = dir.resolve("VEHICLES.JSONL.GZ");
+        assertEquals(0, TrabajoPracticoIntegradorP2.runCommand(new String[]{"export", file.toString()}));
+
+        String line = firstLine(file, true);
+        assertTrue(line.startsWith("{") && line.contains("EXP1"), line);
+    }
+
+    @Test
+    void exportAcceptsFormatOptionsInAnyCase() throws Exception {
+        Path jsonl = dir.resolve("vehicles.txt");
+        assertEquals(0, TrabajoPracticoIntegradorP2.runCommand(new String[]{"export", jsonl.toString(), "Jsonl"}));
+        assertTrue(firstLine(jsonl, false).startsWith("{"));
+
+        Path csv = dir.resolve("vehicles.data");
+        assertEquals(0, TrabajoPracticoIntegradorP2.runCommand(new String[]{"export", csv.toString(), "csv", "--gzip"}));
+        assertTrue(firstLine(csv, true).startsWith("vehicle_id,domain"));
+
+        assertEquals(2, TrabajoPracticoIntegradorP2.runCommand(new String[]{"export", csv.toString(), "xml"}));
+    }
+}
@@ -0,0 +1,150 @@
+package com.mycompany.trabajo.practico.integrador.p2.config;
+
+import com.mycompany.trabajo.practico.integrador.p2.TestDatabase;
+import com.mycompany.trabajo.practico.integrador.p2.exceptions.DatabaseException;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.sql.SQLTransactionRollbackException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryPolicyTest {
+
+    private static DatabaseException deadlock() {
+        // Así llega desde los DAOs: la SQLException del driver envuelta en DatabaseException
+        return new DatabaseException("Error updating vehicle: Deadlock found",
+                new SQLException("Deadlock found when trying to get lock", "40001", 1213));
+    }
+
+    @Test
+    void classifiesDeadlocksAndLockWaitTimeoutsAsTransient() {
+        assertTrue(RetryPolicy.isTransient(new SQLException("Deadlock", "40001", 1213)));
+        assertTrue(RetryPolicy.isTransient(new SQLException("Lock wait timeout exceeded", "HY000", 1205)));
+        assertTrue(RetryPolicy.isTransient(new SQLTransactionRollbackException("Serialization failure", "40001", 0)));
+        assertTrue(RetryPolicy.isTransient(deadlock()));
+        assertTrue(RetryPolicy.isTransient(new RuntimeException(deadlock())));
+    }
+
+    @Test
+    void otherErrorsAreNotTransient() {
+        assertFalse(RetryPolicy.isTransient(new SQLException("Duplicate entry", "23000", 1062)));
+        assertFalse(RetryPolicy.isTransient(new SQLException("Communications link failure", "08S01", 0)));
+        assertFalse(RetryPolicy.isTransient(new DatabaseException("Updating vehicle failed, vehicle not found.")));
+        assertFalse(RetryPolicy.isTransient(new IllegalStateException("boom")));
+        assertFalse(RetryPolicy.isTransient(null));
+    }
+
+    @Test
+    void backoffRetriesTransientErrorsUntilMaxAttempts() {
+        RetryPolicy policy = RetryPolicy.idempotent("RetryPolicyTest.backoff");
+        int maxAttempts = policy.getMaxAttempts();
+        assertTrue(maxAttempts > 1);
+
+        for (int attempt = 1; attempt < maxAttempts; attempt++) {
+            assertTrue(policy.backoff(deadlock(), attempt));
+        }
+        assertFalse(policy.backoff(deadlock(), maxAttempts));
+        assertFalse(policy.backoff(new IllegalStateException("boom"), 1));
+    }
+
+    @Test
+    void backoffWaitStaysUnderTheExponentialCeiling() {
+        RetryPolicy policy = RetryPolicy.idempotent("RetryPolicyTest.delay");
+        long baseDelayMillis = DatabaseConnection.getLongProperty("db.retry.baseDelayMs", 20L);
+        long maxDelayMillis = DatabaseConnection.getLongProperty("db.retry.maxDelayMs", 500L);
+
+        for (int attempt = 1; attempt < policy.getMaxAttempts(); attempt++) {
+            long ceiling = Math.min(maxDelayMillis, baseDelayMillis << (attempt - 1));
+            long start = System.nanoTime();
+            assertTrue(policy.backoff(deadlock(), attempt));
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            // Margen para la planificación del hilo: el sorteo nunca pasa del techo
+            assertTrue(elapsedMillis <= ceiling + 200, "attempt " + attempt + " waited " + elapsedMillis + " ms");
+        }
+
+        // Intentos agotados o errores permanentes: sin espera
+        long start = System.nanoTime();
+        assertFalse(policy.backoff(deadlock(), policy.getMaxAttempts()));
+        assertFalse(policy.backoff(new IllegalStateException("boom"), 1));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 200);
+    }
+
+    @Test
+    void noneNeverRetries() {
+        assertEquals(1, RetryPolicy.none().getMaxAttempts());
+        assertFalse(RetryPolicy.none().backoff(deadlock(), 1));
+    }
+
+    @Test
+    void interruptedThreadStopsRetrying() {
+        RetryPolicy policy = RetryPolicy.idempotent("RetryPolicyTest.interrupt");
+        Thread.currentThread().interrupt();
+        try {
+            assertFalse(policy.backoff(deadlock(), 1));
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    void unitOfWorkRepeatsTheWholeTransactionOnTransientErrors() throws Exception {
+        TestDatabase.reset();
+        RetryPolicy policy = RetryPolicy.idempotent("RetryPolicyTest.unitOfWork");
+        AtomicInteger attempts = new AtomicInteger();
+        List<Integer> committedAttempts = new ArrayList<>();
+
+        String result = UnitOfWork.call(policy, conn -> {
+            int attempt = attempts.incrementAndGet();
+            // afterCommit de los intentos fallidos se descarta con su transacción
+            UnitOfWork.afterCommit(() -> committedAttempts.add(attempt));
+            if (attempt < policy.getMaxAttempts()) {
+                throw deadlock();
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", result);
+        assertEquals(policy.getMaxAttempts(), attempts.get());
+        assertEquals(List.of(policy.getMaxAttempts()), committedAttempts);
+    }
+
+    @Test
+    void unitOfWorkGivesUpAfterMaxAttemptsOrOnPermanentErrors() throws Exception {
+        TestDatabase.reset();
+        RetryPolicy policy = RetryPolicy.idempotent("RetryPolicyTest.exhausted");
+
+        AtomicInteger transientAttempts = new AtomicInteger();
+        DatabaseException last = deadlock();
+        DatabaseException thrown = assertThrows(DatabaseException.class, () -> UnitOfWork.run(policy, conn -> {
+            transientAttempts.incrementAndGet();
+            throw last;
+        }));
+        assertSame(last, thrown);
+        assertEquals(policy.getMaxAttempts(), transientAttempts.get());
+
+        AtomicInteger permanentAttempts = new AtomicInteger();
+        assertThrows(IllegalStateException.class, () -> UnitOfWork.run(policy, conn -> {
+            permanentAttempts.incrementAndGet();
+            throw new IllegalStateException("boom");
+        }));
+        assertEquals(1, permanentAttempts.get());
+
+        // Sin política no se reintenta ni siquiera un deadlock
+        AtomicInteger noRetryAttempts = new AtomicInteger();
+        assertThrows(DatabaseException.class, () -> UnitOfWork.run(conn -> {
+            noRetryAttempts.incrementAndGet();
+            throw deadlock();
+        }));
+        assertEquals(1, noRetryAttempts.get());
+    }
+}
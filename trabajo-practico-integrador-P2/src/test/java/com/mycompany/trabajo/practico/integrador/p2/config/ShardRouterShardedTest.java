@@ -0,0 +1,65 @@
+package com.mycompany.trabajo.practico.integrador.p2.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Corre en la ejecución "sharded" de surefire: dos shards H2
+class ShardRouterShardedTest {
+
+    @Test
+    void concurrentFanOutsShareABoundedPool() throws Exception {
+        int shards = ShardRouter.getShardCount();
+        int limit = shards * DatabaseConnection.getIntProperty("db.pool.maxSize", 10);
+        int callers = limit * 2;
+        Set<Thread> workers = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<List<Integer>>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return ShardRouter.fanOut(() -> {
+                        workers.add(Thread.currentThread());
+                        Thread.sleep(20);
+                        return ShardRouter.currentShard();
+                    });
+                }));
+            }
+            start.countDown();
+
+            for (Future<List<Integer>> result : results) {
+                assertEquals(List.of(0, 1), result.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // callers × shards tareas, pero nunca más hilos que N × db.pool.maxSize
+        assertTrue(workers.size() <= limit, "fan-out threads: " + workers.size());
+    }
+
+    @Test
+    void nestedFanOutRunsOnTheWorkerThread() throws Exception {
+        List<List<String>> nested = ShardRouter.fanOut(() -> {
+            Thread worker = Thread.currentThread();
+            return ShardRouter.fanOut(() -> Thread.currentThread() == worker
+                    ? "inline-" + ShardRouter.currentShard() : "other");
+        });
+
+        assertEquals(List.of(List.of("inline-0", "inline-1"), List.of("inline-0", "inline-1")), nested);
+    }
+}
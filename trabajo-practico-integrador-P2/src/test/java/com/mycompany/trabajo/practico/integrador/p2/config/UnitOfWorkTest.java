@@ -0,0 +1,156 @@
+package com.mycompany.trabajo.practico.integrador.p2.config;
+
+import com.mycompany.trabajo.practico.integrador.p2.TestDatabase;
+import com.mycompany.trabajo.practico.integrador.p2.daos.VehicleDao;
+import com.mycompany.trabajo.practico.integrador.p2.entities.Vehicle;
+import com.mycompany.trabajo.practico.integrador.p2.exceptions.DatabaseException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UnitOfWorkTest {
+
+    private final VehicleDao dao = new VehicleDao();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        TestDatabase.reset();
+    }
+
+    private void insert(String domain, Connection conn) throws Exception {
+        dao.create(new Vehicle(domain, "Ford", "Ka", 2020, domain + "CH"), conn);
+    }
+
+    // Consulta con una conexión propia del pool, fuera de la unidad: solo ve lo confirmado
+    private static boolean committed(String domain) throws Exception {
+        Connection conn = DatabaseConnection.borrowConnection();
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT 1 FROM vehicle WHERE domain = ?")) {
+            stmt.setString(1, domain);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        } finally {
+            DatabaseConnection.closeConnection(conn);
+        }
+    }
+
+    @Test
+    void commitsOnceAtTheEndOfTheOuterUnit() throws Exception {
+        UnitOfWork.run(conn -> {
+            insert("UOW1", conn);
+            assertFalse(committed("UOW1"));
+            // Las lecturas dentro de la unidad usan la misma conexión y ven lo escrito
+            assertSame(conn, DatabaseConnection.getConnection());
+            assertTrue(dao.findByDomain("UOW1", DatabaseConnection.getConnection()) != null);
+        });
+
+        assertTrue(committed("UOW1"));
+        assertFalse(UnitOfWork.isActive());
+        assertNull(UnitOfWork.currentConnection());
+    }
+
+    @Test
+    void nestedUnitsJoinTheOuterConnection() throws Exception {
+        List<Connection> seen = new ArrayList<>();
+        UnitOfWork.run(outer -> {
+            seen.add(outer);
+            UnitOfWork.run(inner -> {
+                seen.add(inner);
+                insert("UOW2", inner);
+            });
+            // La anidada terminó pero todavía no hay commit
+            assertFalse(committed("UOW2"));
+        });
+
+        assertSame(seen.get(0), seen.get(1));
+        assertTrue(committed("UOW2"));
+    }
+
+    @Test
+    void failureInsideTheUnitRollsBackEverything() throws Exception {
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> UnitOfWork.run(conn -> {
+            insert("UOW3", conn);
+            throw new IllegalStateException("boom");
+        }));
+
+        assertEquals("boom", e.getMessage());
+        assertFalse(committed("UOW3"));
+    }
+
+    @Test
+    void caughtNestedFailureStillMarksTheUnitRollbackOnly() throws Exception {
+        List<String> afterCommit = new ArrayList<>();
+
+        DatabaseException e = assertThrows(DatabaseException.class, () -> UnitOfWork.run(outer -> {
+            insert("UOW4", outer);
+            UnitOfWork.afterCommit(() -> afterCommit.add("outer"));
+            try {
+                UnitOfWork.run(inner -> {
+                    insert("UOW5", inner);
+                    throw new IllegalStateException("inner failed");
+                });
+            } catch (IllegalStateException ignored) {
+                // La externa sigue, pero ya no puede confirmar
+            }
+            insert("UOW6", outer);
+        }));
+
+        assertTrue(e.getMessage().contains("nested operation failed"));
+        assertFalse(committed("UOW4"));
+        assertFalse(committed("UOW5"));
+        assertFalse(committed("UOW6"));
+        assertTrue(afterCommit.isEmpty());
+    }
+
+    @Test
+    void afterCommitRunsOnlyAfterASuccessfulCommit() throws Exception {
+        List<Boolean> visibleAtCallback = new ArrayList<>();
+        UnitOfWork.run(conn -> {
+            insert("UOW7", conn);
+            UnitOfWork.afterCommit(() -> {
+                try {
+                    visibleAtCallback.add(committed("UOW7"));
+                } catch (Exception ex) {
+                    throw new IllegalStateException(ex);
+                }
+            });
+            assertTrue(visibleAtCallback.isEmpty());
+        });
+        assertEquals(List.of(true), visibleAtCallback);
+
+        // Sin transacción activa se ejecuta enseguida
+        List<String> immediate = new ArrayList<>();
+        UnitOfWork.afterCommit(() -> immediate.add("now"));
+        assertEquals(List.of("now"), immediate);
+    }
+
+    @Test
+    void connectionIsReleasedAndAutocommitRestored() throws Exception {
+        Connection[] bound = new Connection[1];
+        UnitOfWork.run(conn -> {
+            assertFalse(conn.getAutoCommit());
+            bound[0] = conn;
+        });
+
+        assertFalse(UnitOfWork.isBound(bound[0]));
+        // El pool entrega conexiones en autocommit fuera de la unidad
+        Connection conn = DatabaseConnection.getConnection();
+        try {
+            assertTrue(conn.getAutoCommit());
+        } finally {
+            DatabaseConnection.closeConnection(conn);
+        }
+    }
+}
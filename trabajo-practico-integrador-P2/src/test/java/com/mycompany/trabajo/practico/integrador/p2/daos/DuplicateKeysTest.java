@@ -0,0 +1,49 @@
+package com.mycompany.trabajo.practico.integrador.p2.daos;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DuplicateKeysTest {
+
+    @Test
+    void recognizesMySqlErrorCodeAndStandardSqlState() {
+        assertTrue(DuplicateKeys.isDuplicateKey(new SQLException("Duplicate entry", "23000", 1062)));
+        assertTrue(DuplicateKeys.isDuplicateKey(new SQLException("Unique index violation", "23505", 0)));
+        // Otras violaciones de integridad (p. ej. clave foránea) no son duplicados
+        assertFalse(DuplicateKeys.isDuplicateKey(new SQLException("Cannot add or update a child row", "23000", 1452)));
+    }
+
+    @Test
+    void looksThroughChainedExceptions() {
+        SQLException batch = new SQLException("Batch entry 2 failed", "HY000", 0);
+        batch.setNextException(new SQLException("Duplicate entry 'AA1' for key 'vehicle.domain'", "23000", 1062));
+        assertTrue(DuplicateKeys.isDuplicateKey(batch));
+    }
+
+    @Test
+    void readsTheColumnFromTheMySqlKeyName() {
+        SQLException e = new SQLException("Duplicate entry 'CH-1' for key 'vehicle.chasis_number'", "23000", 1062);
+        assertEquals("chasis_number", DuplicateKeys.column(e, "domain", "chasis_number", "insurance_vehicle_id"));
+    }
+
+    @Test
+    void ignoresColumnsNamedOnlyInTheStatementText() {
+        // H2 agrega la sentencia al mensaje: "domain" aparece en el INSERT pero la clave violada es otra
+        SQLException e = new SQLException("Unique index or primary key violation: \"PUBLIC.CONSTRAINT_INDEX_1 ON "
+                + "PUBLIC.VEHICLE(CHASIS_NUMBER NULLS FIRST)\"; SQL statement: INSERT INTO Vehicle (isActive, domain, "
+                + "chasis_number) VALUES (?, ?, ?)", "23505", 23505);
+        assertEquals("chasis_number", DuplicateKeys.column(e, "domain", "chasis_number"));
+    }
+
+    @Test
+    void unknownKeyGivesNoColumn() {
+        SQLException e = new SQLException("Duplicate entry '1' for key 'vehicle.PRIMARY'", "23000", 1062);
+        assertNull(DuplicateKeys.column(e, "domain", "chasis_number"));
+    }
+}
@@ -0,0 +1,80 @@
+package com.mycompany.trabajo.practico.integrador.p2.daos;
+
+import com.mycompany.trabajo.practico.integrador.p2.config.DatabaseConnection;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InClauseTest {
+
+    @Test
+    void slotsRoundUpToThePowerOfTwoCappedAtTheChunkSize() {
+        assertEquals(1, InClause.slots(0, 500));
+        assertEquals(1, InClause.slots(1, 500));
+        assertEquals(2, InClause.slots(2, 500));
+        assertEquals(4, InClause.slots(3, 500));
+        assertEquals(4, InClause.slots(4, 500));
+        assertEquals(8, InClause.slots(5, 500));
+        assertEquals(512, InClause.slots(257, 1024));
+        // El tope no tiene que ser potencia de 2
+        assertEquals(500, InClause.slots(300, 500));
+        assertEquals(500, InClause.slots(500, 500));
+    }
+
+    @Test
+    void placeholdersAreCommaSeparated() {
+        assertEquals("?", InClause.placeholders(1));
+        assertEquals("?, ?, ?", InClause.placeholders(3));
+    }
+
+    @Test
+    void chunksDropNullsAndDuplicatesAfterNormalizing() {
+        Function<String, String> upper = s -> s.toUpperCase(Locale.ROOT);
+        List<List<String>> chunks = InClause.chunks(Arrays.asList("aa1", null, "AA1", "bb2", "cc3", "Bb2", "dd4", "ee5"),
+                upper, 2);
+
+        assertEquals(List.of(List.of("AA1", "BB2"), List.of("CC3", "DD4"), List.of("EE5")), chunks);
+        assertTrue(InClause.chunks(Arrays.asList(null, null), upper, 2).isEmpty());
+    }
+
+    @Test
+    void chunksFillExactMultiplesWithoutAnEmptyTail() {
+        List<List<Long>> chunks = InClause.chunks(List.of(1L, 2L, 3L, 4L), Function.identity(), 2);
+        assertEquals(List.of(List.of(1L, 2L), List.of(3L, 4L)), chunks);
+    }
+
+    @Test
+    void bindRepeatsTheLastKeyInTheSpareSlots() throws Exception {
+        Connection conn = DatabaseConnection.getConnection();
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT CAST(? AS BIGINT), CAST(? AS BIGINT), "
+                + "CAST(? AS BIGINT), CAST(? AS BIGINT)")) {
+            InClause.bind(stmt, List.of(7L, 8L, 9L), InClause.slots(3, 500));
+            try (ResultSet rs = stmt.executeQuery()) {
+                assertTrue(rs.next());
+                assertEquals(List.of(7L, 8L, 9L, 9L), List.of(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4)));
+            }
+        } finally {
+            DatabaseConnection.closeConnection(conn);
+        }
+    }
+
+    @Test
+    void byInputKeyKeepsTheCallerKeysAndOrder() {
+        Map<String, Integer> found = Map.of("AA1", 1, "CC3", 3);
+        Map<String, Integer> result = InClause.byInputKey(Arrays.asList("cc3", null, "bb2", "aa1"),
+                s -> s.toUpperCase(Locale.ROOT), found);
+
+        assertEquals(List.of("cc3", "aa1"), List.copyOf(result.keySet()));
+        assertEquals(3, result.get("cc3"));
+    }
+}
@@ -0,0 +1,86 @@
+package com.mycompany.trabajo.practico.integrador.p2.daos;
+
+import com.mycompany.trabajo.practico.integrador.p2.TestDatabase;
+import com.mycompany.trabajo.practico.integrador.p2.config.DatabaseConnection;
+import com.mycompany.trabajo.practico.integrador.p2.entities.InsuranceVehicle;
+import com.mycompany.trabajo.practico.integrador.p2.entities.enums.CoverType;
+import com.mycompany.trabajo.practico.integrador.p2.exceptions.DatabaseException;
+import com.mycompany.trabajo.practico.integrador.p2.exceptions.DuplicateEntityException;
+import com.mycompany.trabajo.practico.integrador.p2.exceptions.OptimisticLockException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InsuranceVehicleDaoTest {
+
+    private final InsuranceVehicleDao dao = new InsuranceVehicleDao();
+    private Connection conn;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        TestDatabase.reset();
+        conn = DatabaseConnection.getConnection();
+    }
+
+    @AfterEach
+    void tearDown() {
+        DatabaseConnection.closeConnection(conn);
+    }
+
+    private static InsuranceVehicle insurance(String policyNumber) {
+        return new InsuranceVehicle(null, "La Segunda", policyNumber, CoverType.TODO_RIESGO, LocalDate.now().plusYears(1));
+    }
+
+    @Test
+    void duplicatePolicyNumberMapsToItsColumn() throws Exception {
+        dao.create(insurance("POL-1"), conn);
+
+        DuplicateEntityException e = assertThrows(DuplicateEntityException.class,
+                () -> dao.create(insurance("POL-1"), conn));
+        assertEquals("policy_number", e.getColumn());
+        assertTrue(e.getMessage().contains("POL-1"));
+
+        DuplicateEntityException batch = assertThrows(DuplicateEntityException.class,
+                () -> dao.createAll(List.of(insurance("POL-2"), insurance("POL-1")), conn));
+        assertEquals("policy_number", batch.getColumn());
+    }
+
+    @Test
+    void updatingToAnExistingPolicyNumberIsADuplicate() throws Exception {
+        dao.create(insurance("POL-A"), conn);
+        InsuranceVehicle other = insurance("POL-B");
+        dao.create(other, conn);
+
+        other.setPolicyNumber("POL-A");
+        DuplicateEntityException e = assertThrows(DuplicateEntityException.class, () -> dao.update(other, conn));
+        assertEquals("policy_number", e.getColumn());
+    }
+
+    @Test
+    void staleVersionIsAConflictAndDeletedRowsAreNot() throws Exception {
+        InsuranceVehicle created = insurance("POL-V");
+        dao.create(created, conn);
+        InsuranceVehicle first = dao.findVehicleById(created.getId(), conn);
+        InsuranceVehicle second = dao.findVehicleById(created.getId(), conn);
+
+        first.setInsuranceName("Sancor");
+        dao.update(first, conn);
+        assertEquals(1L, first.getVersion());
+
+        second.setInsuranceName("Rivadavia");
+        OptimisticLockException e = assertThrows(OptimisticLockException.class, () -> dao.update(second, conn));
+        assertEquals("Insurance", e.getEntity());
+        assertEquals("Sancor", dao.findVehicleById(created.getId(), conn).getInsuranceName());
+
+        dao.delete(created.getId(), conn);
+        assertThrows(DatabaseException.class, () -> dao.update(first, conn));
+    }
+}
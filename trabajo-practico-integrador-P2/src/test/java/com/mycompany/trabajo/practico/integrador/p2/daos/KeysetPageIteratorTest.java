@@ -0,0 +1,98 @@
+package com.mycompany.trabajo.practico.integrador.p2.daos;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeysetPageIteratorTest {
+
+    // Tabla en memoria: IDs ordenados, cada consulta queda registrada con su afterId
+    private static final class Table implements KeysetPageIterator.PageFetcher<Long> {
+        private final List<Long> ids;
+        private final int pageSize;
+        private final List<Long> fetches = new ArrayList<>();
+
+        private Table(int pageSize, long... ids) {
+            this.ids = LongStream.of(ids).boxed().collect(Collectors.toList());
+            this.pageSize = pageSize;
+        }
+
+        @Override
+        public List<Long> fetch(Long afterId) {
+            fetches.add(afterId);
+            return ids.stream().filter(id -> id > afterId).limit(pageSize).collect(Collectors.toList());
+        }
+    }
+
+    private static List<Long> viaStream(Table table) {
+        return KeysetPageIterator.stream(table, Function.identity(), table.pageSize).collect(Collectors.toList());
+    }
+
+    private static List<Long> viaForEach(Table table) throws Exception {
+        List<Long> seen = new ArrayList<>();
+        KeysetPageIterator.forEach(table, Function.identity(), table.pageSize, seen::add);
+        return seen;
+    }
+
+    @Test
+    void emptyTableReadsOnePage() throws Exception {
+        Table streamed = new Table(3);
+        assertTrue(viaStream(streamed).isEmpty());
+        assertEquals(List.of(0L), streamed.fetches);
+
+        Table visited = new Table(3);
+        assertTrue(viaForEach(visited).isEmpty());
+        assertEquals(List.of(0L), visited.fetches);
+    }
+
+    @Test
+    void lastPartialPageEndsWithoutAnExtraQuery() throws Exception {
+        Table streamed = new Table(3, 1, 4, 5, 9, 12);
+        assertEquals(List.of(1L, 4L, 5L, 9L, 12L), viaStream(streamed));
+        assertEquals(List.of(0L, 5L), streamed.fetches);
+
+        Table visited = new Table(3, 1, 4, 5, 9, 12);
+        assertEquals(List.of(1L, 4L, 5L, 9L, 12L), viaForEach(visited));
+        assertEquals(List.of(0L, 5L), visited.fetches);
+    }
+
+    @Test
+    void exactMultipleOfThePageSizeNeedsAnEmptyPageToStop() throws Exception {
+        // Con 6 filas y páginas de 3 no se sabe que terminó hasta leer una página vacía
+        Table streamed = new Table(3, 2, 3, 7, 8, 10, 11);
+        assertEquals(List.of(2L, 3L, 7L, 8L, 10L, 11L), viaStream(streamed));
+        assertEquals(List.of(0L, 7L, 11L), streamed.fetches);
+
+        Table visited = new Table(3, 2, 3, 7, 8, 10, 11);
+        assertEquals(List.of(2L, 3L, 7L, 8L, 10L, 11L), viaForEach(visited));
+        assertEquals(List.of(0L, 7L, 11L), visited.fetches);
+    }
+
+    @Test
+    void streamReadsPagesOnlyAsTheyAreConsumed() {
+        Table table = new Table(2, 1, 2, 3, 4, 5);
+        List<Long> firstThree = KeysetPageIterator.stream(table, Function.identity(), 2)
+                .limit(3).collect(Collectors.toList());
+
+        assertEquals(List.of(1L, 2L, 3L), firstThree);
+        assertEquals(List.of(0L, 2L), table.fetches);
+    }
+
+    @Test
+    void fetchErrorsSurfaceFromTheIterator() {
+        KeysetPageIterator<Long> iterator = new KeysetPageIterator<>(afterId -> {
+            throw new IllegalArgumentException("boom");
+        }, Function.identity(), 2);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, iterator::hasNext);
+        assertTrue(e.getMessage().contains("after id 0"));
+    }
+}
@@ -0,0 +1,214 @@
+package com.mycompany.trabajo.practico.integrador.p2.daos;
+
+import com.mycompany.trabajo.practico.integrador.p2.TestDatabase;
+import com.mycompany.trabajo.practico.integrador.p2.config.DatabaseConnection;
+import com.mycompany.trabajo.practico.integrador.p2.entities.InsuranceVehicle;
+import com.mycompany.trabajo.practico.integrador.p2.entities.Vehicle;
+import com.mycompany.trabajo.practico.integrador.p2.entities.enums.CoverType;
+import com.mycompany.trabajo.practico.integrador.p2.exceptions.DatabaseException;
+import com.mycompany.trabajo.practico.integrador.p2.exceptions.DuplicateEntityException;
+import com.mycompany.trabajo.practico.integrador.p2.exceptions.OptimisticLockException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VehicleDaoTest {
+
+    private final VehicleDao dao = new VehicleDao();
+    private Connection conn;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        TestDatabase.reset();
+        conn = DatabaseConnection.getConnection();
+    }
+
+    @AfterEach
+    void tearDown() {
+        DatabaseConnection.closeConnection(conn);
+    }
+
+    private List<Long> insert(String prefix, int count) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Vehicle vehicle = new Vehicle(prefix + i, "Ford", "Ka", 2020, prefix + "CH" + i);
+            dao.create(vehicle, conn);
+            ids.add(vehicle.getVehicleId());
+        }
+        return ids;
+    }
+
+    private static List<Long> ids(List<Vehicle> vehicles) {
+        return vehicles.stream().map(Vehicle::getVehicleId).collect(Collectors.toList());
+    }
+
+    @Test
+    void readPageOnAnEmptyTableIsEmpty() throws Exception {
+        assertTrue(dao.readPage(null, 10, conn).isEmpty());
+        assertTrue(dao.readPage(0L, 10, conn).isEmpty());
+    }
+
+    @Test
+    void readPageStartsAfterTheGivenIdAndStopsAtTheLimit() throws Exception {
+        List<Long> ids = insert("PG", 5);
+
+        assertEquals(ids.subList(0, 2), ids(dao.readPage(null, 2, conn)));
+        assertEquals(ids.subList(2, 4), ids(dao.readPage(ids.get(1), 2, conn)));
+        assertEquals(ids.subList(4, 5), ids(dao.readPage(ids.get(3), 2, conn)));
+        assertTrue(dao.readPage(ids.get(4), 2, conn).isEmpty());
+        assertTrue(dao.readPage(ids.get(4) + 1000, 2, conn).isEmpty());
+    }
+
+    @Test
+    void readPageSkipsDeletedRowsWithoutShortPages() throws Exception {
+        List<Long> ids = insert("DL", 6);
+        dao.delete(ids.get(1), conn);
+        dao.delete(ids.get(2), conn);
+
+        // La página se completa con las filas activas siguientes
+        assertEquals(List.of(ids.get(0), ids.get(3), ids.get(4)), ids(dao.readPage(null, 3, conn)));
+        assertEquals(List.of(ids.get(5)), ids(dao.readPage(ids.get(4), 3, conn)));
+    }
+
+    @Test
+    void streamAndForEachVisitEveryActiveRowOnce() throws Exception {
+        // db.pageSize = 3 en los tests: 6 filas activas llenan justo dos páginas
+        List<Long> ids = insert("ST", 7);
+        dao.delete(ids.get(6), conn);
+        List<Long> expected = ids.subList(0, 6);
+
+        assertEquals(expected, ids(dao.stream(conn).collect(Collectors.toList())));
+
+        List<Vehicle> visited = new ArrayList<>();
+        dao.stream(visited::add, conn);
+        assertEquals(expected, ids(visited));
+    }
+
+    @Test
+    void duplicateDomainAndChassisMapToTheirColumn() throws Exception {
+        insert("DUP", 1);
+
+        DuplicateEntityException domain = assertThrows(DuplicateEntityException.class,
+                () -> dao.create(new Vehicle("DUP0", "Fiat", "Uno", 2010, "OTHERCH"), conn));
+        assertEquals("domain", domain.getColumn());
+
+        DuplicateEntityException chassis = assertThrows(DuplicateEntityException.class,
+                () -> dao.create(new Vehicle("NEWDOM", "Fiat", "Uno", 2010, "DUPCH0"), conn));
+        assertEquals("chasis_number", chassis.getColumn());
+
+        // El alta fallida no deja filas
+        assertNull(dao.findByDomain("NEWDOM", conn));
+    }
+
+    @Test
+    void duplicateInsideABatchIsReported() throws Exception {
+        insert("BAT", 1);
+        List<Vehicle> batch = List.of(new Vehicle("BATX", "Fiat", "Uno", 2010, "BATXCH"),
+                new Vehicle("BAT0", "Fiat", "Uno", 2010, "BATYCH"));
+
+        DuplicateEntityException e = assertThrows(DuplicateEntityException.class, () -> dao.createAll(batch, conn));
+        assertEquals("domain", e.getColumn());
+    }
+
+    @Test
+    void insuranceAlreadyLinkedToAnotherVehicleIsADuplicate() throws Exception {
+        InsuranceVehicle insurance = new InsuranceVehicle(null, "La Segunda", "POL-LINK", CoverType.RC,
+                LocalDate.now().plusYears(1));
+        new InsuranceVehicleDao().create(insurance, conn);
+
+        Vehicle first = new Vehicle("LNK1", "Ford", "Ka", 2020, "LNK1CH");
+        first.setInsurance(insurance);
+        dao.create(first, conn);
+
+        Vehicle second = new Vehicle("LNK2", "Ford", "Ka", 2020, "LNK2CH");
+        second.setInsurance(insurance);
+        DuplicateEntityException e = assertThrows(DuplicateEntityException.class, () -> dao.create(second, conn));
+        assertEquals("insurance_vehicle_id", e.getColumn());
+    }
+
+    @Test
+    void findByIdsSpansSeveralInChunks() throws Exception {
+        // db.lookup.chunkSize = 4 en los tests: 10 claves distintas van en bloques de 4, 4 y 2
+        List<Long> ids = insert("IN", 10);
+        dao.delete(ids.get(9), conn);
+        List<Long> wanted = Arrays.asList(ids.get(9), ids.get(0), null, ids.get(3), ids.get(0), ids.get(5),
+                ids.get(6), ids.get(7), ids.get(8), ids.get(1), -1L, ids.get(2));
+
+        Map<Long, Vehicle> found = dao.findByIds(wanted, conn);
+
+        // Sin nulos, repetidos, inexistentes ni dados de baja, en el orden pedido
+        assertEquals(List.of(ids.get(0), ids.get(3), ids.get(5), ids.get(6), ids.get(7), ids.get(8), ids.get(1),
+                ids.get(2)), List.copyOf(found.keySet()));
+        found.forEach((id, vehicle) -> assertEquals(id, vehicle.getVehicleId()));
+    }
+
+    @Test
+    void findByDomainsMatchesRegardlessOfCase() throws Exception {
+        insert("CS", 3);
+
+        Map<String, Vehicle> found = dao.findByDomains(List.of("cs2", "CS0", "cs9"), conn);
+
+        assertEquals(List.of("cs2", "CS0"), List.copyOf(found.keySet()));
+        assertEquals("CS2", found.get("cs2").getDomain());
+    }
+
+    @Test
+    void updateIncrementsTheVersion() throws Exception {
+        Long id = insert("VER", 1).get(0);
+        Vehicle vehicle = dao.findVehicleById(id, conn);
+        assertEquals(0L, vehicle.getVersion());
+
+        vehicle.setBrand("Fiat");
+        dao.update(vehicle, conn);
+        assertEquals(1L, vehicle.getVersion());
+
+        Vehicle reloaded = dao.findVehicleById(id, conn);
+        assertEquals(1L, reloaded.getVersion());
+        assertEquals("Fiat", reloaded.getBrand());
+    }
+
+    @Test
+    void staleVersionIsAConflictAndLeavesTheRowUntouched() throws Exception {
+        Long id = insert("OLD", 1).get(0);
+        Vehicle first = dao.findVehicleById(id, conn);
+        Vehicle second = dao.findVehicleById(id, conn);
+
+        first.setBrand("Fiat");
+        dao.update(first, conn);
+
+        second.setBrand("Renault");
+        OptimisticLockException e = assertThrows(OptimisticLockException.class, () -> dao.update(second, conn));
+        assertEquals(id, e.getId());
+        assertEquals(0L, e.getExpectedVersion());
+        // La versión del objeto rechazado no avanza
+        assertEquals(0L, second.getVersion());
+
+        Vehicle current = dao.findVehicleById(id, conn);
+        assertEquals("Fiat", current.getBrand());
+        assertEquals(1L, current.getVersion());
+    }
+
+    @Test
+    void updatingADeletedVehicleIsNotAVersionConflict() throws Exception {
+        Long id = insert("GONE", 1).get(0);
+        Vehicle vehicle = dao.findVehicleById(id, conn);
+        dao.delete(id, conn);
+
+        vehicle.setBrand("Fiat");
+        DatabaseException e = assertThrows(DatabaseException.class, () -> dao.update(vehicle, conn));
+        assertTrue(e.getMessage().contains("not found or already deleted"));
+    }
+}
@@ -0,0 +1,61 @@
+package com.mycompany.trabajo.practico.integrador.p2.diagnostics;
+
+import com.mycompany.trabajo.practico.integrador.p2.TestDatabase;
+import com.mycompany.trabajo.practico.integrador.p2.config.DatabaseConnection;
+import com.mycompany.trabajo.practico.integrador.p2.entities.InsuranceVehicle;
+import com.mycompany.trabajo.practico.integrador.p2.entities.Vehicle;
+import com.mycompany.trabajo.practico.integrador.p2.entities.enums.CoverType;
+import com.mycompany.trabajo.practico.integrador.p2.services.VehicleService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Corre el diagnóstico de planes contra H2 (EXPLAIN de texto): cada método de DAO tiene que poder capturarse
+ * y los planes no pueden empeorar respecto de la línea base escrita por la misma prueba.
+ */
+class QueryPlanCheckTest {
+
+    @BeforeAll
+    static void loadSample() throws Exception {
+        TestDatabase.reset();
+        Vehicle vehicle = new Vehicle("QP001AA", "Ford", "Ka", 2020, "QP-CHASSIS-1");
+        vehicle.setInsurance(new InsuranceVehicle(null, "Seguro", "QP-POL-1", CoverType.RC, LocalDate.now().plusYears(1)));
+        new VehicleService().insert(vehicle);
+    }
+
+    @Test
+    void capturesEveryDaoMethodWithoutRegressions() throws Exception {
+        QueryPlanCheck check = new QueryPlanCheck();
+        assertEquals(0, check.run(true));
+        assertEquals(0, check.run(false));
+    }
+
+    @Test
+    void worseAccessThanTheBaselineIsARegression() throws Exception {
+        QueryPlanCheck check = new QueryPlanCheck();
+        assertEquals(0, check.run(true));
+
+        // Línea base con un acceso mejor que el que H2 puede dar (const en lugar de index)
+        Path baselineFile = Paths.get(DatabaseConnection.getProperty("explain.baseline", "explain-baseline.properties"));
+        Properties baseline = new Properties();
+        try (InputStream input = Files.newInputStream(baselineFile)) {
+            baseline.load(input);
+        }
+        baseline.setProperty("VehicleDao.findByDomain", "access=v:const,iv:const flags=-");
+        try (OutputStream output = Files.newOutputStream(baselineFile)) {
+            baseline.store(output, null);
+        }
+
+        assertEquals(1, check.run(false));
+    }
+}
@@ -0,0 +1,135 @@
+package com.mycompany.trabajo.practico.integrador.p2.diagnostics;
+
+import com.mycompany.trabajo.practico.integrador.p2.config.DatabaseConnection;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlowQueryLogTest {
+
+    // db.slowQuery.thresholdMs = 200 en los tests (configuración de surefire)
+    private static final long FETCH_PAUSE_MILLIS = 120;
+    // El archivo de registro sobrevive entre corridas: cada sentencia lleva una marca propia
+    private static final String RUN = UUID.randomUUID().toString();
+
+    // Sentencia del "driver": executeQuery() vuelve enseguida y cada next() tarda rowPauseMillis
+    private static PreparedStatement driverStatement(int rows, long rowPauseMillis) {
+        int[] position = {0};
+        ResultSet rs = (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("next")) {
+                        Thread.sleep(rowPauseMillis);
+                        return position[0]++ < rows;
+                    }
+                    if (method.getName().equals("getLong")) {
+                        return (long) position[0];
+                    }
+                    return null;
+                });
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, (proxy, method, args) ->
+                        method.getName().equals("executeQuery") ? rs : null);
+    }
+
+    private static List<String> entriesFor(String sql, long waitMillis) throws Exception {
+        Path file = Paths.get(DatabaseConnection.getProperty("db.slowQuery.file", ""));
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMillis);
+        List<String> lines = List.of();
+        // La escritura la hace el hilo del registro: esperar hasta que aparezca o venza el plazo
+        while (System.nanoTime() < deadline) {
+            if (Files.exists(file)) {
+                lines = Files.readAllLines(file);
+                if (lines.stream().anyMatch(line -> line.contains(sql))) {
+                    break;
+                }
+            }
+            Thread.sleep(20);
+        }
+        List<String> snapshot = lines;
+        // Cada entrada es la línea "SLOW ..." seguida de "  sql: ..."
+        return IntStream.range(1, snapshot.size())
+                .filter(i -> snapshot.get(i).contains(sql))
+                .mapToObj(i -> snapshot.get(i - 1))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void slowFetchAfterAFastExecuteIsLoggedWithItsRowCount() throws Exception {
+        String sql = "SELECT vehicle_id FROM vehicle /* slow-fetch " + RUN + " */ WHERE brand = ?";
+        TimedPreparedStatement stmt = new TimedPreparedStatement(driverStatement(3, FETCH_PAUSE_MILLIS), null, sql);
+        stmt.setString(1, "Ford");
+
+        long start = System.nanoTime();
+        long read = 0;
+        try (ResultSet rs = stmt.executeQuery()) {
+            // La ejecución sola queda por debajo del umbral
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 200);
+            assertSame(stmt, rs.getStatement());
+            while (rs.next()) {
+                read++;
+            }
+        }
+        assertEquals(3, read);
+
+        List<String> entries = entriesFor(sql, 5000);
+        assertEquals(1, entries.size(), "entries: " + entries);
+        assertTrue(entries.get(0).contains(" SLOW "), entries.get(0));
+        assertTrue(entries.get(0).contains("rows=3"), entries.get(0));
+    }
+
+    @Test
+    void closingBeforeTheEndStillReportsTheRowsRead() throws Exception {
+        String sql = "SELECT vehicle_id FROM vehicle /* closed-early " + RUN + " */";
+        TimedPreparedStatement stmt = new TimedPreparedStatement(driverStatement(10, FETCH_PAUSE_MILLIS), null, sql);
+
+        try (ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            rs.next();
+        }
+
+        List<String> entries = entriesFor(sql, 5000);
+        assertEquals(1, entries.size(), "entries: " + entries);
+        assertTrue(entries.get(0).contains("rows=2"), entries.get(0));
+    }
+
+    @Test
+    void fastQueriesAreNotLogged() throws Exception {
+        String sql = "SELECT vehicle_id FROM vehicle /* fast-fetch " + RUN + " */";
+        TimedPreparedStatement stmt = new TimedPreparedStatement(driverStatement(3, 0), null, sql);
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                rs.getLong(1);
+            }
+        }
+
+        assertTrue(entriesFor(sql, 500).isEmpty());
+    }
+
+    @Test
+    void realConnectionsHandOutTimedResultSets() throws Exception {
+        Connection conn = DatabaseConnection.getConnection();
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT 1");
+             ResultSet rs = stmt.executeQuery()) {
+            assertTrue(rs instanceof TimedResultSet);
+            assertTrue(rs.next());
+            assertEquals(1, rs.getInt(1));
+        } finally {
+            DatabaseConnection.closeConnection(conn);
+        }
+    }
+}
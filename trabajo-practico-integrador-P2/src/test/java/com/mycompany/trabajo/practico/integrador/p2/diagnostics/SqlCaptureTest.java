@@ -0,0 +1,69 @@
+package com.mycompany.trabajo.practico.integrador.p2.diagnostics;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SqlCaptureTest {
+
+    @Test
+    void recordsPreparedSqlAndParametersUnderTheLabel() throws Exception {
+        SqlCapture capture = new SqlCapture();
+        Connection conn = capture.connection();
+
+        capture.begin("Dao.find");
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT * FROM vehicle WHERE domain = ? AND year > ?")) {
+            stmt.setString(1, "AA123BB");
+            stmt.setNull(2, java.sql.Types.INTEGER);
+            try (ResultSet rs = stmt.executeQuery()) {
+                assertFalse(rs.next());
+            }
+        }
+        conn.prepareStatement("SELECT 1");
+
+        List<SqlCapture.CapturedStatement> statements = capture.getStatements();
+        assertEquals(2, statements.size());
+        assertEquals("Dao.find", statements.get(0).getId());
+        assertEquals("Dao.find#2", statements.get(1).getId());
+        assertEquals("AA123BB", statements.get(0).getParameters().get(1));
+        assertNull(statements.get(0).getParameters().get(2));
+    }
+
+    @Test
+    void keepsOnlyTheFirstBatchRow() throws Exception {
+        SqlCapture capture = new SqlCapture();
+        capture.begin("Dao.createAll");
+        PreparedStatement stmt = capture.connection().prepareStatement("INSERT INTO vehicle (domain) VALUES (?)");
+        stmt.setString(1, "FIRST");
+        stmt.addBatch();
+        stmt.setString(1, "SECOND");
+        stmt.addBatch();
+
+        assertEquals(0, stmt.executeBatch().length);
+        assertEquals("FIRST", capture.getStatements().get(0).getParameters().get(1));
+    }
+
+    @Test
+    void plainStatementsAndOtherJdbcCallsDoNothing() throws Exception {
+        SqlCapture capture = new SqlCapture();
+        Connection conn = capture.connection();
+
+        try (Statement stmt = conn.createStatement()) {
+            assertFalse(stmt.executeQuery("SELECT 1").next());
+            assertEquals(0, stmt.executeUpdate("DELETE FROM vehicle"));
+        }
+        ResultSet rs = conn.prepareStatement("SELECT year FROM vehicle").executeQuery();
+        assertEquals(0.0, rs.getDouble(1));
+        assertEquals((short) 0, rs.getShort(1));
+        // Solo se registra la sentencia preparada
+        assertEquals(1, capture.getStatements().size());
+    }
+}
@@ -0,0 +1,99 @@
+package com.mycompany.trabajo.practico.integrador.p2.services;
+
+import com.mycompany.trabajo.practico.integrador.p2.TestDatabase;
+import com.mycompany.trabajo.practico.integrador.p2.config.DatabaseConnection;
+import com.mycompany.trabajo.practico.integrador.p2.config.ShardRouter;
+import com.mycompany.trabajo.practico.integrador.p2.entities.Vehicle;
+import com.mycompany.trabajo.practico.integrador.p2.metrics.Metrics;
+import com.mycompany.trabajo.practico.integrador.p2.metrics.OperationMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Corre en la ejecución "sharded" de surefire: dos shards H2 y db.pageSize = 3
+class VehicleServiceShardedTest {
+
+    private static final int ROWS = 20;
+    private static final OperationMetrics READ_PAGE = Metrics.operation("VehicleDao.readPage");
+
+    private final VehicleService service = new VehicleService();
+    private final int pageSize = DatabaseConnection.getIntProperty("db.pageSize", 500);
+    private List<Long> ids;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        assertEquals(2, ShardRouter.getShardCount());
+        TestDatabase.reset();
+
+        ids = new ArrayList<>();
+        int[] perShard = new int[ShardRouter.getShardCount()];
+        for (int i = 0; i < ROWS; i++) {
+            Vehicle vehicle = new Vehicle("SH" + i, "Ford", "Ka", 2020, "SHCH" + i);
+            service.insert(vehicle);
+            ids.add(vehicle.getVehicleId());
+            perShard[ShardRouter.shardForId(vehicle.getVehicleId())]++;
+        }
+        ids.sort(null);
+        // Las patentes se reparten entre los dos shards
+        assertTrue(perShard[0] > 0 && perShard[1] > 0);
+    }
+
+    @Test
+    void streamAllReadsEachRowOnceInIdOrder() {
+        long before = READ_PAGE.getRows();
+
+        List<Long> streamed;
+        try (Stream<Vehicle> stream = service.streamAll()) {
+            streamed = stream.map(Vehicle::getVehicleId).collect(Collectors.toList());
+        }
+
+        assertEquals(ids, streamed);
+        // Un cursor por shard: se leen pageSize filas por página entregada, no N × pageSize
+        assertEquals(ROWS, READ_PAGE.getRows() - before);
+    }
+
+    @Test
+    void streamAllReadsOnlyWhatIsConsumed() {
+        long before = READ_PAGE.getRows();
+        List<Long> firstPage = service.streamAll().limit(pageSize).map(Vehicle::getVehicleId)
+                .collect(Collectors.toList());
+
+        assertEquals(ids.subList(0, pageSize), firstPage);
+        // La primera página de cada shard y, como mucho, una más del shard que se agotó
+        long read = READ_PAGE.getRows() - before;
+        assertTrue(read <= (ShardRouter.getShardCount() + 1L) * pageSize, "rows read: " + read);
+
+        // Nada se lee hasta pedir la primera fila
+        before = READ_PAGE.getRows();
+        service.streamAll();
+        assertEquals(before, READ_PAGE.getRows());
+    }
+
+    @Test
+    void getAllWithConsumerMatchesTheStream() throws Exception {
+        long before = READ_PAGE.getRows();
+        List<Long> visited = new ArrayList<>();
+        service.getAll(vehicle -> visited.add(vehicle.getVehicleId()));
+
+        assertEquals(ids, visited);
+        assertEquals(ROWS, READ_PAGE.getRows() - before);
+    }
+
+    @Test
+    void getPageFansOutToEveryShard() throws Exception {
+        // Una página suelta sí necesita pageSize filas de cada shard para elegir las primeras
+        long before = READ_PAGE.getRows();
+        List<Long> page = service.getPage(null, pageSize).stream().map(Vehicle::getVehicleId)
+                .collect(Collectors.toList());
+
+        assertEquals(ids.subList(0, pageSize), page);
+        assertEquals((long) ShardRouter.getShardCount() * pageSize, READ_PAGE.getRows() - before);
+    }
+}
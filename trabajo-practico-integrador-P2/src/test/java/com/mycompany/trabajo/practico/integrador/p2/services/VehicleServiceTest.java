@@ -0,0 +1,76 @@
+package com.mycompany.trabajo.practico.integrador.p2.services;
+
+import com.mycompany.trabajo.practico.integrador.p2.TestDatabase;
+import com.mycompany.trabajo.practico.integrador.p2.entities.Vehicle;
+import com.mycompany.trabajo.practico.integrador.p2.exceptions.OptimisticLockException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class VehicleServiceTest {
+
+    private final VehicleService service = new VehicleService();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        TestDatabase.reset();
+    }
+
+    @Test
+    void concurrentEditsConflictAndTheCacheServesTheCommittedVersion() throws Exception {
+        Vehicle vehicle = new Vehicle("SRV1", "Ford", "Ka", 2020, "SRV1CH");
+        service.insert(vehicle);
+
+        // Dos usuarios leen el mismo vehículo (la caché entrega copias independientes)
+        Vehicle first = service.getById(vehicle.getVehicleId());
+        Vehicle second = service.getById(vehicle.getVehicleId());
+        assertNotSame(first, second);
+
+        first.setBrand("Fiat");
+        service.update(first);
+
+        second.setBrand("Renault");
+        assertThrows(OptimisticLockException.class, () -> service.update(second));
+
+        // Ni el cambio rechazado ni la versión vieja quedan en la caché
+        Vehicle reloaded = service.getById(vehicle.getVehicleId());
+        assertEquals("Fiat", reloaded.getBrand());
+        assertEquals(1L, reloaded.getVersion());
+        assertEquals("Fiat", service.findByDomain("SRV1").getBrand());
+
+        // Repetir sobre los datos actuales funciona
+        reloaded.setBrand("Renault");
+        service.update(reloaded);
+        assertEquals(2L, service.getById(vehicle.getVehicleId()).getVersion());
+        assertEquals("Renault", service.getById(vehicle.getVehicleId()).getBrand());
+    }
+
+    @Test
+    void domainsWithAnIAreFoundUnderATurkishLocale() throws Exception {
+        Locale previous = Locale.getDefault();
+        // En turco "i".toUpperCase() es "İ": la patente se guardaría con una clave y se buscaría con otra
+        Locale.setDefault(new Locale("tr", "TR"));
+        try {
+            assertEquals("TRI1", Vehicle.normalizeDomain("tri1"));
+
+            Vehicle vehicle = new Vehicle("tri1", "Fiat", "Uno", 2015, "TRICH1");
+            service.insert(vehicle);
+
+            assertEquals("TRI1", service.getById(vehicle.getVehicleId()).getDomain());
+            assertNotNull(service.findByDomain("tri1"));
+            assertNotNull(service.findByDomain("TRI1"));
+            Map<String, Vehicle> found = service.findByDomains(List.of("tri1", "Tri1"));
+            assertEquals(2, found.size());
+        } finally {
+            Locale.setDefault(previous);
+        }
+    }
+}